@@ -0,0 +1,306 @@
+import java.util.Arrays;
+
+/**
+ * RedBlackTree with its nodes stored in parallel arrays instead of one object
+ * each. Node i is items[i], with children left[i] and right[i], given as
+ * indices, and is red when bit i of the red bitset is set. Index 0 is never a
+ * node and stands for null, so it is always black. Slots freed by remove()
+ * are chained through left[] into a free list and handed out again before the
+ * arrays grow.
+ * <p>
+ * An RBTreeNode costs a 12-byte object header, the item and two child
+ * references and a boolean, padded to 32 bytes with compressed references.
+ * Here a node costs 12 bytes, the item reference and two ints, plus one bit,
+ * and the arrays keep the nodes of the tree close together in memory.
+ * <p>
+ * insert() makes the same fixes as RedBlackTree.insert(), and remove()
+ * follows Sedgewick's LLRB deletion like RedBlackTreeMap.remove().
+ */
+public class CompactRedBlackTree<T extends Comparable<T>> {
+
+    /* Index that stands for no node, like null in RedBlackTree. */
+    static final int NIL = 0;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /* Index of the root of the tree. */
+    int root = NIL;
+    T[] items;
+    int[] left;
+    int[] right;
+    /* Bit i is set when node i is red. */
+    private long[] red;
+
+    private int size = 0;
+    /* First slot never handed out yet. */
+    private int next = 1;
+    /* First slot of the free list, chained through left[]. */
+    private int free = NIL;
+
+    /* Creates an empty CompactRedBlackTree. */
+    public CompactRedBlackTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /* Creates an empty CompactRedBlackTree with room for CAPACITY items
+       before its arrays grow. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public CompactRedBlackTree(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        items = (T[]) new Comparable[capacity + 1];
+        left = new int[capacity + 1];
+        right = new int[capacity + 1];
+        red = new long[(capacity >> 6) + 1];
+    }
+
+    /* Returns the number of items in the tree. */
+    public int size() {
+        return size;
+    }
+
+    /* Returns the number of slots for nodes, used or not. */
+    int capacity() {
+        return items.length - 1;
+    }
+
+    /* Removes every item, keeping the arrays. */
+    public void clear() {
+        Arrays.fill(items, null);
+        Arrays.fill(red, 0);
+        root = NIL;
+        size = 0;
+        next = 1;
+        free = NIL;
+    }
+
+    /* Returns whether the given node is red. NIL is never red. */
+    boolean isRed(int node) {
+        return (red[node >>> 6] & (1L << node)) != 0;
+    }
+
+    private void setRed(int node, boolean isRed) {
+        if (isRed) {
+            red[node >>> 6] |= 1L << node;
+        } else {
+            red[node >>> 6] &= ~(1L << node);
+        }
+    }
+
+    /* Returns a red node holding ITEM, in a freed slot if there is one. */
+    private int allocate(T item) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left[node];
+        } else {
+            if (next == items.length) {
+                int capacity = 2 * items.length;
+                items = Arrays.copyOf(items, capacity);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                red = Arrays.copyOf(red, (capacity >> 6) + 1);
+            }
+            node = next;
+            next += 1;
+        }
+        items[node] = item;
+        left[node] = NIL;
+        right[node] = NIL;
+        setRed(node, true);
+        return node;
+    }
+
+    /* Puts the slot of NODE on the free list. */
+    private void release(int node) {
+        items[node] = null;
+        left[node] = free;
+        right[node] = NIL;
+        setRed(node, false);
+        free = node;
+    }
+
+    /* Flips the color of node and its children. Assume that NODE has both left
+       and right children, each of the opposite color to NODE. */
+    void flipColors(int node) {
+        red[node >>> 6] ^= 1L << node;
+        red[left[node] >>> 6] ^= 1L << left[node];
+        red[right[node] >>> 6] ^= 1L << right[node];
+    }
+
+    /* Rotates the given node to the right, giving the new root the old root's
+       color and making the old root red. Returns the new root node of this
+       subtree. */
+    int rotateRight(int node) {
+        int newRoot = left[node];
+        left[node] = right[newRoot];
+        right[newRoot] = node;
+        setRed(newRoot, isRed(node));
+        setRed(node, true);
+        return newRoot;
+    }
+
+    /* Rotates the given node to the left, giving the new root the old root's
+       color and making the old root red. Returns the new root node of this
+       subtree. */
+    int rotateLeft(int node) {
+        int newRoot = right[node];
+        right[node] = left[newRoot];
+        left[newRoot] = node;
+        setRed(newRoot, isRed(node));
+        setRed(node, true);
+        return newRoot;
+    }
+
+    public void insert(T item) {
+        root = insert(root, item);
+        setRed(root, false);
+    }
+
+    /* Inserts the given item below NODE and returns the new root of this
+       subtree. The arrays may grow during the call, so the child links are
+       only written once it returns. */
+    private int insert(int node, T item) {
+        if (node == NIL) {
+            size += 1;
+            return allocate(item);
+        }
+
+        int comp = item.compareTo(items[node]);
+        if (comp < 0) {
+            int child = insert(left[node], item);
+            left[node] = child;
+        } else if (comp > 0) {
+            int child = insert(right[node], item);
+            right[node] = child;
+        } else {
+            return node;
+        }
+        return balance(node);
+    }
+
+    /* Restores the left-leaning invariants at NODE on the way back up, and
+       returns the new root of this subtree. */
+    private int balance(int node) {
+        // Rotate left operation, if there is a right lean red node and left node is not red.
+        if (isRed(right[node]) && !isRed(left[node])) {
+            node = rotateLeft(node);
+        }
+        // Rotate right operation, if consecutive red node on left.
+        if (isRed(left[node]) && isRed(left[left[node]])) {
+            node = rotateRight(node);
+        }
+        // Color flip.
+        if (isRed(left[node]) && isRed(right[node])) {
+            flipColors(node);
+        }
+        return node;
+    }
+
+    /* Returns whether the tree holds ITEM, walking down in a loop. */
+    public boolean contains(T item) {
+        return find(item) != NIL;
+    }
+
+    private int find(T item) {
+        int node = root;
+        while (node != NIL) {
+            int comp = item.compareTo(items[node]);
+            if (comp < 0) {
+                node = left[node];
+            } else if (comp > 0) {
+                node = right[node];
+            } else {
+                return node;
+            }
+        }
+        return NIL;
+    }
+
+    /* Removes ITEM and frees its slot. Returns whether it was in the tree. */
+    public boolean remove(T item) {
+        if (find(item) == NIL) {
+            return false;
+        }
+        // make the root red so there is a red link to push down
+        if (!isRed(left[root]) && !isRed(right[root])) {
+            setRed(root, true);
+        }
+        root = delete(root, item);
+        setRed(root, false);
+        size -= 1;
+        return true;
+    }
+
+    /* Deletes ITEM, which must be in the subtree rooted at NODE, and returns
+       the new root of this subtree. */
+    private int delete(int node, T item) {
+        if (item.compareTo(items[node]) < 0) {
+            if (!isRed(left[node]) && !isRed(left[left[node]])) {
+                node = moveRedLeft(node);
+            }
+            left[node] = delete(left[node], item);
+        } else {
+            if (isRed(left[node])) {
+                node = rotateRight(node);
+            }
+            if (item.compareTo(items[node]) == 0 && right[node] == NIL) {
+                release(node);
+                return NIL;
+            }
+            if (!isRed(right[node]) && !isRed(left[right[node]])) {
+                node = moveRedRight(node);
+            }
+            if (item.compareTo(items[node]) == 0) {
+                // take over the successor's item, then delete the successor
+                int successor = right[node];
+                while (left[successor] != NIL) {
+                    successor = left[successor];
+                }
+                items[node] = items[successor];
+                right[node] = deleteMin(right[node]);
+            } else {
+                right[node] = delete(right[node], item);
+            }
+        }
+        return balance(node);
+    }
+
+    /* Deletes the smallest item of the subtree rooted at NODE, and returns the
+       new root of this subtree. */
+    private int deleteMin(int node) {
+        if (left[node] == NIL) {
+            release(node);
+            return NIL;
+        }
+        if (!isRed(left[node]) && !isRed(left[left[node]])) {
+            node = moveRedLeft(node);
+        }
+        left[node] = deleteMin(left[node]);
+        return balance(node);
+    }
+
+    /* Makes left[node] or one of its children red, assuming NODE is red and
+       both left[node] and left[left[node]] are black. */
+    private int moveRedLeft(int node) {
+        flipColors(node);
+        if (isRed(left[right[node]])) {
+            right[node] = rotateRight(right[node]);
+            node = rotateLeft(node);
+            flipColors(node);
+        }
+        return node;
+    }
+
+    /* Makes right[node] or one of its children red, assuming NODE is red and
+       both right[node] and left[right[node]] are black. */
+    private int moveRedRight(int node) {
+        flipColors(node);
+        if (isRed(left[left[node]])) {
+            node = rotateRight(node);
+            flipColors(node);
+        }
+        return node;
+    }
+}
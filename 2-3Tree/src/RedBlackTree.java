@@ -1,8 +1,16 @@
+import java.util.Arrays;
+
 public class RedBlackTree<T extends Comparable<T>> {
 
     /* Root of the tree. */
     RBTreeNode<T> root;
 
+    /* The nodes insert() passed on its way down, and which way it went from
+       each, kept between calls so it does not allocate them every time. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private RBTreeNode<T>[] path = (RBTreeNode<T>[]) new RBTreeNode[32];
+    private boolean[] wentLeft = new boolean[32];
+
     static class RBTreeNode<T> {
 
         final T item;
@@ -99,25 +107,59 @@ public class RedBlackTree<T extends Comparable<T>> {
         root.isBlack = true;
     }
 
-    /* Inserts the given node into this Red Black Tree. Comments have been provided to help break
-     * down the problem. For each case, consider the scenario needed to perform those operations.
-     * Make sure to also review the other methods in this class! */
+    /* Inserts the given item below NODE and returns the new root of this subtree.
+     * Walks down in a loop, remembering the path, and then walks back up it doing
+     * the fixes that a recursive insert does as each call returns, in the same
+     * order, so it makes exactly the same calls to rotateLeft, rotateRight and
+     * flipColors without a stack frame per level. */
     private RBTreeNode<T> insert(RBTreeNode<T> node, T item) {
         // Insert (return) new red leaf node.
         if (node == null) {
             return new RBTreeNode<>(false, item);
         }
 
-        // Handle normal binary search tree insertion.
-        int comp = item.compareTo(node.item);
-        if (comp == 0) {
-            return node; // do nothing.
-        } else if (comp < 0) {
-            node.left = insert(node.left, item);
-        } else {
-            node.right = insert(node.right, item);
+        // Handle normal binary search tree insertion, remembering the way down.
+        int depth = 0;
+        RBTreeNode<T> parent = node;
+        while (true) {
+            int comp = item.compareTo(parent.item);
+            if (comp == 0) {
+                // do nothing, the tree is unchanged so no fixes are needed.
+                Arrays.fill(path, 0, depth, null);
+                return node;
+            }
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, 2 * depth);
+                wentLeft = Arrays.copyOf(wentLeft, 2 * depth);
+            }
+            path[depth] = parent;
+            wentLeft[depth] = comp < 0;
+            depth += 1;
+            RBTreeNode<T> next = comp < 0 ? parent.left : parent.right;
+            if (next == null) {
+                break;
+            }
+            parent = next;
         }
 
+        // Hang the new leaf and fix each node on the way back up.
+        RBTreeNode<T> child = new RBTreeNode<>(false, item);
+        for (int i = depth - 1; i >= 0; i--) {
+            RBTreeNode<T> current = path[i];
+            path[i] = null;
+            if (wentLeft[i]) {
+                current.left = child;
+            } else {
+                current.right = child;
+            }
+            child = balance(current);
+        }
+        return child;
+    }
+
+    /* Applies the insertion fixes to NODE, whose subtrees are already fixed,
+     * and returns the new root of this subtree. */
+    private RBTreeNode<T> balance(RBTreeNode<T> node) {
         // Rotate left operation, if there is a right lean red node and left node is not red.
         if (isRed(node.right) && !isRed(node.left)) {
             node = rotateLeft(node);
@@ -130,8 +172,7 @@ public class RedBlackTree<T extends Comparable<T>> {
         if (isRed(node.left) && isRed(node.right)) {
             flipColors(node);
         }
-
-        return node; //fix this return statement
+        return node;
     }
 
     /* Returns whether the given node is red. Null nodes (children of leaf
@@ -0,0 +1,385 @@
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * RedBlackTree grown into a map: a left-leaning red-black tree of key/value
+ * nodes that implements Map61B, with deletion and in-order iteration.
+ * <p>
+ * put() inserts exactly as RedBlackTree.insert() does, with the same
+ * rotateLeft, rotateRight and flipColors fixes on the way up, except that
+ * putting an existing key replaces its value. remove(), deleteMin() and
+ * deleteMax() follow Sedgewick's LLRB deletion: on the way down they keep
+ * the current node or one of its children red, so the node finally deleted
+ * is never a lone 2-node, and they fix the tree up again on the way back.
+ * get() and containsKey() walk down in a loop. Every operation takes
+ * O(log n), since the height never exceeds 2 lg n.
+ */
+public class RedBlackTreeMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+
+    /* Root of the tree. */
+    RBTreeNode<K, V> root;
+    private int size = 0;
+
+    static class RBTreeNode<K, V> {
+
+        K key;
+        V value;
+        boolean isBlack;
+        RBTreeNode<K, V> left;
+        RBTreeNode<K, V> right;
+
+        /* Creates a RBTreeNode holding KEY and VALUE, with color depending on
+           ISBLACK value. */
+        RBTreeNode(boolean isBlack, K key, V value) {
+            this.isBlack = isBlack;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /* Flips the color of node and its children. Assume that NODE has both left
+       and right children, each of the opposite color to NODE. */
+    void flipColors(RBTreeNode<K, V> node) {
+        node.isBlack = !node.isBlack;
+        node.left.isBlack = !node.left.isBlack;
+        node.right.isBlack = !node.right.isBlack;
+    }
+
+    /* Rotates the given node to the right, giving the new root the old root's
+       color and making the old root red. Returns the new root node of this
+       subtree. */
+    RBTreeNode<K, V> rotateRight(RBTreeNode<K, V> node) {
+        RBTreeNode<K, V> newRoot = node.left;
+        node.left = newRoot.right;
+        newRoot.right = node;
+        newRoot.isBlack = node.isBlack;
+        node.isBlack = false;
+        return newRoot;
+    }
+
+    /* Rotates the given node to the left, giving the new root the old root's
+       color and making the old root red. Returns the new root node of this
+       subtree. */
+    RBTreeNode<K, V> rotateLeft(RBTreeNode<K, V> node) {
+        RBTreeNode<K, V> newRoot = node.right;
+        node.right = newRoot.left;
+        newRoot.left = node;
+        newRoot.isBlack = node.isBlack;
+        node.isBlack = false;
+        return newRoot;
+    }
+
+    /* Returns whether the given node is red. Null nodes (children of leaf
+       nodes) are automatically considered black. */
+    private boolean isRed(RBTreeNode<K, V> node) {
+        return node != null && !node.isBlack;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        root = insert(root, key, value);
+        root.isBlack = true;
+    }
+
+    /* Inserts the pair as a new red leaf below NODE, or replaces the value of
+       an existing key, and fixes the tree on the way back up. */
+    private RBTreeNode<K, V> insert(RBTreeNode<K, V> node, K key, V value) {
+        if (node == null) {
+            size += 1;
+            return new RBTreeNode<>(false, key, value);
+        }
+
+        int comp = key.compareTo(node.key);
+        if (comp == 0) {
+            node.value = value;
+            return node;
+        } else if (comp < 0) {
+            node.left = insert(node.left, key, value);
+        } else {
+            node.right = insert(node.right, key, value);
+        }
+        return balance(node);
+    }
+
+    /* Restores the left-leaning invariants at NODE on the way back up: no
+       right-leaning red link, no two red links in a row, and no node with
+       two red children. Returns the new root of this subtree. */
+    private RBTreeNode<K, V> balance(RBTreeNode<K, V> node) {
+        // Rotate left operation, if there is a right lean red node and left node is not red.
+        if (isRed(node.right) && !isRed(node.left)) {
+            node = rotateLeft(node);
+        }
+        // Rotate right operation, if consecutive red node on left.
+        if (isRed(node.left) && isRed(node.left.left)) {
+            node = rotateRight(node);
+        }
+        // Color flip.
+        if (isRed(node.left) && isRed(node.right)) {
+            flipColors(node);
+        }
+        return node;
+    }
+
+    /* Returns the node holding KEY, or null, walking down in a loop. */
+    private RBTreeNode<K, V> find(K key) {
+        RBTreeNode<K, V> node = root;
+        while (node != null) {
+            int comp = key.compareTo(node.key);
+            if (comp < 0) {
+                node = node.left;
+            } else if (comp > 0) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public V get(K key) {
+        RBTreeNode<K, V> node = find(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return find(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        TreeSet<K> set = new TreeSet<>();
+        for (K key : this) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    /**
+     * Returns the smallest key.
+     *
+     * @throws NoSuchElementException if the map is empty
+     */
+    public K min() {
+        if (root == null) {
+            throw new NoSuchElementException("min() of an empty map");
+        }
+        return min(root).key;
+    }
+
+    /**
+     * Returns the largest key.
+     *
+     * @throws NoSuchElementException if the map is empty
+     */
+    public K max() {
+        if (root == null) {
+            throw new NoSuchElementException("max() of an empty map");
+        }
+        RBTreeNode<K, V> node = root;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node.key;
+    }
+
+    /* Returns the leftmost node of the subtree rooted at NODE. */
+    private RBTreeNode<K, V> min(RBTreeNode<K, V> node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    @Override
+    public V remove(K key) {
+        RBTreeNode<K, V> node = find(key);
+        if (node == null) {
+            return null;
+        }
+        V value = node.value;
+        // make the root red so there is a red link to push down
+        if (!isRed(root.left) && !isRed(root.right)) {
+            root.isBlack = false;
+        }
+        root = delete(root, key);
+        if (root != null) {
+            root.isBlack = true;
+        }
+        size -= 1;
+        return value;
+    }
+
+    /* Deletes KEY, which must be in the subtree rooted at NODE, and returns
+       the new root of this subtree. */
+    private RBTreeNode<K, V> delete(RBTreeNode<K, V> node, K key) {
+        if (key.compareTo(node.key) < 0) {
+            if (!isRed(node.left) && !isRed(node.left.left)) {
+                node = moveRedLeft(node);
+            }
+            node.left = delete(node.left, key);
+        } else {
+            if (isRed(node.left)) {
+                node = rotateRight(node);
+            }
+            if (key.compareTo(node.key) == 0 && node.right == null) {
+                return null;
+            }
+            if (!isRed(node.right) && !isRed(node.right.left)) {
+                node = moveRedRight(node);
+            }
+            if (key.compareTo(node.key) == 0) {
+                // take over the successor's pair, then delete the successor
+                RBTreeNode<K, V> successor = min(node.right);
+                node.key = successor.key;
+                node.value = successor.value;
+                node.right = deleteMin(node.right);
+            } else {
+                node.right = delete(node.right, key);
+            }
+        }
+        return balance(node);
+    }
+
+    /**
+     * Removes the pair with the smallest key.
+     *
+     * @return the smallest key
+     * @throws NoSuchElementException if the map is empty
+     */
+    public K deleteMin() {
+        K key = min();
+        if (!isRed(root.left) && !isRed(root.right)) {
+            root.isBlack = false;
+        }
+        root = deleteMin(root);
+        if (root != null) {
+            root.isBlack = true;
+        }
+        size -= 1;
+        return key;
+    }
+
+    /* Deletes the smallest key of the subtree rooted at NODE, and returns the
+       new root of this subtree. */
+    private RBTreeNode<K, V> deleteMin(RBTreeNode<K, V> node) {
+        if (node.left == null) {
+            return null;
+        }
+        if (!isRed(node.left) && !isRed(node.left.left)) {
+            node = moveRedLeft(node);
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    /**
+     * Removes the pair with the largest key.
+     *
+     * @return the largest key
+     * @throws NoSuchElementException if the map is empty
+     */
+    public K deleteMax() {
+        K key = max();
+        if (!isRed(root.left) && !isRed(root.right)) {
+            root.isBlack = false;
+        }
+        root = deleteMax(root);
+        if (root != null) {
+            root.isBlack = true;
+        }
+        size -= 1;
+        return key;
+    }
+
+    /* Deletes the largest key of the subtree rooted at NODE, and returns the
+       new root of this subtree. */
+    private RBTreeNode<K, V> deleteMax(RBTreeNode<K, V> node) {
+        if (isRed(node.left)) {
+            node = rotateRight(node);
+        }
+        if (node.right == null) {
+            return null;
+        }
+        if (!isRed(node.right) && !isRed(node.right.left)) {
+            node = moveRedRight(node);
+        }
+        node.right = deleteMax(node.right);
+        return balance(node);
+    }
+
+    /* Makes node.left or one of its children red, assuming NODE is red and
+       both node.left and node.left.left are black. */
+    private RBTreeNode<K, V> moveRedLeft(RBTreeNode<K, V> node) {
+        flipColors(node);
+        if (isRed(node.right.left)) {
+            node.right = rotateRight(node.right);
+            node = rotateLeft(node);
+            flipColors(node);
+        }
+        return node;
+    }
+
+    /* Makes node.right or one of its children red, assuming NODE is red and
+       both node.right and node.right.left are black. */
+    private RBTreeNode<K, V> moveRedRight(RBTreeNode<K, V> node) {
+        flipColors(node);
+        if (isRed(node.left.left)) {
+            node = rotateRight(node);
+            flipColors(node);
+        }
+        return node;
+    }
+
+    /**
+     * Returns the keys in ascending order, found one by one with an explicit
+     * stack of at most one node per level. The map must not be modified
+     * while iterating.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new Iterator<K>() {
+            private final ArrayDeque<RBTreeNode<K, V>> stack = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(RBTreeNode<K, V> node) {
+                for (; node != null; node = node.left) {
+                    stack.push(node);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public K next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                RBTreeNode<K, V> node = stack.pop();
+                pushLeft(node.right);
+                return node.key;
+            }
+        };
+    }
+}
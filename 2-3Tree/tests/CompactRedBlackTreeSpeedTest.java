@@ -0,0 +1,109 @@
+import java.util.Random;
+import java.util.Scanner;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * Measures the heap taken by a RedBlackTree, a CompactRedBlackTree and a
+ * RedBlackTreeMap of N random Integer keys, and times inserting them and
+ * looking them up again. The keys are boxed before any tree is built, so the
+ * Integers themselves are not counted. RedBlackTree cannot look items up, so
+ * the lookups are timed against RedBlackTreeMap, whose nodes also hold a
+ * value. Try N of 10000000 with a large heap, e.g. -Xmx4g.
+ */
+public class CompactRedBlackTreeSpeedTest {
+    private static final int LOOKUPS = 10000000;
+
+    /** Counts what the lookups find, so the JIT cannot drop them. */
+    private static long sink;
+
+    /**
+     Requests user input and performs the heap and lookup tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("This program measures the heap used by N random keys in a RedBlackTree, "
+                + "a CompactRedBlackTree and a RedBlackTreeMap, and times lookups in the last two.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # keys to insert: ");
+            int N = RedBlackTreeSpeedTest.waitForPositiveInt(input);
+
+            Integer[] keys = new Integer[N];
+            Random random = new Random(61);
+            for (int i = 0; i < N; i++) {
+                keys[i] = random.nextInt();
+            }
+            int[] lookups = new int[LOOKUPS];
+            random = new Random(62);
+            for (int i = 0; i < LOOKUPS; i++) {
+                lookups[i] = random.nextInt(N);
+            }
+
+            long before = usedHeap();
+            Stopwatch sw = new Stopwatch();
+            RedBlackTree<Integer> tree = new RedBlackTree<>();
+            for (Integer key : keys) {
+                tree.insert(key);
+            }
+            double seconds = sw.elapsedTime();
+            printHeap("RedBlackTree", N, seconds, usedHeap() - before);
+            sink += tree.root.isBlack ? 1 : 0; // keeps the tree alive until its heap is measured
+            tree = null;
+
+            before = usedHeap();
+            sw = new Stopwatch();
+            CompactRedBlackTree<Integer> compact = new CompactRedBlackTree<>();
+            for (Integer key : keys) {
+                compact.insert(key);
+            }
+            seconds = sw.elapsedTime();
+            printHeap("CompactRedBlackTree", N, seconds, usedHeap() - before);
+            sink += compact.size();
+
+            sw = new Stopwatch();
+            for (int i : lookups) {
+                sink += compact.contains(keys[i]) ? 1 : 0;
+            }
+            System.out.printf("CompactRedBlackTree: %d lookups: %.2f sec\n", LOOKUPS, sw.elapsedTime());
+            compact = null;
+
+            before = usedHeap();
+            sw = new Stopwatch();
+            RedBlackTreeMap<Integer, Integer> map = new RedBlackTreeMap<>();
+            for (Integer key : keys) {
+                map.put(key, key);
+            }
+            seconds = sw.elapsedTime();
+            printHeap("RedBlackTreeMap", N, seconds, usedHeap() - before);
+            sink += map.size();
+
+            sw = new Stopwatch();
+            for (int i : lookups) {
+                sink += map.containsKey(keys[i]) ? 1 : 0;
+            }
+            System.out.printf("RedBlackTreeMap: %d lookups: %.2f sec\n", LOOKUPS, sw.elapsedTime());
+            map = null;
+
+            System.out.print("Would you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    private static void printHeap(String name, int N, double seconds, long bytes) {
+        // bytes per key are also MB per million keys
+        System.out.printf("%s, %d inserts: %.2f sec, %.1f MB of heap, %.1f bytes per key\n",
+                name, N, seconds, bytes / 1e6, (double) bytes / N);
+    }
+
+    /** Returns the bytes of heap in use, after asking for a few collections. */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,108 @@
+import java.util.Random;
+import java.util.Scanner;
+import java.util.TreeMap;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * Times putting N random and N in-order Integer keys into a RedBlackTreeMap,
+ * the insert-only RedBlackTree and a TreeMap, then getting and removing
+ * them all again from the RedBlackTreeMap and the TreeMap. Run with the same
+ * N as BST's InsertRandomSpeedTest, which times BSTMap against the same
+ * TreeMap, to compare with BSTMap.
+ */
+public class RedBlackTreeSpeedTest {
+
+    /** Sums what the gets find, so the JIT cannot drop them. */
+    private static long sink;
+
+    /**
+     Requests user input and performs the red-black tree tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("This program times putting N random and N in-order keys into a "
+                + "RedBlackTreeMap, a RedBlackTree and a TreeMap.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # keys to put: ");
+            int N = waitForPositiveInt(input);
+
+            int[] random = new int[N];
+            Random generator = new Random(61);
+            for (int i = 0; i < N; i++) {
+                random[i] = generator.nextInt();
+            }
+            int[] inOrder = new int[N];
+            for (int i = 0; i < N; i++) {
+                inOrder[i] = i;
+            }
+
+            for (String order : new String[]{"random", "in-order"}) {
+                int[] keys = order.equals("random") ? random : inOrder;
+
+                Stopwatch sw = new Stopwatch();
+                RedBlackTreeMap<Integer, Integer> map = new RedBlackTreeMap<>();
+                for (int key : keys) {
+                    map.put(key, key);
+                }
+                System.out.printf("RedBlackTreeMap, %d %s puts: %.2f sec\n", N, order, sw.elapsedTime());
+
+                sw = new Stopwatch();
+                RedBlackTree<Integer> tree = new RedBlackTree<>();
+                for (int key : keys) {
+                    tree.insert(key);
+                }
+                System.out.printf("RedBlackTree, %d %s inserts: %.2f sec\n", N, order, sw.elapsedTime());
+
+                sw = new Stopwatch();
+                TreeMap<Integer, Integer> treeMap = new TreeMap<>();
+                for (int key : keys) {
+                    treeMap.put(key, key);
+                }
+                System.out.printf("Java's Built-in TreeMap, %d %s puts: %.2f sec\n", N, order, sw.elapsedTime());
+
+                sw = new Stopwatch();
+                for (int key : keys) {
+                    sink += map.get(key);
+                }
+                for (int key : keys) {
+                    map.remove(key);
+                }
+                System.out.printf("RedBlackTreeMap, %d gets and removes: %.2f sec\n", N, sw.elapsedTime());
+
+                sw = new Stopwatch();
+                for (int key : keys) {
+                    sink += treeMap.get(key);
+                }
+                for (int key : keys) {
+                    treeMap.remove(key);
+                }
+                System.out.printf("Java's Built-in TreeMap, %d gets and removes: %.2f sec\n", N, sw.elapsedTime());
+            }
+
+            System.out.print("Would you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     Waits for the user on other side of Scanner
+     to enter a positive int,
+     and outputs that int
+     */
+    public static int waitForPositiveInt(Scanner input) {
+        int ret;
+        do {
+            while (!input.hasNextInt()) {
+                System.out.print("Please enter a positive integer: ");
+                input.next();
+            }
+            ret = input.nextInt();
+            input.nextLine(); //consume not taken by nextInt()
+        } while (ret <= 0);
+        return ret;
+    }
+}
@@ -0,0 +1,134 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestCompactRedBlackTree {
+
+    /*
+     * Test class for CompactRedBlackTree.java
+     *
+     * Checks the tree against a java.util.TreeSet, checks the left-leaning
+     * red-black invariants after the operations, and checks that removed
+     * slots are used again before the arrays grow.
+     */
+
+    @Test
+    public void testRandomInsertRemove() {
+        CompactRedBlackTree<Integer> tree = new CompactRedBlackTree<>();
+        TreeSet<Integer> ref = new TreeSet<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 20000; i++) {
+            int item = random.nextInt(2000);
+            if (random.nextInt(5) < 3) {
+                tree.insert(item);
+                ref.add(item);
+            } else {
+                assertThat(tree.remove(item)).isEqualTo(ref.remove(item));
+            }
+            assertThat(tree.size()).isEqualTo(ref.size());
+            if (i % 1000 == 0) {
+                checkInvariants(tree);
+            }
+        }
+        checkInvariants(tree);
+        for (int item = -1; item <= 2000; item++) {
+            assertThat(tree.contains(item)).isEqualTo(ref.contains(item));
+        }
+        assertThat(inOrder(tree)).containsExactlyElementsIn(ref).inOrder();
+    }
+
+    @Test
+    public void testInsertInOrder() {
+        CompactRedBlackTree<Integer> tree = new CompactRedBlackTree<>(1);
+        for (int i = 0; i < 100000; i++) {
+            tree.insert(i);
+        }
+        tree.insert(500);
+        assertThat(tree.size()).isEqualTo(100000);
+        assertThat(checkInvariants(tree)).isAtMost(2 * 17);
+        assertThat(inOrder(tree)).isInStrictOrder();
+        assertThrows(IllegalArgumentException.class, () -> new CompactRedBlackTree<Integer>(0));
+    }
+
+    @Test
+    public void testReuseSlots() {
+        CompactRedBlackTree<String> tree = new CompactRedBlackTree<>(1000);
+        for (int i = 0; i < 1000; i++) {
+            tree.insert("k" + i);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertThat(tree.remove("k" + i)).isTrue();
+        }
+        assertThat(tree.remove("k0")).isFalse();
+        for (int i = 0; i < 1000; i += 2) {
+            tree.insert("j" + i);
+        }
+        assertWithMessage("the arrays grew though removed slots were free").that(tree.capacity()).isEqualTo(1000);
+        assertThat(tree.size()).isEqualTo(1000);
+        checkInvariants(tree);
+
+        for (int i = 1; i < 1000; i += 2) {
+            tree.remove("k" + i);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            tree.remove("j" + i);
+        }
+        assertThat(tree.size()).isEqualTo(0);
+        assertThat(tree.root).isEqualTo(CompactRedBlackTree.NIL);
+        tree.insert("a");
+        tree.clear();
+        assertThat(tree.contains("a")).isFalse();
+        assertThat(tree.capacity()).isEqualTo(1000);
+    }
+
+    /* Checks a black root and the invariants below it, and returns the height of the tree. */
+    private static <T extends Comparable<T>> int checkInvariants(CompactRedBlackTree<T> tree) {
+        assertThat(tree.isRed(tree.root)).isFalse();
+        assertThat(tree.isRed(CompactRedBlackTree.NIL)).isFalse();
+        blackHeight(tree, tree.root);
+        return height(tree, tree.root);
+    }
+
+    /* Checks the invariants below NODE and returns its number of black nodes
+       on every path down. */
+    private static <T extends Comparable<T>> int blackHeight(CompactRedBlackTree<T> tree, int node) {
+        if (node == CompactRedBlackTree.NIL) {
+            return 0;
+        }
+        assertWithMessage("right-leaning red link").that(tree.isRed(tree.right[node])).isFalse();
+        if (tree.isRed(node)) {
+            assertWithMessage("two red links in a row").that(tree.isRed(tree.left[node])).isFalse();
+        }
+        int left = blackHeight(tree, tree.left[node]);
+        assertWithMessage("unequal black heights").that(blackHeight(tree, tree.right[node])).isEqualTo(left);
+        return left + (tree.isRed(node) ? 0 : 1);
+    }
+
+    private static <T extends Comparable<T>> int height(CompactRedBlackTree<T> tree, int node) {
+        if (node == CompactRedBlackTree.NIL) {
+            return 0;
+        }
+        return 1 + Math.max(height(tree, tree.left[node]), height(tree, tree.right[node]));
+    }
+
+    private static <T extends Comparable<T>> List<T> inOrder(CompactRedBlackTree<T> tree) {
+        List<T> items = new ArrayList<>();
+        inOrder(tree, tree.root, items);
+        return items;
+    }
+
+    private static <T extends Comparable<T>> void inOrder(CompactRedBlackTree<T> tree, int node, List<T> items) {
+        if (node != CompactRedBlackTree.NIL) {
+            inOrder(tree, tree.left[node], items);
+            items.add(tree.items[node]);
+            inOrder(tree, tree.right[node], items);
+        }
+    }
+}
@@ -1,5 +1,10 @@
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth.assertWithMessage;
 
@@ -359,6 +364,74 @@ public class TestRedBlackTree {
     }
 
 
+    /*
+    Inserts many keys, in random order and in order, which used to take one stack frame per level, and
+    checks the left-leaning invariants and the order of the items. Inserting a key already in the tree
+    must not call any of the fixing operations.
+     */
+    @Test
+    public void testInsertMany() {
+        Random random = new Random(61);
+        RedBlackTree<Integer> rbtree = new TestableRedBlackTree();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 100000; i++) {
+            int item = random.nextInt(50000);
+            rbtree.insert(item);
+            expected.add(item);
+        }
+        assertThat(rbtree.root.isBlack).isTrue();
+        blackHeight(rbtree.root);
+        List<Integer> items = new ArrayList<>();
+        inOrder(rbtree.root, items);
+        assertThat(items).containsExactlyElementsIn(expected).inOrder();
+
+        int flips = callsToFlipColors;
+        int lefts = callsToRotateLeft;
+        int rights = callsToRotateRight;
+        for (int item : expected) {
+            rbtree.insert(item);
+        }
+        assertWithMessage("Number of Calls to Flip Colors after inserting items already there").that(callsToFlipColors).isEqualTo(flips);
+        assertWithMessage("Number of Calls to Rotate Left after inserting items already there").that(callsToRotateLeft).isEqualTo(lefts);
+        assertWithMessage("Number of Calls to Rotate Right after inserting items already there").that(callsToRotateRight).isEqualTo(rights);
+
+        RedBlackTree<Integer> sorted = new RedBlackTree<>();
+        for (int i = 0; i < 100000; i++) {
+            sorted.insert(i);
+        }
+        assertThat(blackHeight(sorted.root)).isAtMost(17);
+        items.clear();
+        inOrder(sorted.root, items);
+        assertThat(items).hasSize(100000);
+        assertThat(items).isInStrictOrder();
+    }
+
+    /* Checks that no red link leans right, no two red links come in a row and every path down NODE
+       has the same number of black nodes, and returns that number. */
+    private static int blackHeight(RedBlackTree.RBTreeNode<Integer> node) {
+        if (node == null) {
+            return 0;
+        }
+        if (node.right != null) {
+            assertWithMessage("right-leaning red link").that(node.right.isBlack).isTrue();
+        }
+        if (!node.isBlack && node.left != null) {
+            assertWithMessage("two red links in a row").that(node.left.isBlack).isTrue();
+        }
+        int left = blackHeight(node.left);
+        assertWithMessage("unequal black heights").that(blackHeight(node.right)).isEqualTo(left);
+        return left + (node.isBlack ? 1 : 0);
+    }
+
+    private static void inOrder(RedBlackTree.RBTreeNode<Integer> node, List<Integer> items) {
+        if (node != null) {
+            inOrder(node.left, items);
+            items.add(node.item);
+            inOrder(node.right, items);
+        }
+    }
+
+
     /*
      * Just super neat class to test the number of times your LLRB Tree implementation makes calls to it's
      * "fixing" operations.
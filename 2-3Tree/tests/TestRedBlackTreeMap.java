@@ -0,0 +1,124 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestRedBlackTreeMap {
+
+    /*
+     * Test class for RedBlackTreeMap.java
+     *
+     * Every test checks the map against a java.util.TreeMap, and checks the
+     * left-leaning red-black invariants after the operations: a black root,
+     * no right-leaning red links, no two red links in a row, and the same
+     * number of black nodes on every path from the root down.
+     */
+
+    @Test
+    public void testPutGetReplace() {
+        RedBlackTreeMap<String, Integer> map = new RedBlackTreeMap<>();
+        assertThat(map.get("a")).isNull();
+        map.put("b", 1);
+        map.put("a", 2);
+        map.put("c", 3);
+        map.put("b", 4);
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.get("b")).isEqualTo(4);
+        assertThat(map.containsKey("a")).isTrue();
+        assertThat(map.containsKey("d")).isFalse();
+        assertThat(map.keySet()).containsExactly("a", "b", "c").inOrder();
+        checkInvariants(map);
+
+        map.clear();
+        assertThat(map.size()).isEqualTo(0);
+        assertThat(map.iterator().hasNext()).isFalse();
+    }
+
+    @Test
+    public void testRandomPutRemove() {
+        RedBlackTreeMap<Integer, Integer> map = new RedBlackTreeMap<>();
+        TreeMap<Integer, Integer> ref = new TreeMap<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextInt(5) < 3) {
+                map.put(key, i);
+                ref.put(key, i);
+            } else {
+                assertThat(map.remove(key)).isEqualTo(ref.remove(key));
+            }
+            assertThat(map.size()).isEqualTo(ref.size());
+            if (i % 1000 == 0) {
+                checkInvariants(map);
+            }
+        }
+        checkInvariants(map);
+        for (int key = -1; key <= 2000; key++) {
+            assertThat(map.get(key)).isEqualTo(ref.get(key));
+        }
+        List<Integer> keys = new ArrayList<>();
+        for (int key : map) {
+            keys.add(key);
+        }
+        assertThat(keys).containsExactlyElementsIn(ref.keySet()).inOrder();
+    }
+
+    @Test
+    public void testDeleteMinMax() {
+        RedBlackTreeMap<Integer, Integer> map = new RedBlackTreeMap<>();
+        assertThrows(NoSuchElementException.class, map::deleteMin);
+        assertThrows(NoSuchElementException.class, map::deleteMax);
+        assertThrows(NoSuchElementException.class, map::min);
+
+        // keys in order, which leave an unbalanced BST a single path
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        assertThat(height(map.root)).isAtMost(2 * 10);
+        for (int i = 0; i < 250; i++) {
+            assertThat(map.deleteMin()).isEqualTo(i);
+            assertThat(map.deleteMax()).isEqualTo(999 - i);
+            checkInvariants(map);
+        }
+        assertThat(map.size()).isEqualTo(500);
+        assertThat(map.min()).isEqualTo(250);
+        assertThat(map.max()).isEqualTo(749);
+        assertThat(map.containsKey(249)).isFalse();
+        assertThat(map.get(250)).isEqualTo(250);
+    }
+
+    private static <K extends Comparable<K>, V> void checkInvariants(RedBlackTreeMap<K, V> map) {
+        if (map.root != null) {
+            assertThat(map.root.isBlack).isTrue();
+        }
+        blackHeight(map.root);
+    }
+
+    /* Checks the invariants below NODE and returns its number of black nodes
+       on every path down. */
+    private static <K, V> int blackHeight(RedBlackTreeMap.RBTreeNode<K, V> node) {
+        if (node == null) {
+            return 0;
+        }
+        if (node.right != null) {
+            assertWithMessage("right-leaning red link").that(node.right.isBlack).isTrue();
+        }
+        if (!node.isBlack && node.left != null) {
+            assertWithMessage("two red links in a row").that(node.left.isBlack).isTrue();
+        }
+        int left = blackHeight(node.left);
+        assertWithMessage("unequal black heights").that(blackHeight(node.right)).isEqualTo(left);
+        return left + (node.isBlack ? 1 : 0);
+    }
+
+    private static <K, V> int height(RedBlackTreeMap.RBTreeNode<K, V> node) {
+        return node == null ? 0 : 1 + Math.max(height(node.left), height(node.right));
+    }
+}
@@ -1,4 +1,8 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -12,26 +16,37 @@ import java.util.TreeSet;
  * Any key must appear at most once in the dictionary, but values may appear multiple
  * times. Key operations are get(key), put(key, value), and contains(key) methods. The value
  * associated to a key is the value in the last call to put with that key.
+ * <p>
+ * Every node also counts the nodes of its subtree, so besides the Map61B
+ * operations the map answers ordered queries: min, max, floor, ceiling,
+ * rank, select and range scans, each in time proportional to the height of
+ * the tree.
  */
 public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
     /**
      * Keys and values are stored in a BST of BSTNode objects.
      * This variable stores the first pair in BSTMap.
+     * The protected qualifier allows subclass access, see BalancedBSTMap.
      */
-    private BSTNode root;
-    private int size = 0;
+    protected BSTNode root;
+    protected int size = 0;
 
-    private class BSTNode {
+    protected class BSTNode {
         K key;
         V value;
         BSTNode left;
         BSTNode right;
+        // color of the link from the parent, only used by BalancedBSTMap
+        boolean red;
+        // number of nodes in the subtree rooted here, for rank and select
+        int count;
 
         public BSTNode(K k, V v) {
             key = k;
             value = v;
             left = null;
             right = null;
+            count = 1;
         }
     }
 
@@ -59,9 +74,17 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
             root.value = value;
             size -= 1; //offset one if replacing.s
         }
+        root.count = 1 + count(root.left) + count(root.right);
         return root;
     }
 
+    /**
+     * Returns the number of nodes in the subtree rooted at node, 0 for null.
+     */
+    protected int count(BSTNode node) {
+        return node == null ? 0 : node.count;
+    }
+
     @Override
     public void put(K key, V value) {
         root = insert(root, key, value); //root points to the root of the tree
@@ -70,49 +93,61 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
 
     /**
      * Helper function to search the dictionary for a given key.
-     * Return null if no such key found.
+     * Walks down the tree in a loop, so even a degenerate tree of
+     * in-order keys cannot overflow the stack.
      *
      * @param key to look for
-     * @return value correspond to the key
+     * @return the node holding the key, or null if no such key found.
      */
-    private V getHelper(BSTNode root, K key) {
-        if (root == null) {
-            return null;
-        }
-        if (key.compareTo(root.key) < 0) {
-            return getHelper(root.left, key); //return value from the child
-        } else if (key.compareTo(root.key) > 0) {
-            return getHelper(root.right, key); //return value from the child
+    protected BSTNode getNode(K key) {
+        BSTNode node = root;
+        while (node != null) {
+            int comp = key.compareTo(node.key);
+            if (comp < 0) {
+                node = node.left;
+            } else if (comp > 0) {
+                node = node.right;
+            } else {
+                return node;
+            }
         }
-        return root.value;
+        return null;
     }
 
     @Override
     public V get(K key) {
-        return getHelper(root, key);
+        BSTNode node = getNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return getNode(key) != null;
     }
 
     /**
-     * Helper function to find if a given key is in the dictionary.
-     *
-     * @param root BSTNode
-     * @param key  to look for
-     * @return true if the key exist; false otherwise.
+     * Returns the number of nodes on the longest path from the root down,
+     * counted level by level so a degenerate tree cannot overflow the stack.
      */
-    private boolean containsKeyHelper(BSTNode root, K key) {
-        if (root == null) {
-            return false;
-        } else if (key.compareTo(root.key) < 0) {
-            return containsKeyHelper(root.left, key);
-        } else if (key.compareTo(root.key) > 0) {
-            return containsKeyHelper(root.right, key);
+    int height() {
+        int height = 0;
+        ArrayDeque<BSTNode> level = new ArrayDeque<>();
+        if (root != null) {
+            level.add(root);
         }
-        return true;
-    }
-
-    @Override
-    public boolean containsKey(K key) {
-        return containsKeyHelper(root, key);
+        while (!level.isEmpty()) {
+            height += 1;
+            for (int i = level.size(); i > 0; i--) {
+                BSTNode node = level.poll();
+                if (node.left != null) {
+                    level.add(node.left);
+                }
+                if (node.right != null) {
+                    level.add(node.right);
+                }
+            }
+        }
+        return height;
     }
 
     @Override
@@ -129,28 +164,19 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
     @Override
     public Set<K> keySet() {
         TreeSet<K> set = new TreeSet<>(); //return set of keys in order
-        addKeys(root, set);
-        return set;
-    }
-
-    /**
-     * Helper function to add keys to set recursively
-     *
-     * @param root
-     * @param set
-     */
-    private void addKeys(BSTNode root, Set<K> set) {
-        if (root == null) {
-            return;
+        for (K key : this) {
+            set.add(key);
         }
-        set.add(root.key);
-        addKeys(root.left, set);
-        addKeys(root.right, set);
+        return set;
     }
 
     @Override
     public V remove(K key) {
-        V returnValue = get(key);
+        BSTNode node = getNode(key);
+        if (node == null) {
+            return null; //nothing to remove, size and subtree counts stay as they are
+        }
+        V returnValue = node.value;
         root = removeHelper(root, key);
         size -= 1;
         return returnValue;
@@ -186,6 +212,7 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
             }
 
         }
+        root.count = 1 + count(root.left) + count(root.right);
         //return removed node for recursion
         return root;
     }
@@ -206,33 +233,479 @@ public class BSTMap<K extends Comparable<K>, V> implements Map61B<K, V> {
         }
         //go all the way to right
         leftChild.right = swapSmallest(root, leftChild.right);
+        leftChild.count = 1 + count(leftChild.left) + count(leftChild.right);
         return leftChild;
     }
 
-    public Iterator<K> iterator() {
-        return keySet().iterator();
+    /* ---------------------------------- Bulk loading ---------------------------------- */
+
+    /**
+     * Returns a map of the given pairs, built as a perfectly balanced tree in
+     * O(n) instead of n puts, which take O(n^2) for sorted keys in a plain
+     * BSTMap. values[i] is the value of keys[i].
+     *
+     * @param keys   in strictly ascending order
+     * @param values of the same length as keys
+     * @throws IllegalArgumentException if the keys are not strictly ascending
+     *                                  or the lengths differ
+     */
+    public static <K extends Comparable<K>, V> BSTMap<K, V> fromSorted(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException(keys.length + " keys but " + values.length + " values");
+        }
+        return fromSorted(Arrays.asList(keys).iterator(), Arrays.asList(values).iterator(), keys.length);
     }
 
     /**
-     * Call the recursive helper function to print out the key-value pair
-     * of the tree.
+     * Returns a map of the first n pairs of keys and values, built as a
+     * perfectly balanced tree in O(n). Only n pairs are read, one at a time,
+     * so the input can be streamed from a file.
+     *
+     * @param keys   in strictly ascending order
+     * @param values in the same order as keys
+     * @param n      number of pairs to read
+     * @throws IllegalArgumentException if the keys are not strictly ascending
+     *                                  or either iterator ends before n
      */
-    public void printInOrder() {
-        printInOrder(root);
+    public static <K extends Comparable<K>, V> BSTMap<K, V> fromSorted(Iterator<K> keys, Iterator<V> values, int n) {
+        BSTMap<K, V> map = new BSTMap<>();
+        map.load(keys, values, n);
+        return map;
+    }
+
+    /**
+     * Adds every pair of other to this map, with other's value for a key in
+     * both, by merging the keys of the two maps in order and rebuilding this
+     * map's tree from the result. This takes O(n + m) for maps of n and m
+     * keys, where m puts take O(m log(n + m)). other is not changed.
+     */
+    public void merge(BSTMap<K, V> other) {
+        ArrayList<K> keys = new ArrayList<>(size + other.size);
+        ArrayList<V> values = new ArrayList<>(size + other.size);
+        Iterator<BSTNode> mine = new InOrderIterator(null, null);
+        Iterator<BSTNode> theirs = other.new InOrderIterator(null, null);
+        BSTNode x = mine.hasNext() ? mine.next() : null;
+        BSTNode y = theirs.hasNext() ? theirs.next() : null;
+        while (x != null || y != null) {
+            int comp = x == null ? 1 : y == null ? -1 : x.key.compareTo(y.key);
+            if (comp < 0) {
+                keys.add(x.key);
+                values.add(x.value);
+                x = mine.hasNext() ? mine.next() : null;
+            } else {
+                keys.add(y.key);
+                values.add(y.value);
+                if (comp == 0) {
+                    x = mine.hasNext() ? mine.next() : null;
+                }
+                y = theirs.hasNext() ? theirs.next() : null;
+            }
+        }
+        load(keys.iterator(), values.iterator(), keys.size());
     }
 
     /**
-     * Traverse the tree in order
+     * Replaces the contents of this map with the first n pairs of keys and
+     * values, leaving the map as it was if the input turns out to be invalid.
+     */
+    protected void load(Iterator<K> keys, Iterator<V> values, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Negative number of pairs: " + n);
+        }
+        root = build(new SortedPairs(keys, values), n);
+        size = n;
+    }
+
+    /**
+     * Builds a tree of the next n pairs, giving the left subtree of every
+     * node half of the remaining pairs, rounded down, so that every level but
+     * the last is full. The keys are consumed in order, left subtree first.
      *
-     * @param node of the root
+     * @return the root of the new tree, with its counts set
      */
-    private void printInOrder(BSTNode node) {
-        if (node == null) {
-            return;
+    protected BSTNode build(SortedPairs pairs, int n) {
+        if (n == 0) {
+            return null;
+        }
+        int leftCount = (n - 1) / 2;
+        BSTNode left = build(pairs, leftCount);
+        BSTNode node = pairs.next();
+        node.left = left;
+        node.right = build(pairs, n - 1 - leftCount);
+        node.count = n;
+        return node;
+    }
+
+    /**
+     * Turns a key iterator and a value iterator into new nodes, checking that
+     * the keys are strictly ascending.
+     */
+    protected class SortedPairs {
+        private final Iterator<K> keys;
+        private final Iterator<V> values;
+        private K last = null;
+
+        SortedPairs(Iterator<K> keys, Iterator<V> values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        /**
+         * Returns a new node holding the next pair.
+         *
+         * @throws IllegalArgumentException if there is no next pair or its
+         *                                  key is not above the previous key
+         */
+        BSTNode next() {
+            if (!keys.hasNext() || !values.hasNext()) {
+                throw new IllegalArgumentException("Fewer pairs than promised");
+            }
+            K key = keys.next();
+            if (last != null && last.compareTo(key) >= 0) {
+                throw new IllegalArgumentException("Keys out of order: " + key + " after " + last);
+            }
+            last = key;
+            return new BSTNode(key, values.next());
+        }
+    }
+
+    /* ------------------------------- Ordered operations ------------------------------- */
+
+    /**
+     * Returns the smallest key.
+     *
+     * @throws NoSuchElementException if the map is empty
+     */
+    public K min() {
+        if (root == null) {
+            throw new NoSuchElementException("min() of an empty map");
+        }
+        BSTNode node = root;
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node.key;
+    }
+
+    /**
+     * Returns the largest key.
+     *
+     * @throws NoSuchElementException if the map is empty
+     */
+    public K max() {
+        if (root == null) {
+            throw new NoSuchElementException("max() of an empty map");
+        }
+        BSTNode node = root;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node.key;
+    }
+
+    /**
+     * Returns the largest key less than or equal to key, or null if there is none.
+     */
+    public K floor(K key) {
+        K best = null;
+        BSTNode node = root;
+        while (node != null) {
+            int comp = key.compareTo(node.key);
+            if (comp == 0) {
+                return node.key;
+            } else if (comp < 0) {
+                node = node.left;
+            } else {
+                best = node.key;
+                node = node.right;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the smallest key greater than or equal to key, or null if there is none.
+     */
+    public K ceiling(K key) {
+        K best = null;
+        BSTNode node = root;
+        while (node != null) {
+            int comp = key.compareTo(node.key);
+            if (comp == 0) {
+                return node.key;
+            } else if (comp > 0) {
+                node = node.right;
+            } else {
+                best = node.key;
+                node = node.left;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of keys strictly less than key, which need not be in
+     * the map. For a key in the map this is its index in sorted order.
+     */
+    public int rank(K key) {
+        int rank = 0;
+        BSTNode node = root;
+        while (node != null) {
+            int comp = key.compareTo(node.key);
+            if (comp < 0) {
+                node = node.left;
+            } else if (comp > 0) {
+                rank += 1 + count(node.left);
+                node = node.right;
+            } else {
+                return rank + count(node.left);
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the key of the given rank, the (i + 1)-th smallest key.
+     *
+     * @param i rank, from 0 to size() - 1
+     * @throws IllegalArgumentException if i is out of range
+     */
+    public K select(int i) {
+        if (i < 0 || i >= count(root)) {
+            throw new IllegalArgumentException("select(" + i + ") of a map of size " + count(root));
+        }
+        BSTNode node = root;
+        while (true) {
+            int leftCount = count(node.left);
+            if (i < leftCount) {
+                node = node.left;
+            } else if (i > leftCount) {
+                i -= leftCount + 1;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+        }
+    }
+
+    /**
+     * Returns the keys from lo to hi, both inclusive, in ascending order.
+     * Nothing is copied: the keys are found one by one as the iteration
+     * proceeds, so stopping after k keys costs O(h + k) for a tree of height h.
+     * The map must not be modified while iterating, except through the
+     * iterator's remove().
+     */
+    public Iterable<K> keys(K lo, K hi) {
+        return () -> new KeyIterator(lo, hi);
+    }
+
+    /**
+     * Returns the number of keys from lo to hi, both inclusive.
+     */
+    public int size(K lo, K hi) {
+        if (lo.compareTo(hi) > 0) {
+            return 0;
+        }
+        return rank(hi) - rank(lo) + (containsKey(hi) ? 1 : 0);
+    }
+
+    /**
+     * Returns a view of the pairs whose keys lie from lo to hi, both
+     * inclusive, backed by this map: changes to either show in the other.
+     * get() of a key outside the range returns null and put() of one throws
+     * IllegalArgumentException.
+     */
+    public Map61B<K, V> subMap(K lo, K hi) {
+        return new SubMap(lo, hi);
+    }
+
+    /**
+     * A range view of the enclosing map, see subMap().
+     */
+    private class SubMap implements Map61B<K, V> {
+        private final K lo;
+        private final K hi;
+
+        SubMap(K lo, K hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        private boolean inRange(K key) {
+            return key.compareTo(lo) >= 0 && key.compareTo(hi) <= 0;
+        }
+
+        @Override
+        public void put(K key, V value) {
+            if (!inRange(key)) {
+                throw new IllegalArgumentException("Key out of range [" + lo + ", " + hi + "]: " + key);
+            }
+            BSTMap.this.put(key, value);
+        }
+
+        @Override
+        public V get(K key) {
+            return inRange(key) ? BSTMap.this.get(key) : null;
+        }
+
+        @Override
+        public boolean containsKey(K key) {
+            return inRange(key) && BSTMap.this.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return BSTMap.this.size(lo, hi);
+        }
+
+        @Override
+        public void clear() {
+            Iterator<K> keys = iterator();
+            while (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+
+        @Override
+        public Set<K> keySet() {
+            TreeSet<K> set = new TreeSet<>();
+            for (K key : this) {
+                set.add(key);
+            }
+            return set;
+        }
+
+        @Override
+        public V remove(K key) {
+            return containsKey(key) ? BSTMap.this.remove(key) : null;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new KeyIterator(lo, hi);
+        }
+    }
+
+    /**
+     * Walks the nodes from lo to hi in order with an explicit stack of the
+     * nodes whose left subtree is being visited, skipping every subtree that
+     * lies outside the range. The stack holds at most one node per level, so
+     * the iterator needs O(h) memory and starts in O(h) time, and a degenerate
+     * tree cannot overflow the call stack.
+     * <p>
+     * remove() deletes the last node returned through the map and then finds
+     * its successor again from the root, since deleting may move keys between
+     * the nodes on the stack.
+     */
+    private class InOrderIterator implements Iterator<BSTNode> {
+        private final ArrayDeque<BSTNode> stack = new ArrayDeque<>();
+        private final K hi;
+        private K lastReturned = null;
+
+        /**
+         * @param lo smallest key to return, or null to start at the smallest key
+         * @param hi largest key to return, or null to run to the largest key
+         */
+        InOrderIterator(K lo, K hi) {
+            this.hi = hi;
+            seek(lo, true);
+        }
+
+        /**
+         * Fills the stack with the path to the first key at or after from
+         * (strictly after unless inclusive), leaving out the nodes before it.
+         */
+        private void seek(K from, boolean inclusive) {
+            stack.clear();
+            BSTNode node = root;
+            while (node != null) {
+                int comp = from == null ? -1 : from.compareTo(node.key);
+                if (comp < 0 || comp == 0 && inclusive) {
+                    stack.push(node);
+                    if (comp == 0) {
+                        break;
+                    }
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty() && (hi == null || stack.peek().key.compareTo(hi) <= 0);
+        }
+
+        @Override
+        public BSTNode next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BSTNode node = stack.pop();
+            for (BSTNode x = node.right; x != null; x = x.left) {
+                stack.push(x);
+            }
+            lastReturned = node.key;
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException("remove() without a preceding next()");
+            }
+            BSTMap.this.remove(lastReturned);
+            seek(lastReturned, false);
+            lastReturned = null;
+        }
+    }
+
+    /**
+     * The keys of an InOrderIterator.
+     */
+    private class KeyIterator implements Iterator<K> {
+        private final InOrderIterator nodes;
+
+        KeyIterator(K lo, K hi) {
+            nodes = new InOrderIterator(lo, hi);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nodes.hasNext();
+        }
+
+        @Override
+        public K next() {
+            return nodes.next().key;
+        }
+
+        @Override
+        public void remove() {
+            nodes.remove();
+        }
+    }
+
+    /**
+     * Returns the keys in ascending order, found one by one as the iteration
+     * proceeds. The map must not be modified while iterating, except through
+     * the iterator's remove().
+     */
+    public Iterator<K> iterator() {
+        return new KeyIterator(null, null);
+    }
+
+    /**
+     * Prints out the key-value pairs of the tree in order.
+     */
+    public void printInOrder() {
+        Iterator<BSTNode> nodes = new InOrderIterator(null, null);
+        while (nodes.hasNext()) {
+            BSTNode node = nodes.next();
+            System.out.println(node.key + " -> " + node.value);
         }
-        printInOrder(node.left);
-        System.out.println(node.key + " -> " + node.value);
-        printInOrder(node.right);
     }
 
 }
@@ -0,0 +1,583 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An ordered map stored as a B+ tree: the multi-item nodes of
+ * TwoThreeTree.TwoThreeNode from lab 8, widened to hold up to fanout - 1
+ * keys each in sorted arrays. All pairs live in the leaves, which are linked
+ * left to right for scans; the inner nodes only hold copies of keys that
+ * route searches to the right child.
+ * <p>
+ * A lookup in a BSTMap follows one pointer per comparison to a node
+ * somewhere else in memory. Here a lookup binary searches a whole node of
+ * keys that sit next to each other, then follows one pointer down, so a
+ * tree of n keys with the default fanout of 64 is only about log_32 n nodes
+ * deep. Range scans read the leaves in order without going back up.
+ * <p>
+ * put() splits a full node in two and moves a key up into its parent;
+ * remove() refills a node left less than half full from a sibling, or
+ * merges the two. Every node but the root thus stays at least half full.
+ */
+public class BTreeMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+    private static final int DEFAULT_FANOUT = 64;
+
+    /** Most keys a node holds; an inner node has one more child than keys. */
+    private final int maxKeys;
+    /** Fewest keys a node other than the root holds. */
+    private final int minKeys;
+    private Node root;
+    private int size = 0;
+
+    /**
+     * Keys of a node, sorted, in keys[0] to keys[n - 1]. The arrays have
+     * room for one key more than maxKeys, so a node can overflow before it
+     * is split.
+     */
+    private abstract static class Node {
+        final Object[] keys;
+        int n;
+
+        Node(int capacity) {
+            keys = new Object[capacity];
+        }
+    }
+
+    private static class Leaf extends Node {
+        final Object[] values;
+        /** The leaf with the next larger keys, or null for the last leaf. */
+        Leaf next;
+
+        Leaf(int maxKeys) {
+            super(maxKeys + 1);
+            values = new Object[maxKeys + 1];
+        }
+    }
+
+    /**
+     * An inner node, whose child i holds the keys from keys[i - 1],
+     * inclusive, to keys[i], exclusive.
+     */
+    private static class Inner extends Node {
+        final Node[] children;
+
+        Inner(int maxKeys) {
+            super(maxKeys + 1);
+            children = new Node[maxKeys + 2];
+        }
+    }
+
+    /** What put() passes up from a node it split: the new right half and its smallest key. */
+    private static class Split {
+        final Object key;
+        final Node right;
+
+        Split(Object key, Node right) {
+            this.key = key;
+            this.right = right;
+        }
+    }
+
+    /** Creates an empty map whose nodes hold up to 63 keys. */
+    public BTreeMap() {
+        this(DEFAULT_FANOUT);
+    }
+
+    /**
+     * Creates an empty map whose inner nodes have up to fanout children.
+     *
+     * @throws IllegalArgumentException if fanout is less than 3
+     */
+    public BTreeMap(int fanout) {
+        if (fanout < 3) {
+            throw new IllegalArgumentException("Fanout must be at least 3: " + fanout);
+        }
+        maxKeys = fanout - 1;
+        minKeys = maxKeys / 2;
+        root = new Leaf(maxKeys);
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(Node node, int i) {
+        return (K) node.keys[i];
+    }
+
+    /**
+     * Binary searches the keys of node.
+     *
+     * @return the index of key, or -(insertion point) - 1 if it is not there
+     */
+    private int search(Node node, K key) {
+        int lo = 0;
+        int hi = node.n - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int comp = key.compareTo(key(node, mid));
+            if (comp < 0) {
+                hi = mid - 1;
+            } else if (comp > 0) {
+                lo = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    /** Returns the index of the child of inner whose range holds key. */
+    private int childIndex(Inner inner, K key) {
+        int pos = search(inner, key);
+        return pos >= 0 ? pos + 1 : -(pos + 1);
+    }
+
+    /** Returns the leaf whose range holds key. */
+    private Leaf leafFor(K key) {
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[childIndex(inner, key)];
+        }
+        return (Leaf) node;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        Leaf leaf = leafFor(key);
+        int pos = search(leaf, key);
+        return pos >= 0 ? (V) leaf.values[pos] : null;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return search(leafFor(key), key) >= 0;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Split split = insert(root, key, value);
+        if (split != null) {
+            Inner newRoot = new Inner(maxKeys);
+            newRoot.keys[0] = split.key;
+            newRoot.children[0] = root;
+            newRoot.children[1] = split.right;
+            newRoot.n = 1;
+            root = newRoot;
+        }
+    }
+
+    /**
+     * Puts the pair below node, splitting node if it overflows.
+     *
+     * @return the split to add to node's parent, or null if node did not split
+     */
+    private Split insert(Node node, K key, V value) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int pos = search(leaf, key);
+            if (pos >= 0) {
+                leaf.values[pos] = value;
+                return null;
+            }
+            pos = -(pos + 1);
+            System.arraycopy(leaf.keys, pos, leaf.keys, pos + 1, leaf.n - pos);
+            System.arraycopy(leaf.values, pos, leaf.values, pos + 1, leaf.n - pos);
+            leaf.keys[pos] = key;
+            leaf.values[pos] = value;
+            leaf.n += 1;
+            size += 1;
+            return leaf.n > maxKeys ? splitLeaf(leaf) : null;
+        }
+        Inner inner = (Inner) node;
+        int i = childIndex(inner, key);
+        Split split = insert(inner.children[i], key, value);
+        if (split == null) {
+            return null;
+        }
+        System.arraycopy(inner.keys, i, inner.keys, i + 1, inner.n - i);
+        System.arraycopy(inner.children, i + 1, inner.children, i + 2, inner.n - i);
+        inner.keys[i] = split.key;
+        inner.children[i + 1] = split.right;
+        inner.n += 1;
+        return inner.n > maxKeys ? splitInner(inner) : null;
+    }
+
+    /** Moves the upper half of an overflowing leaf into a new leaf after it. */
+    private Split splitLeaf(Leaf leaf) {
+        int mid = leaf.n / 2;
+        Leaf right = new Leaf(maxKeys);
+        right.n = leaf.n - mid;
+        System.arraycopy(leaf.keys, mid, right.keys, 0, right.n);
+        System.arraycopy(leaf.values, mid, right.values, 0, right.n);
+        clear(leaf, mid);
+        right.next = leaf.next;
+        leaf.next = right;
+        // the key is copied up, since every pair must stay in a leaf
+        return new Split(right.keys[0], right);
+    }
+
+    /**
+     * Moves the keys and children above the middle key of an overflowing
+     * inner node into a new node, and the middle key up to the parent.
+     */
+    private Split splitInner(Inner inner) {
+        int mid = inner.n / 2;
+        Object up = inner.keys[mid];
+        Inner right = new Inner(maxKeys);
+        right.n = inner.n - mid - 1;
+        System.arraycopy(inner.keys, mid + 1, right.keys, 0, right.n);
+        System.arraycopy(inner.children, mid + 1, right.children, 0, right.n + 1);
+        clear(inner, mid);
+        return new Split(up, right);
+    }
+
+    /** Cuts node down to its first n keys, letting go of the rest for the garbage collector. */
+    private static void clear(Node node, int n) {
+        for (int i = n; i < node.n; i++) {
+            node.keys[i] = null;
+            if (node instanceof Leaf) {
+                ((Leaf) node).values[i] = null;
+            } else {
+                ((Inner) node).children[i + 1] = null;
+            }
+        }
+        node.n = n;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        Leaf leaf = leafFor(key);
+        int pos = search(leaf, key);
+        if (pos < 0) {
+            return null;
+        }
+        V value = (V) leaf.values[pos];
+        delete(root, key);
+        if (root instanceof Inner && root.n == 0) {
+            root = ((Inner) root).children[0];
+        }
+        size -= 1;
+        return value;
+    }
+
+    /**
+     * Deletes key, which must be in this subtree, refilling every child
+     * left with too few keys on the way back up. The copies of key in inner
+     * nodes may stay, since they still separate the children correctly.
+     */
+    private void delete(Node node, K key) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int pos = search(leaf, key);
+            System.arraycopy(leaf.keys, pos + 1, leaf.keys, pos, leaf.n - pos - 1);
+            System.arraycopy(leaf.values, pos + 1, leaf.values, pos, leaf.n - pos - 1);
+            leaf.n -= 1;
+            leaf.keys[leaf.n] = null;
+            leaf.values[leaf.n] = null;
+            return;
+        }
+        Inner inner = (Inner) node;
+        int i = childIndex(inner, key);
+        delete(inner.children[i], key);
+        if (inner.children[i].n < minKeys) {
+            refill(inner, i);
+        }
+    }
+
+    /**
+     * Brings child i of parent back to minKeys keys, by moving one key over
+     * from a sibling that can spare it, or else by merging it with a sibling.
+     */
+    private void refill(Inner parent, int i) {
+        Node left = i > 0 ? parent.children[i - 1] : null;
+        Node right = i < parent.n ? parent.children[i + 1] : null;
+        if (left != null && left.n > minKeys) {
+            borrowFromLeft(parent, i);
+        } else if (right != null && right.n > minKeys) {
+            borrowFromRight(parent, i);
+        } else if (left != null) {
+            merge(parent, i - 1);
+        } else {
+            merge(parent, i);
+        }
+    }
+
+    /** Moves the last key of child i - 1 of parent to the front of child i. */
+    private void borrowFromLeft(Inner parent, int i) {
+        Node child = parent.children[i];
+        Node left = parent.children[i - 1];
+        System.arraycopy(child.keys, 0, child.keys, 1, child.n);
+        if (child instanceof Leaf) {
+            Leaf leaf = (Leaf) child;
+            System.arraycopy(leaf.values, 0, leaf.values, 1, leaf.n);
+            leaf.keys[0] = left.keys[left.n - 1];
+            leaf.values[0] = ((Leaf) left).values[left.n - 1];
+            parent.keys[i - 1] = leaf.keys[0];
+        } else {
+            Inner inner = (Inner) child;
+            System.arraycopy(inner.children, 0, inner.children, 1, inner.n + 1);
+            // the separator comes down and the left sibling's last key goes up in its place
+            inner.keys[0] = parent.keys[i - 1];
+            inner.children[0] = ((Inner) left).children[left.n];
+            parent.keys[i - 1] = left.keys[left.n - 1];
+        }
+        child.n += 1;
+        clear(left, left.n - 1);
+    }
+
+    /** Moves the first key of child i + 1 of parent to the end of child i. */
+    private void borrowFromRight(Inner parent, int i) {
+        Node child = parent.children[i];
+        Node right = parent.children[i + 1];
+        if (child instanceof Leaf) {
+            Leaf leaf = (Leaf) child;
+            Leaf rightLeaf = (Leaf) right;
+            leaf.keys[leaf.n] = rightLeaf.keys[0];
+            leaf.values[leaf.n] = rightLeaf.values[0];
+            System.arraycopy(rightLeaf.values, 1, rightLeaf.values, 0, rightLeaf.n - 1);
+            System.arraycopy(rightLeaf.keys, 1, rightLeaf.keys, 0, rightLeaf.n - 1);
+            rightLeaf.values[rightLeaf.n - 1] = null;
+            parent.keys[i] = rightLeaf.keys[0];
+        } else {
+            Inner inner = (Inner) child;
+            Inner rightInner = (Inner) right;
+            inner.keys[inner.n] = parent.keys[i];
+            inner.children[inner.n + 1] = rightInner.children[0];
+            parent.keys[i] = rightInner.keys[0];
+            System.arraycopy(rightInner.keys, 1, rightInner.keys, 0, rightInner.n - 1);
+            System.arraycopy(rightInner.children, 1, rightInner.children, 0, rightInner.n);
+            rightInner.children[rightInner.n] = null;
+        }
+        right.keys[right.n - 1] = null;
+        right.n -= 1;
+        child.n += 1;
+    }
+
+    /** Moves everything in child j + 1 of parent into child j and drops child j + 1. */
+    private void merge(Inner parent, int j) {
+        Node left = parent.children[j];
+        Node right = parent.children[j + 1];
+        if (left instanceof Leaf) {
+            Leaf leftLeaf = (Leaf) left;
+            Leaf rightLeaf = (Leaf) right;
+            System.arraycopy(rightLeaf.keys, 0, leftLeaf.keys, leftLeaf.n, rightLeaf.n);
+            System.arraycopy(rightLeaf.values, 0, leftLeaf.values, leftLeaf.n, rightLeaf.n);
+            leftLeaf.n += rightLeaf.n;
+            leftLeaf.next = rightLeaf.next;
+        } else {
+            Inner leftInner = (Inner) left;
+            Inner rightInner = (Inner) right;
+            // the separator comes down between the two halves
+            leftInner.keys[leftInner.n] = parent.keys[j];
+            System.arraycopy(rightInner.keys, 0, leftInner.keys, leftInner.n + 1, rightInner.n);
+            System.arraycopy(rightInner.children, 0, leftInner.children, leftInner.n + 1, rightInner.n + 1);
+            leftInner.n += rightInner.n + 1;
+        }
+        System.arraycopy(parent.keys, j + 1, parent.keys, j, parent.n - j - 1);
+        System.arraycopy(parent.children, j + 2, parent.children, j + 1, parent.n - j - 1);
+        parent.n -= 1;
+        parent.keys[parent.n] = null;
+        parent.children[parent.n + 1] = null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        root = new Leaf(maxKeys);
+        size = 0;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        TreeSet<K> set = new TreeSet<>();
+        for (K key : this) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    /**
+     * Returns the number of levels of nodes, 1 for a map held in one leaf.
+     */
+    int height() {
+        int height = 1;
+        for (Node node = root; node instanceof Inner; node = ((Inner) node).children[0]) {
+            height += 1;
+        }
+        return height;
+    }
+
+    /* ------------------------------- Ordered operations ------------------------------- */
+
+    /**
+     * Returns the smallest key.
+     *
+     * @throws NoSuchElementException if the map is empty
+     */
+    public K min() {
+        if (size == 0) {
+            throw new NoSuchElementException("min() of an empty map");
+        }
+        Node node = root;
+        while (node instanceof Inner) {
+            node = ((Inner) node).children[0];
+        }
+        return key(node, 0);
+    }
+
+    /**
+     * Returns the largest key.
+     *
+     * @throws NoSuchElementException if the map is empty
+     */
+    public K max() {
+        if (size == 0) {
+            throw new NoSuchElementException("max() of an empty map");
+        }
+        Node node = root;
+        while (node instanceof Inner) {
+            node = ((Inner) node).children[node.n];
+        }
+        return key(node, node.n - 1);
+    }
+
+    /**
+     * Returns the largest key less than or equal to key, or null if there is none.
+     */
+    public K floor(K key) {
+        // the rightmost subtree passed over on the left, which holds the floor if key's leaf does not
+        Node before = null;
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int i = childIndex(inner, key);
+            if (i > 0) {
+                before = inner.children[i - 1];
+            }
+            node = inner.children[i];
+        }
+        int pos = search(node, key);
+        if (pos >= 0) {
+            return key(node, pos);
+        }
+        pos = -(pos + 1);
+        if (pos > 0) {
+            return key(node, pos - 1);
+        }
+        if (before == null) {
+            return null;
+        }
+        while (before instanceof Inner) {
+            before = ((Inner) before).children[before.n];
+        }
+        return key(before, before.n - 1);
+    }
+
+    /**
+     * Returns the smallest key greater than or equal to key, or null if there is none.
+     */
+    public K ceiling(K key) {
+        Iterator<K> keys = new KeyIterator(key, null);
+        return keys.hasNext() ? keys.next() : null;
+    }
+
+    /**
+     * Returns the keys from lo to hi, both inclusive, in ascending order,
+     * read along the leaves as the iteration proceeds. The map must not be
+     * modified while iterating, except through the iterator's remove().
+     */
+    public Iterable<K> keys(K lo, K hi) {
+        return () -> new KeyIterator(lo, hi);
+    }
+
+    /**
+     * Returns the keys in ascending order, read along the leaves as the
+     * iteration proceeds. The map must not be modified while iterating,
+     * except through the iterator's remove().
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator(null, null);
+    }
+
+    /**
+     * Walks the leaves from lo to hi. remove() deletes the last key returned
+     * through the map and then finds its successor again from the root,
+     * since deleting may move keys between leaves.
+     */
+    private class KeyIterator implements Iterator<K> {
+        private final K hi;
+        private Leaf leaf;
+        private int pos;
+        private K lastReturned = null;
+
+        /**
+         * @param lo smallest key to return, or null to start at the smallest key
+         * @param hi largest key to return, or null to run to the largest key
+         */
+        KeyIterator(K lo, K hi) {
+            this.hi = hi;
+            seek(lo, true);
+        }
+
+        /**
+         * Moves to the first key at or after from (strictly after unless
+         * inclusive), or to the smallest key if from is null.
+         */
+        private void seek(K from, boolean inclusive) {
+            if (from == null) {
+                Node node = root;
+                while (node instanceof Inner) {
+                    node = ((Inner) node).children[0];
+                }
+                leaf = (Leaf) node;
+                pos = 0;
+            } else {
+                leaf = leafFor(from);
+                pos = search(leaf, from);
+                pos = pos >= 0 ? (inclusive ? pos : pos + 1) : -(pos + 1);
+            }
+            skipToKey();
+        }
+
+        /** Steps past the end of a leaf to the start of the next non-empty one. */
+        private void skipToKey() {
+            while (leaf != null && pos >= leaf.n) {
+                leaf = leaf.next;
+                pos = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null && (hi == null || key(leaf, pos).compareTo(hi) <= 0);
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = key(leaf, pos);
+            pos += 1;
+            skipToKey();
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException("remove() without a preceding next()");
+            }
+            BTreeMap.this.remove(lastReturned);
+            seek(lastReturned, false);
+            lastReturned = null;
+        }
+    }
+}
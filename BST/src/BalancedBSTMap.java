@@ -0,0 +1,307 @@
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * A BSTMap that keeps itself balanced as a left-leaning red-black tree, so
+ * that keys inserted in sorted order still give a tree of height at most
+ * 2 lg n instead of a linked list.
+ * <p>
+ * Each node records the color of the link from its parent. put() and remove()
+ * restore the invariants on the way back up with the same rotateLeft,
+ * rotateRight and flipColors steps as RedBlackTree in lab 8, keeping the
+ * subtree counts up to date; get(), containsKey() and the ordered operations
+ * are inherited from BSTMap and walk down in a loop, in O(log n).
+ * <p>
+ * fromSorted() and merge() build the tree in one pass as a 2-3 tree with all
+ * leaves at the same depth, using 3-nodes only where the keys do not fit in
+ * 2-nodes, so the result is a valid red-black tree at most one level deeper
+ * than a perfectly balanced tree.
+ */
+public class BalancedBSTMap<K extends Comparable<K>, V> extends BSTMap<K, V> {
+
+    @Override
+    public void put(K key, V value) {
+        root = insert(root, key, value);
+        root.red = false;
+    }
+
+    /**
+     * Inserts the pair below node as a new red leaf, or replaces the value of
+     * an existing key, and rebalances on the way back up.
+     *
+     * @return the new root of this subtree
+     */
+    private BSTNode insert(BSTNode node, K key, V value) {
+        if (node == null) {
+            size += 1;
+            BSTNode leaf = new BSTNode(key, value);
+            leaf.red = true;
+            return leaf;
+        }
+        int comp = key.compareTo(node.key);
+        if (comp < 0) {
+            node.left = insert(node.left, key, value);
+        } else if (comp > 0) {
+            node.right = insert(node.right, key, value);
+        } else {
+            node.value = value;
+        }
+        return balance(node);
+    }
+
+    @Override
+    public V remove(K key) {
+        BSTNode node = getNode(key);
+        if (node == null) {
+            return null;
+        }
+        V value = node.value;
+        // make the root red so there is a red link to push down
+        if (!isRed(root.left) && !isRed(root.right)) {
+            root.red = true;
+        }
+        root = delete(root, key);
+        if (root != null) {
+            root.red = false;
+        }
+        size -= 1;
+        return value;
+    }
+
+    /**
+     * Returns a map of the given pairs, built in O(n) as a valid red-black
+     * tree. values[i] is the value of keys[i].
+     *
+     * @param keys   in strictly ascending order
+     * @param values of the same length as keys
+     * @throws IllegalArgumentException if the keys are not strictly ascending
+     *                                  or the lengths differ
+     */
+    public static <K extends Comparable<K>, V> BalancedBSTMap<K, V> fromSorted(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException(keys.length + " keys but " + values.length + " values");
+        }
+        return fromSorted(Arrays.asList(keys).iterator(), Arrays.asList(values).iterator(), keys.length);
+    }
+
+    /**
+     * Returns a map of the first n pairs of keys and values, built in O(n)
+     * as a valid red-black tree.
+     *
+     * @param keys   in strictly ascending order
+     * @param values in the same order as keys
+     * @param n      number of pairs to read
+     * @throws IllegalArgumentException if the keys are not strictly ascending
+     *                                  or either iterator ends before n
+     */
+    public static <K extends Comparable<K>, V> BalancedBSTMap<K, V> fromSorted(Iterator<K> keys,
+                                                                              Iterator<V> values, int n) {
+        BalancedBSTMap<K, V> map = new BalancedBSTMap<>();
+        map.load(keys, values, n);
+        return map;
+    }
+
+    /**
+     * Builds a red-black tree of the next n pairs with the largest black
+     * height h that n allows, that is with 2^h - 1 <= n.
+     */
+    @Override
+    protected BSTNode build(SortedPairs pairs, int n) {
+        int blackHeight = 31 - Integer.numberOfLeadingZeros(n + 1);
+        return build(pairs, n, blackHeight);
+    }
+
+    /**
+     * Builds a subtree of the next n pairs whose paths all hold blackHeight
+     * black nodes, which needs 2^blackHeight - 1 <= n <= 3^blackHeight - 1.
+     * The root is a 2-node when the pairs fit below one key, and a 3-node,
+     * a black node with a red left child, otherwise; the pairs left over are
+     * split as evenly as possible between its children, which keeps each
+     * child within the bounds for one less black node.
+     *
+     * @return the black root of the new subtree, with its counts set
+     */
+    private BSTNode build(SortedPairs pairs, int n, int blackHeight) {
+        if (n == 0) {
+            return null;
+        }
+        long childMax = maxSize(blackHeight - 1);
+        if (n - 1 <= 2 * childMax) {
+            int leftCount = (n - 1) / 2;
+            BSTNode left = build(pairs, leftCount, blackHeight - 1);
+            BSTNode node = pairs.next();
+            node.left = left;
+            node.right = build(pairs, n - 1 - leftCount, blackHeight - 1);
+            node.count = n;
+            return node;
+        }
+        int third = (n - 2) / 3;
+        int leftCount = third + ((n - 2) % 3 > 0 ? 1 : 0);
+        int middleCount = third + ((n - 2) % 3 > 1 ? 1 : 0);
+        BSTNode left = build(pairs, leftCount, blackHeight - 1);
+        BSTNode red = pairs.next();
+        red.red = true;
+        red.left = left;
+        red.right = build(pairs, middleCount, blackHeight - 1);
+        red.count = 1 + leftCount + middleCount;
+        BSTNode node = pairs.next();
+        node.left = red;
+        node.right = build(pairs, third, blackHeight - 1);
+        node.count = n;
+        return node;
+    }
+
+    /* Returns 3^blackHeight - 1, the most keys a tree of the given black
+       height can hold, when every node is a 3-node. */
+    private static long maxSize(int blackHeight) {
+        long max = 1;
+        for (int i = 0; i < blackHeight; i++) {
+            max *= 3;
+        }
+        return max - 1;
+    }
+
+    /**
+     * Deletes key, which must be in this subtree, keeping a red link on the
+     * current node on the way down so the leaf it removes is never a 2-node.
+     *
+     * @return the new root of this subtree
+     */
+    private BSTNode delete(BSTNode node, K key) {
+        if (key.compareTo(node.key) < 0) {
+            if (!isRed(node.left) && !isRed(node.left.left)) {
+                node = moveRedLeft(node);
+            }
+            node.left = delete(node.left, key);
+        } else {
+            if (isRed(node.left)) {
+                node = rotateRight(node);
+            }
+            if (key.compareTo(node.key) == 0 && node.right == null) {
+                return null;
+            }
+            if (!isRed(node.right) && !isRed(node.right.left)) {
+                node = moveRedRight(node);
+            }
+            if (key.compareTo(node.key) == 0) {
+                // replace the node's pair with its successor's, then delete the successor
+                BSTNode successor = node.right;
+                while (successor.left != null) {
+                    successor = successor.left;
+                }
+                node.key = successor.key;
+                node.value = successor.value;
+                node.right = deleteMin(node.right);
+            } else {
+                node.right = delete(node.right, key);
+            }
+        }
+        return balance(node);
+    }
+
+    /**
+     * Deletes the smallest key of this subtree.
+     *
+     * @return the new root of this subtree
+     */
+    private BSTNode deleteMin(BSTNode node) {
+        if (node.left == null) {
+            return null;
+        }
+        if (!isRed(node.left) && !isRed(node.left.left)) {
+            node = moveRedLeft(node);
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    /**
+     * Makes node.left or one of its children red, assuming node is red and
+     * both node.left and node.left.left are black.
+     */
+    private BSTNode moveRedLeft(BSTNode node) {
+        flipColors(node);
+        if (isRed(node.right.left)) {
+            node.right = rotateRight(node.right);
+            node = rotateLeft(node);
+            flipColors(node);
+        }
+        return node;
+    }
+
+    /**
+     * Makes node.right or one of its children red, assuming node is red and
+     * both node.right and node.right.left are black.
+     */
+    private BSTNode moveRedRight(BSTNode node) {
+        flipColors(node);
+        if (isRed(node.left.left)) {
+            node = rotateRight(node);
+            flipColors(node);
+        }
+        return node;
+    }
+
+    /**
+     * Restores the left-leaning invariants at node: no right-leaning red link,
+     * no two red links in a row, and no node with two red children.
+     *
+     * @return the new root of this subtree
+     */
+    private BSTNode balance(BSTNode node) {
+        // Rotate left operation, if there is a right lean red node and left node is not red.
+        if (isRed(node.right) && !isRed(node.left)) {
+            node = rotateLeft(node);
+        }
+        // Rotate right operation, if consecutive red node on left.
+        if (isRed(node.left) && isRed(node.left.left)) {
+            node = rotateRight(node);
+        }
+        // Color flip.
+        if (isRed(node.left) && isRed(node.right)) {
+            flipColors(node);
+        }
+        node.count = 1 + count(node.left) + count(node.right);
+        return node;
+    }
+
+    /* Flips the color of node and its children. Assume that NODE has both left
+       and right children. */
+    private void flipColors(BSTNode node) {
+        node.red = !node.red;
+        node.left.red = !node.left.red;
+        node.right.red = !node.right.red;
+    }
+
+    /* Rotates the given node to the right, swapping the colors of the new
+       root and the old root. Returns the new root node of this subtree. */
+    private BSTNode rotateRight(BSTNode node) {
+        BSTNode newRoot = node.left;
+        node.left = newRoot.right;
+        newRoot.right = node;
+        newRoot.red = node.red;
+        node.red = true;
+        newRoot.count = node.count;
+        node.count = 1 + count(node.left) + count(node.right);
+        return newRoot;
+    }
+
+    /* Rotates the given node to the left, swapping the colors of the new
+       root and the old root. Returns the new root node of this subtree. */
+    private BSTNode rotateLeft(BSTNode node) {
+        BSTNode newRoot = node.right;
+        node.right = newRoot.left;
+        newRoot.left = node;
+        newRoot.red = node.red;
+        node.red = true;
+        newRoot.count = node.count;
+        node.count = 1 + count(node.left) + count(node.right);
+        return newRoot;
+    }
+
+    /* Returns whether the given node is red. Null nodes (children of leaf
+       nodes) are automatically considered black. */
+    private boolean isRed(BSTNode node) {
+        return node != null && node.red;
+    }
+}
@@ -0,0 +1,396 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An ordered map that many threads can read and write at once without
+ * locks, as a skip list: a sorted linked list of every key, plus sparser
+ * lists above it that skip ahead, each node reaching up a random number of
+ * levels so that searches take O(log n) expected steps.
+ * <p>
+ * This is Herlihy and Shavit's lock-free skip list. Every link is changed
+ * only by compare-and-set, and a node is deleted by first setting its value
+ * to null, which is the moment it leaves the map, then marking its links
+ * from the top level down so no new node can be linked after it, and finally
+ * unlinking it at every level, which any thread that walks by helps with.
+ * A link is marked by pointing it at a Marker holding the old successor,
+ * rather than with an AtomicMarkableReference, which would add an object to
+ * every step of every search and allocate one on every change.
+ * put() links a new node at the bottom level first, which is the moment it
+ * joins the map, and then at each level above. A put() that finds its key in
+ * a node already deleted but not yet marked marks the node itself, so it
+ * never waits for the deleting thread.
+ * <p>
+ * get() and containsKey() only read, and never wait or retry. The iterator,
+ * keys() and keySet() are weakly consistent: they never throw because of
+ * concurrent changes, and return every key that stays in the map while they
+ * run, in order, but may or may not see keys put or removed meanwhile.
+ * size() and clear() are not atomic either. Null values are not allowed,
+ * since null marks a deleted node.
+ */
+public class SkipListMap<K extends Comparable<K>, V> implements Map61B<K, V> {
+    /** Levels a node can reach; enough for about 2^MAX_LEVEL keys. */
+    private static final int MAX_LEVEL = 32;
+
+    /** The node before every key, at every level; its key is never read. */
+    private final Node<K, V> head = new Node<>(null, null, MAX_LEVEL - 1);
+    private final LongAdder size = new LongAdder();
+    /** The highest level any node has reached, where searches start. */
+    private final AtomicInteger highestLevel = new AtomicInteger(0);
+
+    private static class Node<K, V> {
+        final K key;
+        /** Null once the node is deleted. */
+        final AtomicReference<V> value;
+        /** Link at each level, a Marker once the node is being deleted. */
+        final AtomicReferenceArray<Node<K, V>> next;
+
+        Node(K key, V value, int topLevel) {
+            this.key = key;
+            this.value = new AtomicReference<>(value);
+            next = new AtomicReferenceArray<>(topLevel + 1);
+        }
+
+        int topLevel() {
+            return next.length() - 1;
+        }
+    }
+
+    /**
+     * Stands in the link of a node being deleted, holding the successor it
+     * replaced. Nothing is ever linked after a Marker, so once a link is
+     * marked every compare-and-set expecting a node there fails.
+     */
+    private static class Marker<K, V> extends Node<K, V> {
+        final Node<K, V> successor;
+
+        Marker(Node<K, V> successor) {
+            super(null, null, -1);
+            this.successor = successor;
+        }
+    }
+
+    /**
+     * Returns the node after node at the given level, looking through a
+     * marked link to the successor it holds.
+     */
+    private static <K, V> Node<K, V> successor(Node<K, V> node, int level) {
+        Node<K, V> next = node.next.get(level);
+        return next instanceof Marker ? ((Marker<K, V>) next).successor : next;
+    }
+
+    /** Returns an array of nodes for levels 0 to levels - 1, for the preds and succs of find(). */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K, V> Node<K, V>[] newLevels(int levels) {
+        return (Node<K, V>[]) new Node[levels];
+    }
+
+    /**
+     * Marks the links of node, whose value is already null, from the top
+     * level down, so nothing more can be linked after it and find() unlinks
+     * it. Any thread may do this for a node another thread is deleting.
+     */
+    private static <K, V> void markLinks(Node<K, V> node) {
+        for (int level = node.topLevel(); level >= 0; level--) {
+            Node<K, V> next = node.next.get(level);
+            while (!(next instanceof Marker) && !node.next.compareAndSet(level, next, new Marker<>(next))) {
+                next = node.next.get(level);
+            }
+        }
+    }
+
+    /**
+     * Returns a level from 0 to MAX_LEVEL - 1, each level half as likely as
+     * the one below, so a node reaches level i with probability 1 / 2^i.
+     */
+    private static int randomLevel() {
+        return Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | 1 << (MAX_LEVEL - 1));
+    }
+
+    /**
+     * Fills preds and succs with, at each level from fromLevel or the
+     * highest level in use down to the bottom, the last node before key and
+     * the node after it, unlinking every marked node on the way. A level
+     * added by another thread after the arrays were sized is skipped, which,
+     * as in findNear(), is only slower. Starts over
+     * from the head whenever a predecessor turns out to be marked itself or
+     * an unlinking fails, since either means the predecessor changed under it.
+     *
+     * @param fromLevel the highest level the caller needs, which may be
+     *                  above every level in use so far, but must fit in preds
+     * @return whether the bottom level holds a node with the key
+     */
+    private boolean find(K key, int fromLevel, Node<K, V>[] preds, Node<K, V>[] succs) {
+        retry:
+        while (true) {
+            Node<K, V> pred = head;
+            int top = Math.min(preds.length - 1, Math.max(fromLevel, highestLevel.get()));
+            for (int level = top; level >= 0; level--) {
+                Node<K, V> curr = pred.next.get(level);
+                while (true) {
+                    if (curr instanceof Marker) {
+                        continue retry;
+                    }
+                    if (curr == null) {
+                        break;
+                    }
+                    Node<K, V> succ = curr.next.get(level);
+                    if (succ instanceof Marker) {
+                        Node<K, V> after = ((Marker<K, V>) succ).successor;
+                        if (!pred.next.compareAndSet(level, curr, after)) {
+                            continue retry;
+                        }
+                        curr = after;
+                    } else if (curr.key.compareTo(key) < 0) {
+                        pred = curr;
+                        curr = succ;
+                    } else {
+                        break;
+                    }
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return succs[0] != null && succs[0].key.compareTo(key) == 0;
+        }
+    }
+
+    /**
+     * Returns the first node at the bottom level whose key is at least key,
+     * or the first node if key is null. Walks down without unlinking
+     * anything, so the node found may be in the middle of being deleted.
+     * Starting below a level that a put is still filling is only slower,
+     * since every level holds a subset of the keys of the level below.
+     */
+    private Node<K, V> findNear(K key) {
+        Node<K, V> pred = head;
+        Node<K, V> curr = null;
+        for (int level = highestLevel.get(); level >= 0; level--) {
+            curr = successor(pred, level);
+            while (curr != null && key != null && curr.key.compareTo(key) < 0) {
+                pred = curr;
+                curr = successor(curr, level);
+            }
+        }
+        return curr;
+    }
+
+    /**
+     * Associates value with key, replacing any value already there.
+     *
+     * @throws IllegalArgumentException if value is null
+     */
+    @Override
+    public void put(K key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("SkipListMap does not allow null values");
+        }
+        int topLevel = randomLevel();
+        int levels = Math.max(topLevel, highestLevel.get()) + 1;
+        Node<K, V>[] preds = newLevels(levels);
+        Node<K, V>[] succs = newLevels(levels);
+        while (true) {
+            if (find(key, topLevel, preds, succs)) {
+                AtomicReference<V> found = succs[0].value;
+                V old = found.get();
+                if (old != null && found.compareAndSet(old, value)) {
+                    return;
+                }
+                // the node is being deleted; help mark it rather than wait for the deleting
+                // thread, then the next find() unlinks it and the key goes in anew
+                markLinks(succs[0]);
+                continue;
+            }
+            Node<K, V> node = new Node<>(key, value, topLevel);
+            for (int level = 0; level <= topLevel; level++) {
+                node.next.set(level, succs[level]);
+            }
+            if (!preds[0].next.compareAndSet(0, succs[0], node)) {
+                continue;
+            }
+            size.increment();
+            linkAbove(node, preds, succs);
+            int top = highestLevel.get();
+            while (topLevel > top && !highestLevel.compareAndSet(top, topLevel)) {
+                top = highestLevel.get();
+            }
+            return;
+        }
+    }
+
+    /**
+     * Links node, already in the bottom level, into the levels above,
+     * searching again whenever a link changes under it. Stops early if node
+     * starts being deleted, since the deleting thread unlinks it anyway.
+     */
+    private void linkAbove(Node<K, V> node, Node<K, V>[] preds, Node<K, V>[] succs) {
+        for (int level = 1; level <= node.topLevel(); level++) {
+            while (true) {
+                Node<K, V> succ = succs[level];
+                Node<K, V> next = node.next.get(level);
+                if (next instanceof Marker || next != succ && !node.next.compareAndSet(level, next, succ)) {
+                    return;
+                }
+                if (preds[level].next.compareAndSet(level, succ, node)) {
+                    break;
+                }
+                if (!find(node.key, node.topLevel(), preds, succs) || succs[0] != node) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        Node<K, V> node = findNear(key);
+        if (node == null || node.key.compareTo(key) != 0) {
+            return null;
+        }
+        return node.value.get();
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V remove(K key) {
+        Node<K, V>[] preds = newLevels(highestLevel.get() + 1);
+        Node<K, V>[] succs = newLevels(preds.length);
+        Node<K, V> node;
+        V value;
+        do {
+            if (!find(key, 0, preds, succs)) {
+                return null;
+            }
+            node = succs[0];
+            value = node.value.get();
+            if (value == null) {
+                // another thread is deleting it
+                return null;
+            }
+        } while (!node.value.compareAndSet(value, null));
+        size.decrement();
+        markLinks(node);
+        // unlink it at every level, which may be more than highestLevel said while it was put
+        if (node.topLevel() >= preds.length) {
+            preds = newLevels(node.topLevel() + 1);
+            succs = newLevels(preds.length);
+        }
+        find(key, node.topLevel(), preds, succs);
+        return value;
+    }
+
+    /**
+     * Returns the number of keys. This sums per-thread counters, so under
+     * concurrent puts and removes it may be off by the changes in flight.
+     */
+    @Override
+    public int size() {
+        return (int) size.sum();
+    }
+
+    /**
+     * Removes the keys one at a time, so keys put while it runs may stay.
+     */
+    @Override
+    public void clear() {
+        Iterator<K> keys = iterator();
+        while (keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Returns a sorted copy of the keys, see the class comment for what it
+     * holds under concurrent changes.
+     */
+    @Override
+    public Set<K> keySet() {
+        TreeSet<K> set = new TreeSet<>();
+        for (K key : this) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    /**
+     * Returns the keys from lo to hi, both inclusive, in ascending order,
+     * found one by one along the bottom level as the iteration proceeds.
+     */
+    public Iterable<K> keys(K lo, K hi) {
+        return () -> new KeyIterator(lo, hi);
+    }
+
+    /**
+     * Returns the keys in ascending order. The iterator is weakly consistent
+     * and its remove() removes the last key returned from the map.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator(null, null);
+    }
+
+    /**
+     * Walks the bottom level from lo to hi, skipping deleted nodes. Holds on
+     * to the next live node, so a key deleted after hasNext() found it is
+     * still returned.
+     */
+    private class KeyIterator implements Iterator<K> {
+        private final K hi;
+        private Node<K, V> next;
+        private K lastReturned = null;
+
+        /**
+         * @param lo smallest key to return, or null to start at the smallest key
+         * @param hi largest key to return, or null to run to the largest key
+         */
+        KeyIterator(K lo, K hi) {
+            this.hi = hi;
+            next = skipDeleted(findNear(lo));
+        }
+
+        private Node<K, V> skipDeleted(Node<K, V> node) {
+            while (node != null && node.value.get() == null) {
+                node = successor(node, 0);
+            }
+            if (node != null && hi != null && node.key.compareTo(hi) > 0) {
+                return null;
+            }
+            return node;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public K next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next.key;
+            next = skipDeleted(successor(next, 0));
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException("remove() without a preceding next()");
+            }
+            SkipListMap.this.remove(lastReturned);
+            lastReturned = null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+import java.util.Random;
+import java.util.Scanner;
+import java.util.TreeMap;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * Builds a BTreeMap, a BSTMap, a BalancedBSTMap and a TreeMap of N random
+ * Integer keys, then times random lookups and range scans of 1000 keys in
+ * each. BalancedBSTMap stands in for lab 8's RedBlackTree, which balances
+ * with the same steps but has no lookups. Try N of 10000000 with a large
+ * heap, e.g. -Xmx4g.
+ */
+public class BTreeSpeedTest {
+    private static final int LOOKUPS = 1000000;
+    private static final int SCAN_LENGTH = 1000;
+    private static final int SCANS = 10000;
+
+    /** Sums what the lookups and scans read, so the JIT cannot drop them. */
+    private static long sink;
+
+    /**
+     Requests user input and performs the lookup and scan tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("This program times lookups and range scans of " + SCAN_LENGTH
+                + " keys in a BTreeMap, BSTMap, BalancedBSTMap and TreeMap of N random keys.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # keys in the maps: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            BTreeMap<Integer, Integer> bTree = new BTreeMap<>();
+            BSTMap<Integer, Integer> bst = new BSTMap<>();
+            BalancedBSTMap<Integer, Integer> balanced = new BalancedBSTMap<>();
+            TreeMap<Integer, Integer> treeMap = new TreeMap<>();
+            int[] keys = new int[N];
+            Random random = new Random(61);
+            for (int i = 0; i < N; i++) {
+                int key = random.nextInt(Integer.MAX_VALUE);
+                keys[i] = key;
+                bTree.put(key, i);
+                bst.put(key, i);
+                balanced.put(key, i);
+                treeMap.put(key, i);
+            }
+
+            timeLookups("BTreeMap", bTree, keys);
+            timeLookups("BSTMap", bst, keys);
+            timeLookups("BalancedBSTMap", balanced, keys);
+            random = new Random(62);
+            Stopwatch sw = new Stopwatch();
+            for (int i = 0; i < LOOKUPS; i++) {
+                Integer value = treeMap.get(keys[random.nextInt(N)]);
+                sink += value == null ? 0 : value;
+            }
+            System.out.printf("Java's Built-in TreeMap: %d lookups: %.2f sec\n", LOOKUPS, sw.elapsedTime());
+
+            // scans start at random points; the keys are spread over all ints, so step by the mean gap
+            long span = (long) SCAN_LENGTH * (Integer.MAX_VALUE / N);
+            random = new Random(63);
+            sw = new Stopwatch();
+            for (int s = 0; s < SCANS; s++) {
+                int lo = random.nextInt(Integer.MAX_VALUE);
+                for (int key : bTree.keys(lo, (int) Math.min(Integer.MAX_VALUE, lo + span))) {
+                    sink += key;
+                }
+            }
+            System.out.printf("BTreeMap: %d scans of about %d keys: %.2f sec\n", SCANS, SCAN_LENGTH, sw.elapsedTime());
+
+            random = new Random(63);
+            sw = new Stopwatch();
+            for (int s = 0; s < SCANS; s++) {
+                int lo = random.nextInt(Integer.MAX_VALUE);
+                for (int key : bst.keys(lo, (int) Math.min(Integer.MAX_VALUE, lo + span))) {
+                    sink += key;
+                }
+            }
+            System.out.printf("BSTMap: %d scans of about %d keys: %.2f sec\n", SCANS, SCAN_LENGTH, sw.elapsedTime());
+
+            random = new Random(63);
+            sw = new Stopwatch();
+            for (int s = 0; s < SCANS; s++) {
+                int lo = random.nextInt(Integer.MAX_VALUE);
+                for (int key : balanced.keys(lo, (int) Math.min(Integer.MAX_VALUE, lo + span))) {
+                    sink += key;
+                }
+            }
+            System.out.printf("BalancedBSTMap: %d scans of about %d keys: %.2f sec\n",
+                    SCANS, SCAN_LENGTH, sw.elapsedTime());
+
+            random = new Random(63);
+            sw = new Stopwatch();
+            for (int s = 0; s < SCANS; s++) {
+                int lo = random.nextInt(Integer.MAX_VALUE);
+                int hi = (int) Math.min(Integer.MAX_VALUE, lo + span);
+                for (int key : treeMap.subMap(lo, true, hi, true).keySet()) {
+                    sink += key;
+                }
+            }
+            System.out.printf("Java's Built-in TreeMap: %d scans of about %d keys: %.2f sec\n",
+                    SCANS, SCAN_LENGTH, sw.elapsedTime());
+
+            System.out.print("Would you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Times LOOKUPS gets of keys picked at random from keys, all of them in map. */
+    private static void timeLookups(String name, Map61B<Integer, Integer> map, int[] keys) {
+        Random random = new Random(62);
+        Stopwatch sw = new Stopwatch();
+        for (int i = 0; i < LOOKUPS; i++) {
+            Integer value = map.get(keys[random.nextInt(keys.length)]);
+            sink += value == null ? 0 : value;
+        }
+        System.out.printf("%s: %d lookups: %.2f sec\n", name, LOOKUPS, sw.elapsedTime());
+    }
+}
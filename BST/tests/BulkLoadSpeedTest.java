@@ -0,0 +1,96 @@
+import java.util.Scanner;
+import java.util.TreeMap;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * Times building maps of N sorted Integer keys with fromSorted() against N
+ * puts into a BalancedBSTMap and a TreeMap, and merging two maps of N / 2
+ * keys against putting one into the other. N puts of sorted keys into a
+ * plain BSTMap take quadratic time and are left out. Try N of 10000000 with
+ * a large heap, e.g. -Xmx4g.
+ */
+public class BulkLoadSpeedTest {
+
+    /** Sums what the maps hold, so the JIT cannot drop the builds. */
+    private static long sink;
+
+    /**
+     Requests user input and performs the bulk loading tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("This program times building maps of N sorted keys "
+                + "with fromSorted() and with repeated put().");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # keys in the maps: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            Integer[] keys = new Integer[N];
+            for (int i = 0; i < N; i++) {
+                keys[i] = i;
+            }
+
+            Stopwatch sw = new Stopwatch();
+            BSTMap<Integer, Integer> plain = BSTMap.fromSorted(keys, keys);
+            System.out.printf("BSTMap.fromSorted: %.2f sec\n", sw.elapsedTime());
+            sink += plain.size();
+            plain = null;
+
+            sw = new Stopwatch();
+            BalancedBSTMap<Integer, Integer> balanced = BalancedBSTMap.fromSorted(keys, keys);
+            System.out.printf("BalancedBSTMap.fromSorted: %.2f sec\n", sw.elapsedTime());
+            sink += balanced.size();
+            balanced = null;
+
+            sw = new Stopwatch();
+            balanced = new BalancedBSTMap<>();
+            for (Integer key : keys) {
+                balanced.put(key, key);
+            }
+            System.out.printf("BalancedBSTMap, %d puts: %.2f sec\n", N, sw.elapsedTime());
+            sink += balanced.size();
+            balanced = null;
+
+            sw = new Stopwatch();
+            TreeMap<Integer, Integer> treeMap = new TreeMap<>();
+            for (Integer key : keys) {
+                treeMap.put(key, key);
+            }
+            System.out.printf("Java's Built-in TreeMap, %d puts: %.2f sec\n", N, sw.elapsedTime());
+            sink += treeMap.size();
+            treeMap = null;
+
+            // evens and odds, so that every key of one map falls between keys of the other
+            Integer[] evens = new Integer[(N + 1) / 2];
+            Integer[] odds = new Integer[N / 2];
+            for (int i = 0; i < N; i++) {
+                (i % 2 == 0 ? evens : odds)[i / 2] = keys[i];
+            }
+            keys = null;
+            BalancedBSTMap<Integer, Integer> odd = BalancedBSTMap.fromSorted(odds, odds);
+
+            balanced = BalancedBSTMap.fromSorted(evens, evens);
+            sw = new Stopwatch();
+            balanced.merge(odd);
+            System.out.printf("BalancedBSTMap.merge of two maps of N / 2 keys: %.2f sec\n", sw.elapsedTime());
+            sink += balanced.size();
+            balanced = null;
+
+            balanced = BalancedBSTMap.fromSorted(evens, evens);
+            sw = new Stopwatch();
+            for (Integer key : odd) {
+                balanced.put(key, key);
+            }
+            System.out.printf("BalancedBSTMap, N / 2 puts of one map into the other: %.2f sec\n",
+                    sw.elapsedTime());
+            sink += balanced.size();
+
+            System.out.print("Would you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+}
@@ -0,0 +1,142 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * Times 1, 2, 4 and 8 threads sharing a map of N Integer keys, each doing
+ * a mix of 80% get, 10% put and 10% remove of random keys, for SkipListMap,
+ * a BalancedBSTMap behind one lock, and Java's ConcurrentSkipListMap.
+ */
+public class ConcurrentSpeedTest {
+    private static final int OPS_PER_THREAD = 1000000;
+    private static final int[] THREADS = {1, 2, 4, 8};
+
+    /** Counts what the gets find, so the JIT cannot drop them. Added up after the threads join. */
+    private static long sink;
+
+    /**
+     * One operation on the map under test: 0 for get, 1 for put, 2 for
+     * remove. Returns 1 for a get that finds its key, and 0 otherwise.
+     */
+    private interface Operation {
+        int apply(int op, int key);
+    }
+
+    /**
+     Requests user input and performs the concurrent tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("This program times threads sharing a SkipListMap, a synchronized "
+                + "BalancedBSTMap and a ConcurrentSkipListMap of N keys.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # keys in the maps: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            for (int threads : THREADS) {
+                SkipListMap<Integer, Integer> skipList = new SkipListMap<>();
+                BalancedBSTMap<Integer, Integer> bst = new BalancedBSTMap<>();
+                ConcurrentSkipListMap<Integer, Integer> javaMap = new ConcurrentSkipListMap<>();
+                for (int i = 0; i < N; i += 2) {
+                    skipList.put(i, i);
+                    bst.put(i, i);
+                    javaMap.put(i, i);
+                }
+
+                double seconds = time(threads, N, (op, key) -> {
+                    if (op == 0) {
+                        return skipList.get(key) == null ? 0 : 1;
+                    } else if (op == 1) {
+                        skipList.put(key, key);
+                    } else {
+                        skipList.remove(key);
+                    }
+                    return 0;
+                });
+                System.out.printf("%d threads, SkipListMap: %.2f sec\n", threads, seconds);
+
+                seconds = time(threads, N, (op, key) -> {
+                    synchronized (bst) {
+                        if (op == 0) {
+                            return bst.get(key) == null ? 0 : 1;
+                        } else if (op == 1) {
+                            bst.put(key, key);
+                        } else {
+                            bst.remove(key);
+                        }
+                        return 0;
+                    }
+                });
+                System.out.printf("%d threads, synchronized BalancedBSTMap: %.2f sec\n", threads, seconds);
+
+                seconds = time(threads, N, (op, key) -> {
+                    if (op == 0) {
+                        return javaMap.get(key) == null ? 0 : 1;
+                    } else if (op == 1) {
+                        javaMap.put(key, key);
+                    } else {
+                        javaMap.remove(key);
+                    }
+                    return 0;
+                });
+                System.out.printf("%d threads, Java's Built-in ConcurrentSkipListMap: %.2f sec\n",
+                        threads, seconds);
+            }
+
+            System.out.print("Would you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Returns the seconds it takes the given number of threads, started
+     * together, to each apply OPS_PER_THREAD random operations to keys below N.
+     * Each thread counts its own finds, so they share no counter while timed.
+     */
+    private static double time(int threads, int N, Operation operation) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> running = new ArrayList<>();
+        long[] found = new long[threads];
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(61 + t);
+            int index = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    int dice = random.nextInt(10);
+                    count += operation.apply(dice < 8 ? 0 : dice - 7, random.nextInt(N));
+                }
+                found[index] = count;
+            });
+            thread.start();
+            running.add(thread);
+        }
+        Stopwatch sw = new Stopwatch();
+        start.countDown();
+        for (Thread thread : running) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        double seconds = sw.elapsedTime();
+        for (long count : found) {
+            sink += count;
+        }
+        return seconds;
+    }
+}
@@ -28,9 +28,16 @@ public class InsertRandomSpeedTest {
             int N = waitForPositiveInt(input);
             timeRandomMap61B(new ULLMap<>(), N, L);
             timeRandomMap61B(new BSTMap<>(), N, L);
+            timeRandomMap61B(new BalancedBSTMap<>(), N, L);
             timeRandomTreeMap(new TreeMap<>(), N, L);
             timeRandomHashMap(new HashMap<>(), N, L);
 
+            // sorted keys turn BSTMap into a linked list; try up to 10000000
+            System.out.println("In order:");
+            timeInOrderMap61B(new BSTMap<>(), N);
+            timeInOrderMap61B(new BalancedBSTMap<>(), N);
+            timeInOrderTreeMap(new TreeMap<>(), N);
+
             System.out.print("Would you like to try more timed-tests? (y/n)");
             repeat = input.nextLine();
         } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
@@ -73,6 +80,63 @@ public class InsertRandomSpeedTest {
         return sw.elapsedTime();
     }
 
+    /** Returns time needed to put N strings in lexicographically increasing
+     * order into the Map61B 61bMap. */
+    public static double insertInOrder(Map61B<String, Integer> map61B, int N) {
+        Stopwatch sw = new Stopwatch();
+        String s = "cat";
+        for (int i = 0; i < N; i++) {
+            s = StringUtils.nextString(s);
+            map61B.put(s, i);
+        }
+        return sw.elapsedTime();
+    }
+
+    /** Returns time needed to put N strings in lexicographically increasing
+     * order into the given TreeMap. */
+    public static double insertInOrder(TreeMap<String, Integer> treeMap, int N) {
+        Stopwatch sw = new Stopwatch();
+        String s = "cat";
+        for (int i = 0; i < N; i++) {
+            s = StringUtils.nextString(s);
+            treeMap.put(s, i);
+        }
+        return sw.elapsedTime();
+    }
+
+    /**
+     Attempts to insert N in-order strings into map,
+     Prints time of the N insert calls, otherwise
+     Prints a nice message about the error
+     */
+    public static void timeInOrderMap61B(Map61B<String, Integer> map, int N) {
+        try {
+            double mapTime = insertInOrder(map, N);
+            System.out.printf(map.getClass() + ": %.2f sec\n", mapTime);
+        } catch (StackOverflowError e) {
+            System.out.println("--Stack Overflow -- " + map.getClass() + " couldn't add "
+                    + N + " in-order strings.");
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     Attempts to insert N in-order strings into a TreeMap
+     Prints time of the N insert calls, otherwise
+     Prints a nice message about the error
+     */
+    public static void timeInOrderTreeMap(TreeMap<String, Integer> treeMap, int N) {
+        try {
+            double javaTime = insertInOrder(treeMap, N);
+            System.out.printf("Java's Built-in TreeMap: %.2f sec\n", javaTime);
+        } catch (StackOverflowError e) {
+            System.out.println("--Stack Overflow -- TreeMap couldn't add " + N + " in-order strings.");
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      Attempts to insert N random strings of length L into map,
      Prints time of the N insert calls, otherwise
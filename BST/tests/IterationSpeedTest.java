@@ -0,0 +1,111 @@
+import java.util.Iterator;
+import java.util.Scanner;
+import java.util.TreeMap;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * Times reading the first 10 keys and scanning every key of a
+ * BalancedBSTMap of N random Strings, through its lazy iterator and through
+ * keySet(), which copies every key into a TreeSet first, next to a TreeMap.
+ */
+public class IterationSpeedTest {
+    private static final int FIRST_KEYS = 10;
+    private static final int FIRST_ROUNDS = 100000;
+    private static final int SCAN_ROUNDS = 5;
+
+    /** Sums what the iterations read, so the JIT cannot drop them. */
+    private static long sink;
+
+    /**
+     Requests user input and performs the iteration tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("This program times taking the first " + FIRST_KEYS
+                + " keys and scanning all keys of a BalancedBSTMap and a TreeMap of N Strings.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # strings in the maps: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            StringUtils.setSeed(61);
+            BalancedBSTMap<String, Integer> bst = new BalancedBSTMap<>();
+            TreeMap<String, Integer> treeMap = new TreeMap<>();
+            for (int i = 0; i < N; i++) {
+                String s = StringUtils.randomString(10);
+                bst.put(s, i);
+                treeMap.put(s, i);
+            }
+
+            // untimed warmup, so the JIT has compiled both iterators before they are timed
+            for (int r = 0; r < FIRST_ROUNDS; r++) {
+                sink += firstKeys(bst.iterator()) + firstKeys(treeMap.keySet().iterator());
+            }
+
+            Stopwatch sw = new Stopwatch();
+            for (int r = 0; r < FIRST_ROUNDS; r++) {
+                sink += firstKeys(bst.iterator());
+            }
+            System.out.printf("BalancedBSTMap iterator, first %d keys x %d: %.2f sec\n",
+                    FIRST_KEYS, FIRST_ROUNDS, sw.elapsedTime());
+
+            // keySet() copies the whole map, so it gets far fewer rounds
+            int keySetRounds = Math.max(1, FIRST_ROUNDS / Math.max(1, N / 100));
+            sw = new Stopwatch();
+            for (int r = 0; r < keySetRounds; r++) {
+                sink += firstKeys(bst.keySet().iterator());
+            }
+            System.out.printf("BalancedBSTMap keySet(), first %d keys x %d: %.2f sec\n",
+                    FIRST_KEYS, keySetRounds, sw.elapsedTime());
+
+            sw = new Stopwatch();
+            for (int r = 0; r < FIRST_ROUNDS; r++) {
+                sink += firstKeys(treeMap.keySet().iterator());
+            }
+            System.out.printf("Java's Built-in TreeMap, first %d keys x %d: %.2f sec\n",
+                    FIRST_KEYS, FIRST_ROUNDS, sw.elapsedTime());
+
+            sw = new Stopwatch();
+            for (int r = 0; r < SCAN_ROUNDS; r++) {
+                for (String key : bst) {
+                    sink += key.length();
+                }
+            }
+            System.out.printf("BalancedBSTMap iterator, full scan x %d: %.2f sec\n",
+                    SCAN_ROUNDS, sw.elapsedTime());
+
+            sw = new Stopwatch();
+            for (int r = 0; r < SCAN_ROUNDS; r++) {
+                for (String key : bst.keySet()) {
+                    sink += key.length();
+                }
+            }
+            System.out.printf("BalancedBSTMap keySet(), full scan x %d: %.2f sec\n",
+                    SCAN_ROUNDS, sw.elapsedTime());
+
+            sw = new Stopwatch();
+            for (int r = 0; r < SCAN_ROUNDS; r++) {
+                for (String key : treeMap.keySet()) {
+                    sink += key.length();
+                }
+            }
+            System.out.printf("Java's Built-in TreeMap, full scan x %d: %.2f sec\n",
+                    SCAN_ROUNDS, sw.elapsedTime());
+
+            System.out.print("Would you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Returns the total length of the first FIRST_KEYS keys of keys. */
+    private static long firstKeys(Iterator<String> keys) {
+        long total = 0;
+        for (int i = 0; i < FIRST_KEYS && keys.hasNext(); i++) {
+            total += keys.next().length();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,86 @@
+import java.util.Random;
+import java.util.Scanner;
+import java.util.TreeMap;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * Builds a BalancedBSTMap and a TreeMap of N Integer keys, then times range
+ * scans of 1000 keys each starting at random keys, plus floor, rank and
+ * select lookups. Try N of 10000000 with a large heap, e.g. -Xmx4g.
+ */
+public class RangeScanSpeedTest {
+    private static final int SCAN_LENGTH = 1000;
+    private static final int SCANS = 10000;
+    private static final int LOOKUPS = 1000000;
+
+    /** Sums what the scans read, so the JIT cannot drop them. */
+    private static long sink;
+
+    /**
+     Requests user input and performs the range scan tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("This program builds a BalancedBSTMap and a TreeMap of N keys "
+                + "and times range scans of " + SCAN_LENGTH + " keys and ordered lookups.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # keys in the maps: ");
+            int N = InsertRandomSpeedTest.waitForPositiveInt(input);
+
+            // every third integer, so floor and ceiling often fall between keys
+            BalancedBSTMap<Integer, Integer> bst = new BalancedBSTMap<>();
+            TreeMap<Integer, Integer> treeMap = new TreeMap<>();
+            for (int i = 0; i < N; i++) {
+                bst.put(3 * i, i);
+                treeMap.put(3 * i, i);
+            }
+
+            Random random = new Random(61);
+            Stopwatch sw = new Stopwatch();
+            for (int s = 0; s < SCANS; s++) {
+                int lo = 3 * random.nextInt(N);
+                for (int key : bst.keys(lo, lo + 3 * (SCAN_LENGTH - 1))) {
+                    sink += key;
+                }
+            }
+            System.out.printf("BalancedBSTMap: %d scans of %d keys: %.2f sec\n",
+                    SCANS, SCAN_LENGTH, sw.elapsedTime());
+
+            random = new Random(61);
+            sw = new Stopwatch();
+            for (int s = 0; s < SCANS; s++) {
+                int lo = 3 * random.nextInt(N);
+                for (int key : treeMap.subMap(lo, true, lo + 3 * (SCAN_LENGTH - 1), true).keySet()) {
+                    sink += key;
+                }
+            }
+            System.out.printf("Java's Built-in TreeMap: %d scans of %d keys: %.2f sec\n",
+                    SCANS, SCAN_LENGTH, sw.elapsedTime());
+
+            random = new Random(61);
+            sw = new Stopwatch();
+            for (int i = 0; i < LOOKUPS; i++) {
+                int key = random.nextInt(3 * N);
+                sink += bst.floor(key) + bst.rank(key) + bst.select(key % N);
+            }
+            System.out.printf("BalancedBSTMap: %d floor + rank + select: %.2f sec\n",
+                    LOOKUPS, sw.elapsedTime());
+
+            random = new Random(61);
+            sw = new Stopwatch();
+            for (int i = 0; i < LOOKUPS; i++) {
+                int key = random.nextInt(3 * N);
+                // TreeMap has no rank or select, so only floor is timed
+                sink += treeMap.floorKey(key);
+            }
+            System.out.printf("Java's Built-in TreeMap: %d floor: %.2f sec\n", LOOKUPS, sw.elapsedTime());
+
+            System.out.print("Would you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+}
@@ -0,0 +1,177 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests of building BSTMap and BalancedBSTMap from sorted input and of
+ * merging two maps.
+ */
+public class TestBSTMapBulkLoad {
+
+    @Test
+    public void fromSortedTest() {
+        for (int n = 0; n <= 300; n++) {
+            Integer[] keys = new Integer[n];
+            String[] values = new String[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = 2 * i;
+                values[i] = "v" + i;
+            }
+            BSTMap<Integer, String> plain = BSTMap.fromSorted(keys, values);
+            BalancedBSTMap<Integer, String> balanced = BalancedBSTMap.fromSorted(keys, values);
+            // a perfectly balanced tree of n nodes has floor(lg n) + 1 levels
+            int perfect = n == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(n);
+            assertThat(plain.height()).isEqualTo(perfect);
+            assertThat(balanced.height()).isAtMost(perfect + 1);
+            checkRedBlack(balanced);
+
+            for (BSTMap<Integer, String> b : List.of(plain, balanced)) {
+                assertThat(b.size()).isEqualTo(n);
+                checkCounts(b.root);
+                for (int i = 0; i < n; i++) {
+                    assertThat(b.get(2 * i)).isEqualTo("v" + i);
+                    assertThat(b.select(i)).isEqualTo(2 * i);
+                    assertThat(b.containsKey(2 * i + 1)).isFalse();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void updateAfterLoadTest() {
+        Integer[] keys = new Integer[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 3 * i;
+        }
+        BalancedBSTMap<Integer, Integer> b = BalancedBSTMap.fromSorted(keys, keys);
+        TreeMap<Integer, Integer> ref = new TreeMap<>();
+        for (int key : keys) {
+            ref.put(key, key);
+        }
+        Random random = new Random(61);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(3000);
+            if (random.nextBoolean()) {
+                b.put(key, i);
+                ref.put(key, i);
+            } else {
+                assertThat(b.remove(key)).isEqualTo(ref.remove(key));
+            }
+            if (i % 500 == 0) {
+                checkRedBlack(b);
+            }
+        }
+        checkRedBlack(b);
+        assertThat(b.size()).isEqualTo(ref.size());
+        assertThat(b.keySet()).containsExactlyElementsIn(ref.keySet()).inOrder();
+    }
+
+    @Test
+    public void fromSortedIteratorTest() {
+        List<String> keys = List.of("a", "b", "c", "d", "e");
+        List<Integer> values = List.of(1, 2, 3, 4, 5);
+        // only the first n pairs are read
+        BSTMap<String, Integer> b = BSTMap.fromSorted(keys.iterator(), values.iterator(), 3);
+        assertThat(b.keySet()).containsExactly("a", "b", "c").inOrder();
+        assertThat(b.get("c")).isEqualTo(3);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BSTMap.fromSorted(keys.iterator(), values.iterator(), 6));
+        assertThrows(IllegalArgumentException.class,
+                () -> BalancedBSTMap.fromSorted(new String[]{"a", "c", "b"}, new Integer[]{1, 2, 3}));
+        assertThrows(IllegalArgumentException.class,
+                () -> BalancedBSTMap.fromSorted(new String[]{"a", "a"}, new Integer[]{1, 2}));
+        assertThrows(IllegalArgumentException.class,
+                () -> BSTMap.fromSorted(new String[]{"a"}, new Integer[0]));
+    }
+
+    @Test
+    public void mergeTest() {
+        mergeTest(new BSTMap<>(), new BSTMap<>());
+        mergeTest(new BalancedBSTMap<>(), new BSTMap<>());
+    }
+
+    /**
+     * Merges two maps of random overlapping keys into a and compares the
+     * result with a TreeMap that had both put into it, b's values last.
+     */
+    private static void mergeTest(BSTMap<Integer, Integer> a, BSTMap<Integer, Integer> b) {
+        TreeMap<Integer, Integer> ref = new TreeMap<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 2000; i++) {
+            int key = random.nextInt(5000);
+            a.put(key, i);
+            ref.put(key, i);
+        }
+        List<Integer> bKeys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int key = random.nextInt(5000);
+            b.put(key, -i);
+            bKeys.add(key);
+        }
+        for (int key : bKeys) {
+            ref.put(key, b.get(key));
+        }
+        int bSize = b.size();
+        a.merge(b);
+        assertThat(a.size()).isEqualTo(ref.size());
+        assertThat(b.size()).isEqualTo(bSize);
+        assertThat(a.keySet()).containsExactlyElementsIn(ref.keySet()).inOrder();
+        for (int key : ref.keySet()) {
+            assertThat(a.get(key)).isEqualTo(ref.get(key));
+        }
+        checkCounts(a.root);
+        if (a instanceof BalancedBSTMap) {
+            checkRedBlack(a);
+        }
+
+        a.merge(new BSTMap<>());
+        assertThat(a.size()).isEqualTo(ref.size());
+        BSTMap<Integer, Integer> empty = new BSTMap<>();
+        empty.merge(a);
+        assertThat(empty.keySet()).containsExactlyElementsIn(ref.keySet()).inOrder();
+    }
+
+    /** Checks the subtree counts below node, returning the number of nodes. */
+    private static <K extends Comparable<K>, V> int checkCounts(BSTMap<K, V>.BSTNode node) {
+        if (node == null) {
+            return 0;
+        }
+        int count = 1 + checkCounts(node.left) + checkCounts(node.right);
+        assertThat(node.count).isEqualTo(count);
+        return count;
+    }
+
+    /**
+     * Checks the left-leaning red-black invariants: a black root, no right
+     * red links, no two red links in a row, and the same number of black
+     * nodes on every path down.
+     */
+    private static <K extends Comparable<K>, V> void checkRedBlack(BSTMap<K, V> b) {
+        if (b.root != null) {
+            assertThat(b.root.red).isFalse();
+        }
+        blackHeight(b.root);
+    }
+
+    private static <K extends Comparable<K>, V> int blackHeight(BSTMap<K, V>.BSTNode node) {
+        if (node == null) {
+            return 0;
+        }
+        if (node.right != null) {
+            assertThat(node.right.red).isFalse();
+        }
+        if (node.red && node.left != null) {
+            assertThat(node.left.red).isFalse();
+        }
+        int left = blackHeight(node.left);
+        assertThat(blackHeight(node.right)).isEqualTo(left);
+        return left + (node.red ? 0 : 1);
+    }
+}
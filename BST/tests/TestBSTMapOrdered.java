@@ -0,0 +1,171 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests of the ordered operations of BSTMap and BalancedBSTMap, checked
+ * against java.util.TreeMap.
+ */
+public class TestBSTMapOrdered {
+
+    @Test
+    public void orderedOperationsTest() {
+        orderedOperationsTest(new BSTMap<>());
+        orderedOperationsTest(new BalancedBSTMap<>());
+    }
+
+    /**
+     * Fills b and a TreeMap with random even keys, removes some, and compares
+     * every ordered query, including ones for odd keys that are never present.
+     */
+    private static void orderedOperationsTest(BSTMap<Integer, Integer> b) {
+        TreeMap<Integer, Integer> ref = new TreeMap<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 5000; i++) {
+            int key = 2 * random.nextInt(4000);
+            b.put(key, i);
+            ref.put(key, i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            int key = 2 * random.nextInt(4000);
+            b.remove(key);
+            ref.remove(key);
+        }
+        assertThat(b.size()).isEqualTo(ref.size());
+        assertThat(b.min()).isEqualTo(ref.firstKey());
+        assertThat(b.max()).isEqualTo(ref.lastKey());
+        List<Integer> sorted = new ArrayList<>(ref.keySet());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertThat(b.select(i)).isEqualTo(sorted.get(i));
+            assertThat(b.rank(sorted.get(i))).isEqualTo(i);
+        }
+        for (int key = -1; key <= 8001; key++) {
+            assertThat(b.floor(key)).isEqualTo(ref.floorKey(key));
+            assertThat(b.ceiling(key)).isEqualTo(ref.ceilingKey(key));
+            assertThat(b.rank(key)).isEqualTo(ref.headMap(key).size());
+        }
+        for (int i = 0; i < 200; i++) {
+            int lo = random.nextInt(8100) - 50;
+            int hi = lo + random.nextInt(300);
+            List<Integer> keys = new ArrayList<>();
+            for (int key : b.keys(lo, hi)) {
+                keys.add(key);
+            }
+            assertThat(keys).containsExactlyElementsIn(ref.subMap(lo, true, hi, true).keySet()).inOrder();
+            assertThat(b.size(lo, hi)).isEqualTo(keys.size());
+        }
+        assertThat(b.keys(10, 5).iterator().hasNext()).isFalse();
+        assertThrows(IllegalArgumentException.class, () -> b.select(ref.size()));
+        assertThrows(IllegalArgumentException.class, () -> b.select(-1));
+    }
+
+    @Test
+    public void emptyTest() {
+        BSTMap<String, Integer> b = new BalancedBSTMap<>();
+        assertThrows(NoSuchElementException.class, b::min);
+        assertThrows(NoSuchElementException.class, b::max);
+        assertThat(b.floor("a")).isNull();
+        assertThat(b.ceiling("a")).isNull();
+        assertThat(b.rank("a")).isEqualTo(0);
+        assertThat(b.keys("a", "z").iterator().hasNext()).isFalse();
+    }
+
+    @Test
+    public void subMapTest() {
+        BSTMap<String, Integer> b = new BalancedBSTMap<>();
+        for (char c = 'a'; c <= 'z'; c++) {
+            b.put(String.valueOf(c), (int) c);
+        }
+        Map61B<String, Integer> sub = b.subMap("d", "g");
+        assertThat(sub.size()).isEqualTo(4);
+        assertThat(sub.keySet()).containsExactly("d", "e", "f", "g").inOrder();
+        assertThat(sub.get("e")).isEqualTo((int) 'e');
+        assertThat(sub.get("h")).isNull();
+        assertThat(sub.containsKey("a")).isFalse();
+
+        // the view writes through to the map and sees the map's changes
+        sub.put("dd", 0);
+        b.remove("f");
+        assertThat(b.get("dd")).isEqualTo(0);
+        assertThat(sub.keySet()).containsExactly("d", "dd", "e", "g").inOrder();
+        assertThat(sub.remove("a")).isNull();
+        assertThat(b.containsKey("a")).isTrue();
+        assertThrows(IllegalArgumentException.class, () -> sub.put("z", 1));
+
+        sub.clear();
+        assertThat(sub.size()).isEqualTo(0);
+        assertThat(b.size()).isEqualTo(22);
+        assertThat(b.floor("f")).isEqualTo("c");
+        assertThat(b.ceiling("d")).isEqualTo("h");
+    }
+
+    @Test
+    public void iteratorTest() {
+        iteratorTest(new BSTMap<>());
+        iteratorTest(new BalancedBSTMap<>());
+    }
+
+    /**
+     * Iterates b in order, removing every key divisible by 3 through the
+     * iterator, and checks the keys seen and the keys left.
+     */
+    private static void iteratorTest(BSTMap<Integer, Integer> b) {
+        TreeMap<Integer, Integer> ref = new TreeMap<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 3000; i++) {
+            int key = random.nextInt(10000);
+            b.put(key, i);
+            ref.put(key, i);
+        }
+        int before = b.size();
+        List<Integer> seen = new ArrayList<>();
+        Iterator<Integer> keys = b.iterator();
+        while (keys.hasNext()) {
+            int key = keys.next();
+            seen.add(key);
+            if (key % 3 == 0) {
+                keys.remove();
+                ref.remove(key);
+            }
+        }
+        assertThat(seen).isInStrictOrder();
+        assertThat(seen.size()).isEqualTo(before);
+        assertThat(b.size()).isEqualTo(ref.size());
+        assertThat(b.keySet()).containsExactlyElementsIn(ref.keySet()).inOrder();
+
+        Iterator<Integer> first = b.iterator();
+        assertThrows(IllegalStateException.class, first::remove);
+        int min = first.next();
+        first.remove();
+        assertThrows(IllegalStateException.class, first::remove);
+        assertThat(b.containsKey(min)).isFalse();
+        assertThat(first.next()).isEqualTo(ref.higherKey(min));
+    }
+
+    @Test
+    public void degenerateIteratorTest() {
+        // keys put in order make an unbalanced BSTMap a list as deep as it is long
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        for (int i = 0; i < 5000; i++) {
+            b.put(i, i);
+        }
+        int expected = 0;
+        for (int key : b) {
+            assertThat(key).isEqualTo(expected++);
+        }
+        assertThat(expected).isEqualTo(5000);
+        Iterator<Integer> keys = b.iterator();
+        for (int i = 0; i < 10; i++) {
+            keys.next();
+        }
+        assertThat(keys.next()).isEqualTo(10);
+    }
+}
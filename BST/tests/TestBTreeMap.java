@@ -0,0 +1,124 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests of BTreeMap against java.util.TreeMap, with fanouts small enough
+ * that every split, borrow and merge happens often.
+ */
+public class TestBTreeMap {
+
+    @Test
+    public void randomOperationsTest() {
+        for (int fanout : new int[]{3, 4, 5, 8, 64}) {
+            randomOperationsTest(new BTreeMap<>(fanout));
+        }
+    }
+
+    /**
+     * Puts and removes random keys, checking every key against a TreeMap
+     * along the way, then empties the map again.
+     */
+    private static void randomOperationsTest(BTreeMap<Integer, Integer> b) {
+        TreeMap<Integer, Integer> ref = new TreeMap<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextInt(5) < 3) {
+                b.put(key, i);
+                ref.put(key, i);
+            } else {
+                assertThat(b.remove(key)).isEqualTo(ref.remove(key));
+            }
+            assertThat(b.size()).isEqualTo(ref.size());
+            if (i % 1000 == 0) {
+                assertThat(b.keySet()).containsExactlyElementsIn(ref.keySet()).inOrder();
+            }
+        }
+        for (int key = -1; key <= 2000; key++) {
+            assertThat(b.get(key)).isEqualTo(ref.get(key));
+            assertThat(b.containsKey(key)).isEqualTo(ref.containsKey(key));
+        }
+        List<Integer> keys = new ArrayList<>(ref.keySet());
+        random = new Random(62);
+        for (int i = keys.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            keys.set(j, keys.set(i, keys.get(j)));
+        }
+        for (int key : keys) {
+            assertThat(b.remove(key)).isEqualTo(ref.remove(key));
+        }
+        assertThat(b.size()).isEqualTo(0);
+        assertThat(b.height()).isEqualTo(1);
+        assertThat(b.iterator().hasNext()).isFalse();
+    }
+
+    @Test
+    public void orderedOperationsTest() {
+        BTreeMap<Integer, Integer> b = new BTreeMap<>(4);
+        TreeMap<Integer, Integer> ref = new TreeMap<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 3000; i++) {
+            int key = 2 * random.nextInt(4000);
+            b.put(key, i);
+            ref.put(key, i);
+        }
+        assertThat(b.min()).isEqualTo(ref.firstKey());
+        assertThat(b.max()).isEqualTo(ref.lastKey());
+        for (int key = -1; key <= 8001; key++) {
+            assertThat(b.floor(key)).isEqualTo(ref.floorKey(key));
+            assertThat(b.ceiling(key)).isEqualTo(ref.ceilingKey(key));
+        }
+        for (int i = 0; i < 200; i++) {
+            int lo = random.nextInt(8100) - 50;
+            int hi = lo + random.nextInt(300);
+            List<Integer> keys = new ArrayList<>();
+            for (int key : b.keys(lo, hi)) {
+                keys.add(key);
+            }
+            assertThat(keys).containsExactlyElementsIn(ref.subMap(lo, true, hi, true).keySet()).inOrder();
+        }
+        assertThat(b.keys(10, 5).iterator().hasNext()).isFalse();
+
+        Iterator<Integer> keys = b.iterator();
+        assertThrows(IllegalStateException.class, keys::remove);
+        while (keys.hasNext()) {
+            if (keys.next() % 3 == 0) {
+                keys.remove();
+            }
+        }
+        ref.keySet().removeIf(key -> key % 3 == 0);
+        assertThat(b.keySet()).containsExactlyElementsIn(ref.keySet()).inOrder();
+        assertThat(b.size()).isEqualTo(ref.size());
+    }
+
+    @Test
+    public void shapeTest() {
+        BTreeMap<Integer, String> b = new BTreeMap<>();
+        assertThrows(NoSuchElementException.class, b::min);
+        assertThrows(NoSuchElementException.class, b::max);
+        assertThat(b.floor(1)).isNull();
+        assertThat(b.ceiling(1)).isNull();
+        for (int i = 0; i < 100000; i++) {
+            b.put(i, "v" + i);
+        }
+        // nodes at least half full keep 100000 keys within log_32 of them, 4 levels
+        assertThat(b.height()).isAtMost(4);
+        assertThat(b.get(99999)).isEqualTo("v99999");
+        b.put(5, null);
+        assertThat(b.containsKey(5)).isTrue();
+        assertThat(b.get(5)).isNull();
+        b.clear();
+        assertThat(b.size()).isEqualTo(0);
+        assertThat(b.containsKey(5)).isFalse();
+        assertThrows(IllegalArgumentException.class, () -> new BTreeMap<Integer, Integer>(2));
+    }
+}
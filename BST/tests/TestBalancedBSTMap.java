@@ -0,0 +1,81 @@
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests of BalancedBSTMap, the left-leaning red-black variant of BSTMap.
+ */
+public class TestBalancedBSTMap {
+
+    /** Returns the most levels a left-leaning red-black tree of n keys can have. */
+    private static int maxHeight(int n) {
+        return (int) Math.floor(2 * Math.log(n + 1) / Math.log(2));
+    }
+
+    @Test
+    public void inOrderInsertTest() {
+        BalancedBSTMap<Integer, Integer> b = new BalancedBSTMap<>();
+        int n = 1000000;
+        for (int i = 0; i < n; i++) {
+            b.put(i, i);
+        }
+        assertThat(b.size()).isEqualTo(n);
+        assertThat(b.height()).isAtMost(maxHeight(n));
+        for (int i = 0; i < n; i += 997) {
+            assertThat(b.get(i)).isEqualTo(i);
+        }
+        assertThat(b.containsKey(n)).isFalse();
+
+        // an unbalanced BSTMap turns the same keys into a list
+        BSTMap<Integer, Integer> unbalanced = new BSTMap<>();
+        for (int i = 0; i < 1000; i++) {
+            unbalanced.put(i, i);
+        }
+        assertThat(unbalanced.height()).isEqualTo(1000);
+    }
+
+    @Test
+    public void randomizedTest() {
+        BalancedBSTMap<Integer, Integer> b = new BalancedBSTMap<>();
+        TreeMap<Integer, Integer> ref = new TreeMap<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(2000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                b.put(key, i);
+                ref.put(key, i);
+            } else if (op == 1) {
+                assertThat(b.remove(key)).isEqualTo(ref.remove(key));
+            } else {
+                assertThat(b.get(key)).isEqualTo(ref.get(key));
+                assertThat(b.containsKey(key)).isEqualTo(ref.containsKey(key));
+            }
+            assertThat(b.size()).isEqualTo(ref.size());
+        }
+        assertThat(b.height()).isAtMost(maxHeight(b.size()));
+        assertThat(b.keySet()).containsExactlyElementsIn(ref.keySet()).inOrder();
+
+        // removing every key in order keeps the tree balanced all the way down
+        for (int key : ref.keySet()) {
+            assertThat(b.remove(key)).isEqualTo(ref.get(key));
+            assertThat(b.height()).isAtMost(maxHeight(b.size()));
+        }
+        assertThat(b.size()).isEqualTo(0);
+        assertThat(b.remove(0)).isNull();
+    }
+
+    @Test
+    public void nullValueTest() {
+        BalancedBSTMap<String, Integer> b = new BalancedBSTMap<>();
+        b.put("hi", null);
+        assertThat(b.get("hi")).isNull();
+        assertThat(b.containsKey("hi")).isTrue();
+        assertThat(b.remove("hi")).isNull();
+        assertThat(b.containsKey("hi")).isFalse();
+        assertThat(b.size()).isEqualTo(0);
+    }
+}
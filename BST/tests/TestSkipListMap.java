@@ -0,0 +1,206 @@
+import com.google.common.collect.Range;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests of SkipListMap, alone against java.util.TreeMap and under several
+ * threads at once.
+ */
+public class TestSkipListMap {
+
+    @Test
+    public void sequentialTest() {
+        SkipListMap<Integer, Integer> s = new SkipListMap<>();
+        TreeMap<Integer, Integer> ref = new TreeMap<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(3000);
+            if (random.nextInt(3) > 0) {
+                s.put(key, i);
+                ref.put(key, i);
+            } else {
+                assertThat(s.remove(key)).isEqualTo(ref.remove(key));
+            }
+        }
+        assertThat(s.size()).isEqualTo(ref.size());
+        assertThat(s.keySet()).containsExactlyElementsIn(ref.keySet()).inOrder();
+        for (int key = -1; key <= 3000; key++) {
+            assertThat(s.get(key)).isEqualTo(ref.get(key));
+            assertThat(s.containsKey(key)).isEqualTo(ref.containsKey(key));
+        }
+        for (int i = 0; i < 200; i++) {
+            int lo = random.nextInt(3100) - 50;
+            int hi = lo + random.nextInt(200);
+            List<Integer> keys = new ArrayList<>();
+            for (int key : s.keys(lo, hi)) {
+                keys.add(key);
+            }
+            assertThat(keys).containsExactlyElementsIn(ref.subMap(lo, true, hi, true).keySet()).inOrder();
+        }
+        assertThat(s.keys(10, 5).iterator().hasNext()).isFalse();
+
+        Iterator<Integer> keys = s.iterator();
+        assertThrows(IllegalStateException.class, keys::remove);
+        while (keys.hasNext()) {
+            if (keys.next() % 2 == 0) {
+                keys.remove();
+            }
+        }
+        ref.keySet().removeIf(key -> key % 2 == 0);
+        assertThat(s.keySet()).containsExactlyElementsIn(ref.keySet()).inOrder();
+        assertThat(s.size()).isEqualTo(ref.size());
+
+        s.clear();
+        assertThat(s.size()).isEqualTo(0);
+        assertThat(s.iterator().hasNext()).isFalse();
+        assertThrows(IllegalArgumentException.class, () -> s.put(1, null));
+    }
+
+    @Test
+    public void disjointThreadsTest() throws InterruptedException {
+        // each thread puts its own keys, interleaved with every other thread's, and removes half
+        int threads = 8;
+        int perThread = 5000;
+        SkipListMap<Integer, Integer> s = new SkipListMap<>();
+        runThreads(threads, t -> {
+            for (int i = 0; i < perThread; i++) {
+                s.put(i * threads + t, t);
+            }
+            for (int i = 0; i < perThread; i += 2) {
+                assertThat(s.remove(i * threads + t)).isEqualTo(t);
+            }
+        });
+        assertThat(s.size()).isEqualTo(threads * perThread / 2);
+        int expected = 0;
+        for (int key : s) {
+            // every odd i of every thread survives, in order
+            while ((expected / threads) % 2 == 0) {
+                expected++;
+            }
+            assertThat(key).isEqualTo(expected++);
+            assertThat(s.get(key)).isEqualTo(key % threads);
+        }
+        assertThat(expected).isEqualTo(threads * perThread);
+    }
+
+    @Test
+    public void contendedThreadsTest() throws InterruptedException {
+        // threads fight over a few keys; no key may end up twice, and scans stay in range
+        int threads = 8;
+        SkipListMap<Integer, Integer> s = new SkipListMap<>();
+        runThreads(threads, t -> {
+            Random random = new Random(t);
+            for (int i = 0; i < 50000; i++) {
+                int key = random.nextInt(64);
+                if (random.nextBoolean()) {
+                    s.put(key, t);
+                } else {
+                    s.remove(key);
+                }
+                List<Integer> scanned = new ArrayList<>();
+                for (int k : s.keys(key, key + 8)) {
+                    scanned.add(k);
+                }
+                assertThat(scanned).isInStrictOrder();
+                for (int k : scanned) {
+                    assertThat(k).isIn(Range.closed(key, key + 8));
+                }
+            }
+        });
+        List<Integer> keys = new ArrayList<>();
+        for (int key : s) {
+            keys.add(key);
+            assertThat(s.get(key)).isNotNull();
+        }
+        assertThat(keys).isInStrictOrder();
+        assertThat(s.size()).isEqualTo(keys.size());
+        for (int key : keys) {
+            s.remove(key);
+        }
+        assertThat(s.size()).isEqualTo(0);
+        assertThat(s.iterator().hasNext()).isFalse();
+    }
+
+    @Test(timeout = 10000)
+    public void putPastStalledRemoveTest() throws ReflectiveOperationException {
+        SkipListMap<Integer, Integer> s = new SkipListMap<>();
+        for (int key = 0; key < 10; key++) {
+            s.put(key, key);
+        }
+        // stall a remove of 5 right after it nulled the value, before it marked any link
+        Object node = field(s, "head");
+        for (int i = 0; i <= 5; i++) {
+            node = ((AtomicReferenceArray<?>) field(node, "next")).get(0);
+        }
+        ((AtomicReference<?>) field(node, "value")).set(null);
+        assertThat(s.get(5)).isNull();
+
+        // put() must not wait for the stalled thread
+        s.put(5, 6);
+        assertThat(s.get(5)).isEqualTo(6);
+        List<Integer> keys = new ArrayList<>();
+        for (int key : s) {
+            keys.add(key);
+        }
+        assertThat(keys).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9).inOrder();
+        assertThat(s.remove(5)).isEqualTo(6);
+        assertThat(s.containsKey(5)).isFalse();
+    }
+
+    /** Returns the value of the private field of object with the given name. */
+    private static Object field(Object object, String name) throws ReflectiveOperationException {
+        for (Class<?> c = object.getClass(); c != null; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(name);
+                field.setAccessible(true);
+                return field.get(object);
+            } catch (NoSuchFieldException e) {
+                // look in the superclass
+            }
+        }
+        throw new NoSuchFieldException(name);
+    }
+
+    /** Runs body(t) for t from 0 to threads - 1 on that many threads at once. */
+    private static void runThreads(int threads, ThreadBody body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> running = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    body.run(id);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            thread.start();
+            running.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : running) {
+            thread.join();
+        }
+        assertThat(failures).isEmpty();
+    }
+
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,328 @@
+package hashmap;
+
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A MyHashMap that holds at most maxEntries pairs, and optionally at most
+ * maxWeight total weight, evicting the least recently used pair to make room.
+ * <p>
+ * Every node is also linked into an intrusive list in access order, from the
+ * least recently used at the head to the most recently used at the tail.
+ * get() and put() move a node to the tail and eviction takes the head, so
+ * every operation stays O(1) on top of the hash table.
+ * <p>
+ * With useFrequencyAdmission() the cache keeps a small frequency sketch of
+ * every key it was asked for, and a new key is only admitted if it was asked
+ * for more often than the pair it would evict, as in TinyLFU. This keeps a
+ * burst of one-off keys from flushing out the popular ones.
+ * <p>
+ * get() counts hits and misses. Null values are not allowed, so a null from
+ * get() always means a miss. parallelPutAll() falls back to putAll(), since
+ * eviction cannot run in parallel.
+ *
+ * @author Xiaocheng Sun
+ */
+public class BoundedCache<K, V> extends MyHashMap<K, V> {
+
+    /**
+     * A node that is also an element of the access-order list.
+     */
+    private class CacheNode extends Node {
+        CacheNode before;
+        CacheNode after;
+        long weight;
+
+        CacheNode(K k, V v, int hash) {
+            super(k, v, hash);
+        }
+
+        /**
+         * Replaces the value like put() does: the pair is weighed again, becomes
+         * the most recently used, and may evict others to stay within maxWeight.
+         */
+        @Override
+        public V setValue(V v) {
+            if (v == null) {
+                throw new IllegalArgumentException("BoundedCache does not allow null values");
+            }
+            V old = super.setValue(v);
+            afterNodeUpdate(this);
+            return old;
+        }
+    }
+
+    /* Instance Variables */
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+    // least recently used node, evicted first, and most recently used node
+    private CacheNode head;
+    private CacheNode tail;
+    private long weight = 0;
+    // counts how often each key was asked for, null unless useFrequencyAdmission() was called
+    private FrequencySketch sketch = null;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Creates a cache of at most maxEntries pairs.
+     *
+     * @param maxEntries maximum number of pairs, at least 1
+     */
+    public BoundedCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE, (k, v) -> 1);
+    }
+
+    /**
+     * Creates a cache of at most maxEntries pairs whose weights, as given by
+     * weigher, add up to at most maxWeight. A pair heavier than maxWeight on
+     * its own is evicted as soon as it is put.
+     *
+     * @param maxEntries maximum number of pairs, at least 1
+     * @param maxWeight  maximum total weight, at least 0
+     * @param weigher    returns the weight of a pair, at least 0
+     */
+    public BoundedCache(int maxEntries, long maxWeight, ToLongBiFunction<? super K, ? super V> weigher) {
+        super(initialCapacity(maxEntries));
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("maxWeight must not be negative: " + maxWeight);
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Turns on TinyLFU admission: a new key that was asked for no more often
+     * than the least recently used pair is dropped instead of evicting it.
+     */
+    public void useFrequencyAdmission() {
+        sketch = new FrequencySketch(maxEntries);
+    }
+
+    /** Returns the number of get() calls that found their key. */
+    public long hitCount() {
+        return hits;
+    }
+
+    /** Returns the number of get() calls that did not find their key. */
+    public long missCount() {
+        return misses;
+    }
+
+    /** Returns the fraction of get() calls that found their key, or 0 if there were none. */
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    /** Returns the number of pairs evicted or refused admission to make room. */
+    public long evictionCount() {
+        return evictions;
+    }
+
+    /** Returns the total weight of the pairs in the cache. */
+    public long weight() {
+        return weight;
+    }
+
+    @Override
+    public V get(K key) {
+        if (sketch != null) {
+            sketch.increment(key.hashCode());
+        }
+        V value = super.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("BoundedCache does not allow null values");
+        }
+        super.put(key, value);
+    }
+
+    /** Puts the pairs one at a time, so each can evict. */
+    @Override
+    public void parallelPutAll(Map61B<? extends K, ? extends V> other) {
+        putAll(other);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        head = null;
+        tail = null;
+        weight = 0;
+    }
+
+    @Override
+    protected Node createNode(K key, V value, int hash) {
+        return new CacheNode(key, value, hash);
+    }
+
+    @Override
+    protected void afterNodeAccess(Node node) {
+        moveToTail((CacheNode) node);
+    }
+
+    @Override
+    protected void afterNodeUpdate(Node node) {
+        CacheNode cacheNode = (CacheNode) node;
+        long newWeight = weigher.applyAsLong(cacheNode.key, cacheNode.value);
+        weight += newWeight - cacheNode.weight;
+        cacheNode.weight = newWeight;
+        moveToTail(cacheNode);
+        // the key is already cached, so admission has nothing to decide
+        evictWhileFull(null);
+    }
+
+    @Override
+    protected void afterNodeInsertion(Node node) {
+        CacheNode cacheNode = (CacheNode) node;
+        cacheNode.weight = weigher.applyAsLong(cacheNode.key, cacheNode.value);
+        weight += cacheNode.weight;
+        linkLast(cacheNode);
+        evictWhileFull(cacheNode);
+    }
+
+    @Override
+    protected void afterNodeRemoval(Node node) {
+        CacheNode cacheNode = (CacheNode) node;
+        unlink(cacheNode);
+        weight -= cacheNode.weight;
+    }
+
+    /* ------------------------------- Private methods ------------------------------- */
+
+    /**
+     * Returns a capacity at which a full cache never resizes the table, unless
+     * that is too large to allocate up front for a cache that may stay small.
+     */
+    private static int initialCapacity(int maxEntries) {
+        return (int) Math.max(1, Math.min(1 << 16, Math.ceil((maxEntries + 1) / 0.75)));
+    }
+
+    /**
+     * Evicts pairs from the head until the cache is within its limits. A
+     * candidate heavier than maxWeight, or with admission on one that is no
+     * more popular than the head, is evicted in its place.
+     *
+     * @param candidate the pair just inserted, or null if no new pair is waiting for admission
+     */
+    private void evictWhileFull(CacheNode candidate) {
+        while (size() > maxEntries || weight > maxWeight) {
+            CacheNode victim = head;
+            // a candidate that cannot fit even alone goes without flushing the others
+            if (candidate != null && (candidate.weight > maxWeight || sketch != null && victim != candidate
+                    && sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash))) {
+                victim = candidate;
+            }
+            evictions++;
+            remove(victim.key);
+            if (victim == candidate) {
+                return;
+            }
+        }
+    }
+
+    private void moveToTail(CacheNode node) {
+        if (node != tail) {
+            unlink(node);
+            linkLast(node);
+        }
+    }
+
+    private void linkLast(CacheNode node) {
+        node.before = tail;
+        node.after = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.after = node;
+        }
+        tail = node;
+    }
+
+    private void unlink(CacheNode node) {
+        if (node.before == null) {
+            head = node.after;
+        } else {
+            node.before.after = node.after;
+        }
+        if (node.after == null) {
+            tail = node.before;
+        } else {
+            node.after.before = node.before;
+        }
+        node.before = null;
+        node.after = null;
+    }
+
+    /**
+     * A count-min sketch of how often each hash code was seen, with four
+     * saturating 4-bit counters per hash. Once it has counted ten times as
+     * many requests as the cache holds, every counter is halved, so keys that
+     * stop being asked for are forgotten.
+     */
+    private static class FrequencySketch {
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+        // 16 counters of 4 bits in each long
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions = 0;
+
+        FrequencySketch(int maxEntries) {
+            int counters = Integer.highestOneBit(Math.max(16, Math.min(1 << 28, maxEntries) * 4 - 1)) << 1;
+            table = new long[counters / 16];
+            mask = counters - 1;
+            sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * maxEntries);
+        }
+
+        /** Returns the estimated number of times hash was counted, at most 15. */
+        int frequency(int hash) {
+            int frequency = 15;
+            for (int seed : SEEDS) {
+                frequency = Math.min(frequency, counter(index(hash, seed)));
+            }
+            return frequency;
+        }
+
+        /** Counts hash once more, halving every counter once the sample is full. */
+        void increment(int hash) {
+            for (int seed : SEEDS) {
+                int index = index(hash, seed);
+                if (counter(index) < 15) {
+                    table[index >>> 4] += 1L << ((index & 15) << 2);
+                }
+            }
+            if (++additions == sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    // shift each 4-bit counter right by one, dropping the bit it shifts in
+                    table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+                }
+                additions /= 2;
+            }
+        }
+
+        private int counter(int index) {
+            return (int) (table[index >>> 4] >>> ((index & 15) << 2)) & 15;
+        }
+
+        private int index(int hash, int seed) {
+            int h = hash * seed;
+            return (h ^ (h >>> 15)) & mask;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package hashmap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns keys or values into bytes and back, for MyHashMapSnapshot files.
+ * <p>
+ * A key codec must encode equal keys to equal bytes, since a snapshot
+ * compares keys by their encoding.
+ *
+ * @author Xiaocheng Sun
+ */
+public interface Codec<T> {
+
+    /** Returns the bytes that stand for item. */
+    byte[] encode(T item);
+
+    /** Returns the item that encode() turned into bytes. */
+    T decode(byte[] bytes);
+
+    /** Strings as UTF-8. */
+    Codec<String> STRING = new Codec<>() {
+        public byte[] encode(String item) {
+            return item.getBytes(StandardCharsets.UTF_8);
+        }
+
+        public String decode(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /** Integers as 4 big-endian bytes. */
+    Codec<Integer> INTEGER = new Codec<>() {
+        public byte[] encode(Integer item) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(item).array();
+        }
+
+        public Integer decode(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getInt();
+        }
+    };
+
+    /** Longs as 8 big-endian bytes. */
+    Codec<Long> LONG = new Codec<>() {
+        public byte[] encode(Long item) {
+            return ByteBuffer.allocate(Long.BYTES).putLong(item).array();
+        }
+
+        public Long decode(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getLong();
+        }
+    };
+}
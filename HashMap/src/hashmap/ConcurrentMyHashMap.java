@@ -0,0 +1,337 @@
+package hashmap;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe hash table-backed Map implementation using lock striping.
+ * <p>
+ * The map is split into segments, each of which is a small chained hash table
+ * guarded by its own lock, so writers to different segments never wait for one
+ * another. Reads take no lock at all: bucket heads are published through an
+ * AtomicReferenceArray and node links and values are volatile, so a reader
+ * always sees a consistent chain. Each segment resizes on its own while holding
+ * only its lock, by copying its chains into a new table and publishing it, so
+ * readers keep using the old table until the new one is complete.
+ * <p>
+ * size() sums the segment counts without locking, and iteration and keySet()
+ * are weakly consistent: they reflect some of the updates made while they run.
+ * <p>
+ * Assumes null keys will never be inserted, and does not resize down upon remove().
+ *
+ * @author Xiaocheng Sun
+ */
+public class ConcurrentMyHashMap<K, V> implements Map61B<K, V> {
+
+    /**
+     * A key/value pair in a bucket chain. The key and hash never change, so
+     * only the value and the link need to be volatile.
+     */
+    private static final class Node<K, V> {
+        final K key;
+        final int hash;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(K key, int hash, V value, Node<K, V> next) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * One lock stripe: a chained hash table over a share of the hash space.
+     * Extending ReentrantLock saves an object per segment.
+     */
+    @SuppressWarnings("serial")
+    private static final class Segment<K, V> extends ReentrantLock {
+        volatile AtomicReferenceArray<Node<K, V>> table;
+        volatile int count = 0;
+        private final double maxLoadFactor;
+
+        Segment(int capacity, double maxLoadFactor) {
+            this.table = new AtomicReferenceArray<>(capacity);
+            this.maxLoadFactor = maxLoadFactor;
+        }
+
+        /** Returns the node for key without locking, or null if it is absent. */
+        Node<K, V> getNode(K key, int hash) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            Node<K, V> node = tab.get(hash & (tab.length() - 1));
+            while (node != null) {
+                if (node.hash == hash && node.key.equals(key)) {
+                    return node;
+                }
+                node = node.next;
+            }
+            return null;
+        }
+
+        void put(K key, int hash, V value) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int index = hash & (tab.length() - 1);
+                Node<K, V> last = null;
+                for (Node<K, V> node = tab.get(index); node != null; node = node.next) {
+                    if (node.hash == hash && node.key.equals(key)) {
+                        node.value = value;
+                        return;
+                    }
+                    last = node;
+                }
+                // the new node is fully built before it is published at the tail,
+                // so chains keep insertion order like MyHashMap's buckets
+                Node<K, V> node = new Node<>(key, hash, value, null);
+                if (last == null) {
+                    tab.set(index, node);
+                } else {
+                    last.next = node;
+                }
+                count += 1;
+                if (1.0 * count / tab.length() > maxLoadFactor) {
+                    resize(tab.length() * 2);
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        V remove(K key, int hash) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int index = hash & (tab.length() - 1);
+                Node<K, V> prev = null;
+                Node<K, V> node = tab.get(index);
+                while (node != null) {
+                    if (node.hash == hash && node.key.equals(key)) {
+                        // readers already on the removed node still follow its next link
+                        if (prev == null) {
+                            tab.set(index, node.next);
+                        } else {
+                            prev.next = node.next;
+                        }
+                        count -= 1;
+                        return node.value;
+                    }
+                    prev = node;
+                    node = node.next;
+                }
+                return null;
+            } finally {
+                unlock();
+            }
+        }
+
+        void clear() {
+            lock();
+            try {
+                table = new AtomicReferenceArray<>(table.length());
+                count = 0;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Copies every chain into a new table and then publishes it. Nodes are
+         * copied rather than relinked, so readers still walking the old table
+         * never follow a link into the wrong chain. Called with the lock held.
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private void resize(int capacity) {
+            AtomicReferenceArray<Node<K, V>> oldTable = table;
+            AtomicReferenceArray<Node<K, V>> newTable = new AtomicReferenceArray<>(capacity);
+            // tails of the new chains, so copies are appended in their old order
+            Node<K, V>[] tails = new Node[capacity];
+            for (int i = 0; i < oldTable.length(); i++) {
+                for (Node<K, V> node = oldTable.get(i); node != null; node = node.next) {
+                    int index = node.hash & (capacity - 1);
+                    Node<K, V> copy = new Node<>(node.key, node.hash, node.value, null);
+                    if (tails[index] == null) {
+                        newTable.set(index, copy);
+                    } else {
+                        tails[index].next = copy;
+                    }
+                    tails[index] = copy;
+                }
+            }
+            table = newTable;
+        }
+    }
+
+    /* Instance Variables */
+    private final Segment<K, V>[] segments;
+    // the top segmentBits bits of a hash pick the segment, the low bits pick the bucket
+    private final int segmentShift;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.75;
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /**
+     * Constructors
+     */
+    public ConcurrentMyHashMap() {
+        this(INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public ConcurrentMyHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * ConcurrentMyHashMap constructor that splits a backing table of about
+     * initialCapacity buckets into concurrencyLevel segments, each with its
+     * own lock. Both numbers are rounded up to powers of two.
+     *
+     * @param initialCapacity  initial number of buckets across all segments
+     * @param loadFactor       maximum load factor of each segment
+     * @param concurrencyLevel expected number of concurrently writing threads
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentMyHashMap(int initialCapacity, double loadFactor, int concurrencyLevel) {
+        if (loadFactor <= 0) {
+            throw new IllegalArgumentException("Load factor must be positive: " + loadFactor);
+        }
+        int segmentCount = tableSizeFor(concurrencyLevel);
+        int segmentCapacity = tableSizeFor((initialCapacity + segmentCount - 1) / segmentCount);
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity, loadFactor);
+        }
+        segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    /**
+     * Returns the smallest power of two that is >= capacity (and at least 2).
+     */
+    private static int tableSizeFor(int capacity) {
+        int n = 2;
+        while (n < capacity) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    /**
+     * Scrambles the hash code so that both the top bits (segment) and the low
+     * bits (bucket) depend on every bit of it.
+     */
+    private static int spread(int hashCode) {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private Segment<K, V> segmentFor(int hash) {
+        return segments[hash >>> segmentShift];
+    }
+
+    @Override
+    public void put(K key, V value) {
+        int hash = spread(key.hashCode());
+        segmentFor(hash).put(key, hash, value);
+    }
+
+    @Override
+    public V get(K key) {
+        int hash = spread(key.hashCode());
+        Node<K, V> node = segmentFor(hash).getNode(key, hash);
+        if (node == null) {
+            return null;
+        }
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        int hash = spread(key.hashCode());
+        return segmentFor(hash).getNode(key, hash) != null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        HashSet<K> set = new HashSet<>();
+        for (K key : this) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    @Override
+    public V remove(K key) {
+        int hash = spread(key.hashCode());
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /**
+     * Weakly consistent key iterator. Walks each segment's table as it was
+     * when the iterator reached that segment, following the volatile links.
+     */
+    private class KeyIterator implements Iterator<K> {
+        private int segmentIndex = 0;
+        private AtomicReferenceArray<Node<K, V>> table;
+        private int bucketIndex = 0;
+        private Node<K, V> nextNode;
+
+        KeyIterator() {
+            advance();
+        }
+
+        /** Moves nextNode to the next node, or to null when every segment is done. */
+        private void advance() {
+            if (nextNode != null) {
+                nextNode = nextNode.next;
+            }
+            while (nextNode == null) {
+                if (table == null || bucketIndex == table.length()) {
+                    if (segmentIndex == segments.length) {
+                        return;
+                    }
+                    table = segments[segmentIndex++].table;
+                    bucketIndex = 0;
+                    continue;
+                }
+                nextNode = table.get(bucketIndex++);
+            }
+        }
+
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        public K next() {
+            if (nextNode == null) {
+                throw new NoSuchElementException();
+            }
+            K key = nextNode.key;
+            advance();
+            return key;
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package hashmap;
+
+import java.util.Arrays;
+
+/**
+ * A snapshot of the shape and counters of a MyHashMap, taken by
+ * MyHashMap.stats(). The bucket figures describe the table at that moment;
+ * the counters cover the time since enableStats() and stay 0 while
+ * statistics are off.
+ * <p>
+ * With a good hashCode() the longest bucket stays short and a successful
+ * lookup compares about 1 + loadFactor / 2 keys. A long histogram tail, tree
+ * buckets or many more probes per get point at a hashCode() that clusters.
+ *
+ * @author Xiaocheng Sun
+ */
+public final class HashMapStats implements HashMapStatsMXBean {
+
+    private final int size;
+    private final int capacity;
+    private final long[] bucketLengthHistogram;
+    private final int maxBucketLength;
+    private final int treeBuckets;
+    private final long gets;
+    private final long probes;
+    private final long resizes;
+    private final long resizeNanos;
+
+    HashMapStats(int size, int capacity, long[] bucketLengthHistogram, int maxBucketLength,
+                 int treeBuckets, long gets, long probes, long resizes, long resizeNanos) {
+        this.size = size;
+        this.capacity = capacity;
+        this.bucketLengthHistogram = bucketLengthHistogram;
+        this.maxBucketLength = maxBucketLength;
+        this.treeBuckets = treeBuckets;
+        this.gets = gets;
+        this.probes = probes;
+        this.resizes = resizes;
+        this.resizeNanos = resizeNanos;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public double getLoadFactor() {
+        return (double) size / capacity;
+    }
+
+    @Override
+    public long[] getBucketLengthHistogram() {
+        return bucketLengthHistogram.clone();
+    }
+
+    @Override
+    public int getMaxBucketLength() {
+        return maxBucketLength;
+    }
+
+    @Override
+    public int getTreeBuckets() {
+        return treeBuckets;
+    }
+
+    @Override
+    public long getGetCount() {
+        return gets;
+    }
+
+    @Override
+    public long getProbeCount() {
+        return probes;
+    }
+
+    @Override
+    public double getAverageProbesPerGet() {
+        return gets == 0 ? 0 : (double) probes / gets;
+    }
+
+    @Override
+    public long getResizeCount() {
+        return resizes;
+    }
+
+    @Override
+    public long getResizeNanos() {
+        return resizeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d capacity=%d loadFactor=%.2f maxBucketLength=%d treeBuckets=%d"
+                        + " histogram=%s gets=%d probesPerGet=%.2f resizes=%d resizeMs=%.2f",
+                size, capacity, getLoadFactor(), maxBucketLength, treeBuckets,
+                Arrays.toString(bucketLengthHistogram), gets, getAverageProbesPerGet(), resizes,
+                resizeNanos / 1e6);
+    }
+}
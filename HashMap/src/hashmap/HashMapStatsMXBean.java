@@ -0,0 +1,47 @@
+package hashmap;
+
+/**
+ * The statistics of a MyHashMap, as read through JMX. Register the live view
+ * from MyHashMap.statsMXBean() with the platform MBeanServer to watch a map in
+ * JConsole or any other JMX client.
+ *
+ * @author Xiaocheng Sun
+ */
+public interface HashMapStatsMXBean {
+
+    /** Returns the number of keys in the map. */
+    int getSize();
+
+    /** Returns the number of buckets in the table. */
+    int getCapacity();
+
+    /** Returns the number of keys per bucket. */
+    double getLoadFactor();
+
+    /**
+     * Returns how many buckets hold each number of keys: element i counts the
+     * buckets of i keys, and the last element those of at least that many.
+     */
+    long[] getBucketLengthHistogram();
+
+    /** Returns the number of keys in the longest bucket. */
+    int getMaxBucketLength();
+
+    /** Returns the number of buckets that were turned into trees. */
+    int getTreeBuckets();
+
+    /** Returns the number of get() and containsKey() calls counted. */
+    long getGetCount();
+
+    /** Returns the number of keys compared by the counted lookups. */
+    long getProbeCount();
+
+    /** Returns the number of keys compared per counted lookup. */
+    double getAverageProbesPerGet();
+
+    /** Returns the number of times the table was resized. */
+    long getResizeCount();
+
+    /** Returns the time spent moving keys into resized tables, in nanoseconds. */
+    long getResizeNanos();
+}
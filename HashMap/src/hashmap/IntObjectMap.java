@@ -0,0 +1,300 @@
+package hashmap;
+
+import java.util.*;
+
+/**
+ * A hash map from primitive int keys to object values.
+ * <p>
+ * Supports the same operations as Map61B, but takes and returns the keys as
+ * ints, so no Integer is ever allocated on put, get, containsKey or remove.
+ * Entries are stored with linear probing in parallel int[]/V[] arrays, the same
+ * layout as OpenAddressingMap. Since every int is a valid key, key 0 marks an
+ * empty slot and the entry for key 0 (if any) is stored outside the table.
+ * <p>
+ * Use asMap61B() to pass this map to code that expects a Map61B.
+ *
+ * @author Xiaocheng Sun
+ */
+public class IntObjectMap<V> {
+
+    /* Instance Variables */
+    private static final int FREE_KEY = 0;
+    private int[] keys;
+    private V[] values;
+    private boolean hasZeroKey = false;
+    private V zeroValue;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.5;
+    private final double maxLoadFactor;
+    private int size = 0;
+    private final LinearProbing.Slots slots = new LinearProbing.Slots() {
+        public boolean isFree(int i) {
+            return keys[i] == FREE_KEY;
+        }
+
+        public int hash(int i) {
+            return IntObjectMap.hash(keys[i]);
+        }
+
+        public void move(int from, int to) {
+            keys[to] = keys[from];
+            values[to] = values[from];
+        }
+
+        public void free(int i) {
+            keys[i] = FREE_KEY;
+            values[i] = null;
+        }
+    };
+
+    /**
+     * Constructors
+     */
+    public IntObjectMap() {
+        this(INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntObjectMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * IntObjectMap constructor that creates backing arrays of at least
+     * initialCapacity slots, rounded up to a power of two.
+     *
+     * @param initialCapacity initial size of backing arrays
+     * @param loadFactor      maximum load factor, must be in (0, 1)
+     */
+    public IntObjectMap(int initialCapacity, double loadFactor) {
+        if (loadFactor <= 0 || loadFactor >= 1) {
+            throw new IllegalArgumentException("Load factor must be in (0, 1): " + loadFactor);
+        }
+        this.maxLoadFactor = loadFactor;
+        createTable(LinearProbing.tableSizeFor(initialCapacity));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void createTable(int capacity) {
+        keys = new int[capacity];
+        values = (V[]) new Object[capacity];
+    }
+
+    /**
+     * Scrambles the key so that sequential ids (the common case) do not fill
+     * one long run of adjacent slots.
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the slot holding the given non-zero key, or -1 if it is absent.
+     */
+    private int findSlot(int key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; keys[i] != FREE_KEY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Associates the specified value with the specified key in this map. */
+    public void put(int key, V value) {
+        if (key == FREE_KEY) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size += 1;
+            }
+            zeroValue = value;
+            return;
+        }
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (keys[i] != FREE_KEY) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size += 1;
+        if (1.0 * size / keys.length > maxLoadFactor) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Resize the backing arrays and re-insert every entry.
+     *
+     * @param capacity of the new backing arrays, must be a power of two
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        V[] oldValues = values;
+        createTable(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == FREE_KEY) {
+                continue;
+            }
+            int i = LinearProbing.freeSlot(slots, hash(oldKeys[j]), mask);
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    /** Returns the value mapped to key, or null if there is no such mapping. */
+    public V get(int key) {
+        if (key == FREE_KEY) {
+            return zeroValue;
+        }
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        return values[slot];
+    }
+
+    /** Returns whether this map contains a mapping for the specified key. */
+    public boolean containsKey(int key) {
+        if (key == FREE_KEY) {
+            return hasZeroKey;
+        }
+        return findSlot(key) >= 0;
+    }
+
+    /** Returns the number of key-value mappings in this map. */
+    public int size() {
+        return size;
+    }
+
+    /** Removes every mapping from this map. */
+    public void clear() {
+        createTable(LinearProbing.tableSizeFor(INITIAL_CAPACITY));
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present,
+     * and returns its value, or null if there is no such mapping.
+     */
+    public V remove(int key) {
+        if (key == FREE_KEY) {
+            V value = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                size -= 1;
+            }
+            return value;
+        }
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        V value = values[slot];
+        LinearProbing.deleteSlot(slots, slot, keys.length - 1);
+        size -= 1;
+        return value;
+    }
+
+    /** Returns an iterator over the keys of this map that never boxes them. */
+    public PrimitiveIterator.OfInt keyIterator() {
+        return new KeyIterator();
+    }
+
+    /**
+     * Returns a Map61B view of this map. Keys are boxed on the way in and out
+     * of the view, so use it only where a Map61B is required.
+     */
+    public Map61B<Integer, V> asMap61B() {
+        return new Map61BView();
+    }
+
+    /**
+     * Key iterator class that returns the zero key first, if present, and then
+     * walks the key array skipping empty slots.
+     */
+    private class KeyIterator implements PrimitiveIterator.OfInt {
+        private int index = 0;
+        private int returned = 0;
+        private boolean zeroKeyPending = hasZeroKey;
+
+        public boolean hasNext() {
+            return returned < size;
+        }
+
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            returned++;
+            if (zeroKeyPending) {
+                zeroKeyPending = false;
+                return FREE_KEY;
+            }
+            while (keys[index] == FREE_KEY) {
+                index++;
+            }
+            return keys[index++];
+        }
+    }
+
+    /**
+     * Adapter that exposes this map through the Map61B interface.
+     */
+    private class Map61BView implements Map61B<Integer, V> {
+
+        @Override
+        public void put(Integer key, V value) {
+            IntObjectMap.this.put(key, value);
+        }
+
+        @Override
+        public V get(Integer key) {
+            return IntObjectMap.this.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Integer key) {
+            return IntObjectMap.this.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            IntObjectMap.this.clear();
+        }
+
+        @Override
+        public Set<Integer> keySet() {
+            HashSet<Integer> set = new HashSet<>();
+            for (Integer key : this) {
+                set.add(key);
+            }
+            return set;
+        }
+
+        @Override
+        public V remove(Integer key) {
+            return IntObjectMap.this.remove(key);
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return keyIterator();
+        }
+    }
+
+}
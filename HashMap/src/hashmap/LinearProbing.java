@@ -0,0 +1,80 @@
+package hashmap;
+
+/**
+ * The index arithmetic shared by the linear-probing maps: OpenAddressingMap,
+ * IntObjectMap, ObjectIntMap and OffHeapStringMap. Their tables all have a
+ * power-of-two number of slots and delete with backward shifts, and differ
+ * only in the arrays behind the slots, which each map exposes as a Slots.
+ *
+ * @author Xiaocheng Sun
+ */
+final class LinearProbing {
+
+    private LinearProbing() {
+    }
+
+    /**
+     * The slots of one table, as the probing code sees them. Moving and
+     * freeing a slot is left to the map, which knows its typed arrays.
+     */
+    interface Slots {
+        /** Returns whether slot i holds no entry. */
+        boolean isFree(int i);
+
+        /** Returns the hash whose low bits picked the home slot of the entry in slot i. */
+        int hash(int i);
+
+        /** Copies the entry in slot from into slot to. */
+        void move(int from, int to);
+
+        /** Empties slot i. */
+        void free(int i);
+    }
+
+    /**
+     * Returns the smallest power of two that is >= capacity (and at least 2).
+     */
+    static int tableSizeFor(int capacity) {
+        int n = 2;
+        while (n < capacity) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    /**
+     * Returns the first free slot on the probe path of hash, for a resize to
+     * move an entry into.
+     *
+     * @param mask number of slots - 1
+     */
+    static int freeSlot(Slots slots, int hash, int mask) {
+        int i = hash & mask;
+        while (!slots.isFree(i)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Empties the given slot using backward-shift deletion: every later entry of
+     * the same cluster that would become unreachable is moved back into the hole.
+     *
+     * @param hole index of the slot to empty
+     * @param mask number of slots - 1
+     */
+    static void deleteSlot(Slots slots, int hole, int mask) {
+        int i = (hole + 1) & mask;
+        while (!slots.isFree(i)) {
+            int home = slots.hash(i) & mask;
+            // distance from the home slot to i, and from the home slot to the hole
+            // if the hole lies on the probe path of entry i, shift the entry back
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                slots.move(i, hole);
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+        slots.free(hole);
+    }
+}
@@ -1,11 +1,28 @@
 package hashmap;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
 
 /**
  * A hash table-backed Map implementation.
  * <p>
- * Assumes null keys will never be inserted, and does not resize down upon remove().
+ * A bucket that collects TREEIFY_THRESHOLD or more keys of one Comparable class
+ * is turned into a red-black tree bucket, so that even keys with a badly
+ * clustered hashCode() are found in O(log n). Such keys are assumed to have a
+ * compareTo() that is consistent with equals().
+ * <p>
+ * By default the table never resizes down upon remove(); see
+ * setShrinkLoadFactor() and trimToSize() for giving memory back.
+ * <p>
+ * Assumes null keys will never be inserted.
  *
  * @author Xiaocheng Sun
  */
@@ -14,14 +31,51 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
     /**
      * Protected helper class to store key/value pairs
      * The protected qualifier allows subclass access
+     * Nodes are handed out as the entries of entries().
      */
-    protected class Node {
+    protected class Node implements Map.Entry<K, V> {
         K key;
         V value;
+        // key.hashCode(), cached so resizing never calls hashCode() again
+        final int hash;
 
         Node(K k, V v) {
+            this(k, v, k.hashCode());
+        }
+
+        protected Node(K k, V v, int hash) {
             key = k;
             value = v;
+            this.hash = hash;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V v) {
+            V old = value;
+            value = v;
+            return old;
+        }
+
+        /** Compares by key and value, as Map.Entry requires. */
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Map.Entry<?, ?> e
+                    && Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
         }
     }
 
@@ -29,10 +83,43 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
     private Collection<Node>[] buckets;
     // it is an array of collection objects
     // where each bucket is an array of Collection<Node> objects
+    // incremental resize: the smaller table still being drained into buckets,
+    // or null when no resize is in progress. Old buckets below
+    // migratedBuckets have already been moved.
+    private Collection<Node>[] oldBuckets;
+    private int migratedBuckets = 0;
+    // number of old buckets moved per put/remove, 0 means resize all at once
+    private int bucketsPerStep = 0;
+    // buckets moved per step in the resize in progress: at least bucketsPerStep,
+    // and enough to finish before the next resize can start
+    private int stepBuckets = 0;
+    // power-of-two mode: capacities are powers of two and indexes are masked spread hashes
+    private boolean powerOfTwo = false;
     private static final int INITIAL_CAPACITY = 16;
     private static final double DEFAULT_LOAD_FACTOR = 0.75;
+    // a bucket this large becomes a TreeBucket, and a TreeBucket this small turns back
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
+    // parallel bulk operations stop splitting below this many buckets (or pairs) per task
+    private static final int PARALLEL_THRESHOLD = 1 << 12;
     private final double maxLoadFactor;
+    // remove() halves the table when the load factor drops below this, 0 means never
+    private double minLoadFactor = 0;
+    // shrinking never goes below the capacity the map was created with
+    private final int minCapacity;
     private int size = 0;
+    // counters of enableStats(), null while statistics are off so the hot paths only test for null
+    private StatsCounters stats = null;
+
+    /**
+     * The running counters behind stats(), kept only while statistics are on.
+     */
+    private static class StatsCounters {
+        long gets;
+        long probes;
+        long resizes;
+        long resizeNanos;
+    }
 
     /**
      * Constructors
@@ -55,6 +142,268 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
     public MyHashMap(int initialCapacity, double loadFactor) {
         buckets = createTable(initialCapacity);
         this.maxLoadFactor = loadFactor;
+        this.minCapacity = initialCapacity;
+    }
+
+    /**
+     * Switches this map to incremental resizing. Instead of rehashing every node
+     * in the put that crosses the load factor, the old and new tables are both
+     * kept alive and each later put() or remove() moves at least bucketsPerStep
+     * old buckets into the new table, so no single put pays for a full rehash.
+     * Each step moves more when needed to finish before the fewest puts or
+     * removes that could start the next resize, so that resize never has to
+     * move the rest of the old table at once.
+     * get() and containsKey() never move buckets, so it is safe to look up keys
+     * while iterating.
+     *
+     * @param bucketsPerStep least number of old buckets to move per put or remove, at least 1
+     */
+    public void useIncrementalResize(int bucketsPerStep) {
+        if (bucketsPerStep < 1) {
+            throw new IllegalArgumentException("bucketsPerStep must be positive: " + bucketsPerStep);
+        }
+        this.bucketsPerStep = bucketsPerStep;
+    }
+
+    /**
+     * Switches this map to power-of-two tables. The capacity is rounded up to a
+     * power of two, hash codes are mixed so that their high bits reach the low
+     * ones, and the bucket index is taken with a bitmask instead of floorMod.
+     * Doubling the table then splits every bucket into a low half that stays at
+     * the same index and a high half that moves up by the old capacity, without
+     * calling hashCode() or rehashing from scratch.
+     */
+    public void usePowerOfTwoTable() {
+        if (powerOfTwo) {
+            return;
+        }
+        if (oldBuckets != null) {
+            migrateBuckets(oldBuckets.length);
+        }
+        powerOfTwo = true;
+        int capacity = tableSizeFor(buckets.length);
+        // the keys already in the table sit at their floorMod index, even when
+        // the capacity is a power of two already
+        if (capacity != buckets.length || size > 0) {
+            resize(capacity);
+        }
+    }
+
+    /**
+     * Makes remove() halve the table whenever the load factor drops below
+     * minLoadFactor, down to the initial capacity, so a map that grew large
+     * and then drained does not keep a huge sparse table for iteration to walk.
+     * minLoadFactor must stay below half of the maximum load factor, or the
+     * halved table could immediately need to grow again. 0 turns shrinking off.
+     *
+     * @param minLoadFactor the low-water mark, from 0 to below loadFactor / 2
+     */
+    public void setShrinkLoadFactor(double minLoadFactor) {
+        if (minLoadFactor < 0 || minLoadFactor >= maxLoadFactor / 2) {
+            throw new IllegalArgumentException("minLoadFactor must be in [0, "
+                    + maxLoadFactor / 2 + "): " + minLoadFactor);
+        }
+        this.minLoadFactor = minLoadFactor;
+    }
+
+    /**
+     * Resizes the table to the smallest capacity that holds the current items
+     * within the maximum load factor, rounded up to a power of two in
+     * power-of-two mode. Unlike shrinking on remove(), this may go below the
+     * initial capacity.
+     */
+    public void trimToSize() {
+        if (oldBuckets != null) {
+            migrateBuckets(oldBuckets.length);
+        }
+        int capacity = capacityFor(size);
+        if (capacity != buckets.length) {
+            resize(capacity);
+        }
+    }
+
+    /**
+     * Grows the table, all at once, so that it holds expectedSize items
+     * within the maximum load factor. Never shrinks the table.
+     *
+     * @param expectedSize number of items the map is about to hold
+     */
+    public void ensureCapacity(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if (capacity > buckets.length) {
+            if (oldBuckets != null) {
+                migrateBuckets(oldBuckets.length);
+            }
+            resize(capacity);
+        }
+    }
+
+    /**
+     * Starts counting lookups, the keys they compare, and resizes with the time
+     * they take, for stats() to report. Counting costs a second walk of the
+     * bucket on every get(), so it is off by default; when off, the only cost
+     * is a null check. Calling this again resets the counters.
+     */
+    public void enableStats() {
+        stats = new StatsCounters();
+    }
+
+    /**
+     * Stops counting and drops the counters; stats() then reports only the
+     * shape of the table.
+     */
+    public void disableStats() {
+        stats = null;
+    }
+
+    /**
+     * Returns a snapshot of the bucket length distribution of the table, and
+     * of the counters if enableStats() was called. Walks every bucket, so it
+     * is meant for diagnosis rather than for every operation.
+     */
+    public HashMapStats stats() {
+        long[] histogram = new long[TREEIFY_THRESHOLD + 1];
+        int maxLength = 0;
+        int trees = 0;
+        // while a resize is in progress the buckets not yet moved out of the old table count too
+        int capacity = capacity();
+        for (int i = 0; i < capacity; i++) {
+            Collection<Node> bucket = i < buckets.length
+                    ? buckets[i] : oldBuckets[migratedBuckets + i - buckets.length];
+            int length = bucket == null ? 0 : bucket.size();
+            histogram[Math.min(length, TREEIFY_THRESHOLD)]++;
+            maxLength = Math.max(maxLength, length);
+            if (bucket instanceof TreeBucket) {
+                trees++;
+            }
+        }
+        StatsCounters counters = stats == null ? new StatsCounters() : stats;
+        return new HashMapStats(size, capacity, histogram, maxLength, trees, counters.gets,
+                counters.probes, counters.resizes, counters.resizeNanos);
+    }
+
+    /**
+     * Returns a live view of stats() to register with an MBeanServer. The
+     * size, capacity and counters are read straight from the map. The bucket
+     * lengths take a walk of the whole table, so the getters for them share
+     * one snapshot for SNAPSHOT_NANOS, which covers a JMX client reading all
+     * of them in one poll. A resize, or a step of an incremental one, makes
+     * the snapshot stale at once, so its buckets always add up to the
+     * capacity. Like the map itself it is not thread-safe, so a
+     * JMX client may see a table in the middle of a change.
+     */
+    public HashMapStatsMXBean statsMXBean() {
+        return new HashMapStatsMXBean() {
+            private static final long SNAPSHOT_NANOS = 1_000_000_000L;
+            private HashMapStats snapshot;
+            private long snapshotTime;
+            private long snapshotResizes;
+
+            /**
+             * Returns the snapshot of the bucket lengths, taking a new one if it
+             * is too old or the table was resized since.
+             */
+            private HashMapStats bucketStats() {
+                long now = System.nanoTime();
+                long resizes = counters().resizes;
+                if (snapshot == null || now - snapshotTime > SNAPSHOT_NANOS
+                        || snapshot.getCapacity() != capacity() || snapshotResizes != resizes) {
+                    snapshot = stats();
+                    snapshotTime = now;
+                    snapshotResizes = resizes;
+                }
+                return snapshot;
+            }
+
+            /** Returns the running counters, or zeros while statistics are off. */
+            private StatsCounters counters() {
+                StatsCounters counters = stats;
+                return counters == null ? new StatsCounters() : counters;
+            }
+
+            public int getSize() {
+                return size;
+            }
+
+            public int getCapacity() {
+                return capacity();
+            }
+
+            public double getLoadFactor() {
+                return (double) size / capacity();
+            }
+
+            public long[] getBucketLengthHistogram() {
+                return bucketStats().getBucketLengthHistogram();
+            }
+
+            public int getMaxBucketLength() {
+                return bucketStats().getMaxBucketLength();
+            }
+
+            public int getTreeBuckets() {
+                return bucketStats().getTreeBuckets();
+            }
+
+            public long getGetCount() {
+                return counters().gets;
+            }
+
+            public long getProbeCount() {
+                return counters().probes;
+            }
+
+            public double getAverageProbesPerGet() {
+                StatsCounters counters = counters();
+                return counters.gets == 0 ? 0 : (double) counters.probes / counters.gets;
+            }
+
+            public long getResizeCount() {
+                return counters().resizes;
+            }
+
+            public long getResizeNanos() {
+                return counters().resizeNanos;
+            }
+        };
+    }
+
+    /**
+     * Returns the number of buckets, counting the buckets of the old table not
+     * yet moved while a resize is in progress.
+     */
+    private int capacity() {
+        return buckets.length + (oldBuckets == null ? 0 : oldBuckets.length - migratedBuckets);
+    }
+
+    /**
+     * Returns the smallest capacity that holds items within the maximum load
+     * factor, rounded up to a power of two in power-of-two mode.
+     */
+    private int capacityFor(int items) {
+        int capacity = Math.max(1, (int) Math.ceil(items / maxLoadFactor));
+        return powerOfTwo ? tableSizeFor(capacity) : capacity;
+    }
+
+    /**
+     * Returns the smallest power of two that is >= capacity (and at least 1).
+     */
+    private static int tableSizeFor(int capacity) {
+        int n = 1;
+        while (n < capacity) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    /**
+     * Scrambles a hash code so that the low bits used by the mask depend on
+     * every bit of it, which keeps keys like multiples of 16 from piling up in
+     * one bucket.
+     */
+    private static int spread(int hashCode) {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
     }
 
     /**
@@ -79,42 +428,213 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         return new LinkedList<>(); //use linked list for hash table bucket
     }
 
+    /**
+     * Returns a new node holding the pair. Override this method, together with
+     * the afterNode hooks below, to keep extra state in the nodes of a
+     * subclass, such as the links of an access-order list.
+     *
+     * @param key   of the new node
+     * @param value of the new node
+     * @param hash  key.hashCode(), cached in the node
+     */
+    protected Node createNode(K key, V value, int hash) {
+        return new Node(key, value, hash);
+    }
+
+    /**
+     * Called by get() after it found node. Does nothing by default.
+     */
+    protected void afterNodeAccess(Node node) {
+    }
+
+    /**
+     * Called by put() after it replaced the value of node. Does nothing by default.
+     */
+    protected void afterNodeUpdate(Node node) {
+    }
+
+    /**
+     * Called by put() once node is in the table and counted in size(), so the
+     * map may be changed again, e.g. to evict another node. Does nothing by
+     * default. parallelPutAll() inserts without calling any of the hooks.
+     */
+    protected void afterNodeInsertion(Node node) {
+    }
+
+    /**
+     * Called by remove() after node left the table. Does nothing by default.
+     */
+    protected void afterNodeRemoval(Node node) {
+    }
+
     /**
      * Creates an array of Collection buckets where each of the bucket is
-     * represented by a Collection of nodes.
+     * represented by a Collection of nodes. The buckets are created lazily:
+     * a slot stays null until the first node is added to it, so a large or
+     * freshly doubled table costs one array and no empty buckets.
      *
      * @param bucketSize
      */
     private Collection<Node>[] createTable(int bucketSize) {
-        Collection<Node>[] table = new Collection[bucketSize];
-        for (int i = 0; i < bucketSize; i++) {
-            table[i] = createBucket();
+        return new Collection[bucketSize];
+    }
+
+    /**
+     * Get the table whose bucket holds the key, or should hold it.
+     * While an incremental resize is in progress this is the old table if the
+     * key's old bucket has not been moved yet, and the new table otherwise.
+     *
+     * @param hash of the key that needs to find where the bucket location is
+     * @return the table that holds the key's bucket
+     */
+    private Collection<Node>[] getTable(int hash) {
+        if (oldBuckets != null && getBucketIndex(hash, oldBuckets) >= migratedBuckets) {
+            return oldBuckets;
         }
-        return table;
+        return buckets;
     }
 
     /**
-     * Get the bucket index of the key
+     * Get the bucket where the key is located, or should be inserted.
      *
-     * @param key that needs to find where the bucket location is
-     * @return the bucket index where the key is located
+     * @param hash of the key that needs to find where the bucket location is
+     * @return the bucket that holds the key
      */
-    private int getBucketSpot(K key) {
-        return getBucketIndex(key, buckets);
+    private Collection<Node> getBucket(int hash) {
+        Collection<Node>[] table = getTable(hash);
+        return table[getBucketIndex(hash, table)];
     }
 
     /**
-     * Helper function for getIndex, calculate the bucket index of a given key.
-     * Use floorMod to make sure the resulting index is within the range.
+     * Adds the node to the bucket at index of the given table, turning the
+     * bucket into a TreeBucket once it reaches TREEIFY_THRESHOLD nodes, or back
+     * into a plain bucket if the tree cannot order the new key. A plain bucket
+     * past the threshold is only treeified again when its size reaches a power
+     * of two.
      *
-     * @param key     to find the bucket spot
+     * @param table that holds the bucket
+     * @param index of the bucket in table
+     * @param node  to add, whose key must not be in the bucket yet
+     */
+    private void addToBucket(Collection<Node>[] table, int index, Node node) {
+        Collection<Node> bucket = table[index];
+        if (bucket == null) {
+            bucket = createBucket();
+            table[index] = bucket;
+        } else if (bucket instanceof TreeBucket tree) {
+            if (tree.add(node)) {
+                return;
+            }
+            bucket = untreeify(tree);
+            table[index] = bucket;
+        }
+        bucket.add(node);
+        int size = bucket.size();
+        // A bucket that could not be treeified is only tried again each time it doubles,
+        // so keys that cannot be ordered do not cost a whole treeify() per add.
+        if (size >= TREEIFY_THRESHOLD && (size & (size - 1)) == 0) { // TREEIFY_THRESHOLD is a power of two
+            TreeBucket tree = treeify(bucket);
+            if (tree != null) {
+                table[index] = tree;
+            }
+        }
+    }
+
+    /**
+     * Removes the node from the bucket at index of the given table, turning a
+     * TreeBucket that shrinks below UNTREEIFY_THRESHOLD back into a plain bucket.
+     *
+     * @param table that holds the bucket
+     * @param index of the bucket in table
+     * @param node  to remove, which must be in the bucket
+     */
+    private void removeFromBucket(Collection<Node>[] table, int index, Node node) {
+        Collection<Node> bucket = table[index];
+        if (bucket instanceof TreeBucket tree) {
+            tree.remove(node);
+            if (tree.size() < UNTREEIFY_THRESHOLD) {
+                table[index] = untreeify(tree);
+            }
+            return;
+        }
+        // Not bucket.remove(node): a node's hashCode() changes with its value,
+        // so a hashed bucket such as a HashSet may no longer find it.
+        for (Iterator<Node> iter = bucket.iterator(); iter.hasNext(); ) {
+            if (iter.next() == node) {
+                iter.remove();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns a TreeBucket holding the nodes of bucket, or null if their keys
+     * are not all of one class that is Comparable to itself.
+     */
+    private TreeBucket treeify(Collection<Node> bucket) {
+        Class<?> keyClass = null;
+        for (Node node : bucket) {
+            Class<?> c = comparableClassFor(node.key);
+            if (c == null || (keyClass != null && c != keyClass)) {
+                return null;
+            }
+            keyClass = c;
+        }
+        TreeBucket tree = new TreeBucket(keyClass);
+        for (Node node : bucket) {
+            if (!tree.add(node)) {
+                return null; // two distinct keys compare as equal
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Returns a plain bucket from createBucket() holding the nodes of tree.
+     */
+    private Collection<Node> untreeify(TreeBucket tree) {
+        Collection<Node> bucket = createBucket();
+        for (Node node : tree) {
+            bucket.add(node);
+        }
+        return bucket;
+    }
+
+    /**
+     * Returns the class of key if it is declared as "C implements Comparable<C>",
+     * so that any two keys of that class can be compared, or null otherwise.
+     */
+    private static Class<?> comparableClassFor(Object key) {
+        if (!(key instanceof Comparable)) {
+            return null;
+        }
+        Class<?> c = key.getClass();
+        if (c == String.class) {
+            return c;
+        }
+        for (Type type : c.getGenericInterfaces()) {
+            if (type instanceof ParameterizedType p && p.getRawType() == Comparable.class
+                    && p.getActualTypeArguments()[0] == c) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Helper function for getIndex, calculate the bucket index of a given hash code.
+     * Use floorMod to make sure the resulting index is within the range, or
+     * a mask of the spread hash code in power-of-two mode.
+     *
+     * @param hash    hash code of the key to find the bucket spot
      * @param buckets an array of node collection
      * @return the array index of that bucket where the key should locate.
      */
-
-    private int getBucketIndex(K key, Collection<Node>[] buckets) {
-        int hashCode = key.hashCode();
-        return Math.floorMod(hashCode, buckets.length); //make sure mode always fall in range
+    private int getBucketIndex(int hash, Collection<Node>[] buckets) {
+        if (powerOfTwo) {
+            return spread(hash) & (buckets.length - 1);
+        }
+        return Math.floorMod(hash, buckets.length); //make sure mode always fall in range
     }
 
     /**
@@ -126,6 +646,31 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         return (1.0 * size / buckets.length) > maxLoadFactor;
     }
 
+    /**
+     * Check if the buckets fell below the low-water mark and can be halved
+     * without going under the initial capacity.
+     *
+     * @return true if the table should shrink; false otherwise.
+     */
+    private boolean reachMinLoadFactor() {
+        return (1.0 * size / buckets.length) < minLoadFactor
+                && buckets.length / 2 >= minCapacity;
+    }
+
+    /**
+     * Moves the items into a table of the given capacity, either all at once
+     * or step by step when incremental resizing is on.
+     *
+     * @param capacity of the new buckets table
+     */
+    private void changeCapacity(int capacity) {
+        if (bucketsPerStep > 0) {
+            startIncrementalResize(capacity);
+        } else {
+            resize(capacity);
+        }
+    }
+
     /**
      * Get the node from the bucket based on the given key value
      *
@@ -133,24 +678,57 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      * @return the Node of that specific key
      */
     private Node getNode(K key) {
-        //find out the bucket spot where the key is located.
-        int bucketIndex = getBucketSpot(key);
-        //search that bucket spot and return the node.
-        return getNodeFromBucket(key, bucketIndex);
+        //find out the bucket where the key is located, then search it.
+        int hash = key.hashCode();
+        Collection<Node> bucket = getBucket(hash);
+        if (stats != null) {
+            stats.gets++;
+            stats.probes += countProbes(key, hash, bucket);
+        }
+        return getNodeFromBucket(key, hash, bucket);
+    }
+
+    /**
+     * Returns the number of keys that looking key up in bucket compares, the
+     * same way getNodeFromBucket() walks it.
+     */
+    private int countProbes(K key, int hash, Collection<Node> bucket) {
+        if (bucket == null) {
+            return 0;
+        }
+        if (bucket instanceof TreeBucket tree) {
+            return tree.countProbes(key);
+        }
+        int probes = 0;
+        for (Node node : bucket) {
+            probes++;
+            if (node.hash == hash && node.key.equals(key)) {
+                break;
+            }
+        }
+        return probes;
     }
 
     /**
      * Helper function for getNode that finds the node from the specific bucket spot.
      * Use equals function to check if there is a key in that bucket spot.
      *
-     * @param key         that needs to search
-     * @param bucketIndex of the bucket spot that contains the key
+     * @param key    that needs to search
+     * @param hash   of the key, compared before the more expensive equals
+     * @param bucket that contains the key, or null if it was never created
      * @return the node of the given key
      */
-    private Node getNodeFromBucket(K key, int bucketIndex) {
+    private Node getNodeFromBucket(K key, int hash, Collection<Node> bucket) {
+        if (bucket == null) {
+            return null;
+        }
+        //tree buckets are searched by key order instead of one by one.
+        if (bucket instanceof TreeBucket tree) {
+            return tree.find(key);
+        }
         //check if the key is in the node, return the node if found.
-        for (Node node : buckets[bucketIndex]) {
-            if (node.key.equals(key)) {
+        for (Node node : bucket) {
+            if (node.hash == hash && node.key.equals(key)) {
                 return node;
             }
         }
@@ -160,42 +738,476 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
 
     @Override
     public void put(K key, V value) {
-        int bucketIndex = getBucketSpot(key);
-        Node node = getNode(key);
+        migrateStep();
+        int hash = key.hashCode();
+        Collection<Node>[] table = getTable(hash);
+        int bucketIndex = getBucketIndex(hash, table);
+        Node node = getNodeFromBucket(key, hash, table[bucketIndex]);
         // if the key already exist, replace the old value and finished.
         if (node != null) {
             node.value = value;
+            afterNodeUpdate(node);
             return;
         }
-        // if no key found, add the new key
-        node = new Node(key, value);
-        buckets[bucketIndex].add(node);
+        node = createNode(key, value, hash);
+        addToBucket(table, bucketIndex, node);
         size += 1;
         // check if collision reach the load factor
         if (reachMaxLoadFactor()) {
-            resize(buckets.length * 2);
+            changeCapacity(buckets.length * 2);
+        }
+        afterNodeInsertion(node);
+    }
+
+    /**
+     * Puts the pair into the bucket at index of table, without touching size
+     * or resizing.
+     *
+     * @return true if the key was added, false if an existing value was replaced
+     */
+    private boolean putInBucket(Collection<Node>[] table, int index, K key, V value, int hash) {
+        Node node = getNodeFromBucket(key, hash, table[index]);
+        // if the key already exist, replace the old value and finished.
+        if (node != null) {
+            node.value = value;
+            return false;
+        }
+        // if no key found, add the new key
+        addToBucket(table, index, createNode(key, value, hash));
+        return true;
+    }
+
+    /**
+     * Puts every pair of other into this map, growing the table once up front
+     * instead of doubling it along the way.
+     *
+     * @param other map whose pairs are copied
+     */
+    public void putAll(Map61B<? extends K, ? extends V> other) {
+        ensureCapacity(size + other.size());
+        putEach(other);
+    }
+
+    // captures other's key type, so its keys can be passed back to other.get()
+    private <K2 extends K, V2 extends V> void putEach(Map61B<K2, V2> other) {
+        if (other instanceof MyHashMap<K2, V2> map) {
+            // no get() per key when the pairs can be read directly
+            for (Map.Entry<K2, V2> entry : map.entries()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+        for (K2 key : other) {
+            put(key, other.get(key));
+        }
+    }
+
+    /**
+     * Puts every pair of other into this map using the common ForkJoinPool.
+     * The table is grown once to fit both maps, the pairs are grouped by the
+     * range of buckets they land in, and each group is inserted by its own
+     * task. Tasks own disjoint bucket ranges, so they never touch the same
+     * bucket and need no locking. This map must not be used by other threads
+     * while the call runs.
+     *
+     * @param other map whose pairs are copied
+     */
+    @SuppressWarnings("unchecked")
+    public void parallelPutAll(Map61B<? extends K, ? extends V> other) {
+        if (oldBuckets != null) {
+            migrateBuckets(oldBuckets.length);
+        }
+        ensureCapacity(size + other.size());
+        // gather the pairs, the only part that has to follow other's iterator
+        Object[] keys = new Object[other.size()];
+        Object[] values = new Object[keys.length];
+        int n = gather(other, keys, values);
+        // hash in parallel, then sort the pairs by range with a stable counting sort
+        int[] hashes = new int[n];
+        ForkJoinPool.commonPool().invoke(new HashTask(keys, hashes, 0, n));
+        int ranges = Math.max(1, Math.min(buckets.length / PARALLEL_THRESHOLD,
+                4 * ForkJoinPool.commonPool().getParallelism()));
+        int[] rangeOf = new int[n];
+        int[] starts = new int[ranges + 1];
+        for (int i = 0; i < n; i++) {
+            rangeOf[i] = (int) ((long) getBucketIndex(hashes[i], buckets) * ranges / buckets.length);
+            starts[rangeOf[i] + 1]++;
+        }
+        for (int r = 0; r < ranges; r++) {
+            starts[r + 1] += starts[r];
+        }
+        int[] order = new int[n];
+        int[] next = Arrays.copyOf(starts, ranges);
+        for (int i = 0; i < n; i++) {
+            order[next[rangeOf[i]]++] = i;
+        }
+        size += ForkJoinPool.commonPool().invoke(
+                new PutRangesTask((K[]) keys, (V[]) values, hashes, order, starts, 0, ranges));
+    }
+
+    /**
+     * Calls action on every key/value pair using the common ForkJoinPool, with
+     * each task walking its own range of buckets. The action may be called
+     * from several threads at once, in no particular order. This map must not
+     * be modified while the call runs.
+     *
+     * @param action to call with each key and its value
+     */
+    public void parallelForEach(BiConsumer<? super K, ? super V> action) {
+        if (oldBuckets != null) {
+            ForkJoinPool.commonPool().invoke(
+                    new ForEachTask(oldBuckets, migratedBuckets, oldBuckets.length, action));
+        }
+        ForkJoinPool.commonPool().invoke(new ForEachTask(buckets, 0, buckets.length, action));
+    }
+
+    /**
+     * Transforms every key/value pair and combines the results with reducer
+     * using the common ForkJoinPool, like ConcurrentHashMap.reduce(). Pairs
+     * that transform to null are skipped. This map must not be modified while
+     * the call runs.
+     *
+     * @param transformer turns a pair into a result, or null to skip it
+     * @param reducer     combines two results, must be associative
+     * @return the combined result, or null if there was none
+     */
+    public <U> U parallelReduce(BiFunction<? super K, ? super V, ? extends U> transformer,
+                                BinaryOperator<U> reducer) {
+        U result = ForkJoinPool.commonPool().invoke(
+                new ReduceTask<>(buckets, 0, buckets.length, transformer, reducer));
+        if (oldBuckets != null) {
+            U old = ForkJoinPool.commonPool().invoke(
+                    new ReduceTask<>(oldBuckets, migratedBuckets, oldBuckets.length,
+                            transformer, reducer));
+            result = old == null ? result : result == null ? old : reducer.apply(old, result);
+        }
+        return result;
+    }
+
+    /**
+     * Copies the pairs of other into keys and values and returns how many
+     * there were.
+     */
+    private static <K2> int gather(Map61B<K2, ?> other, Object[] keys, Object[] values) {
+        int n = 0;
+        if (other instanceof MyHashMap<K2, ?> map) {
+            for (Map.Entry<K2, ?> entry : map.entries()) {
+                keys[n] = entry.getKey();
+                values[n] = entry.getValue();
+                n++;
+            }
+            return n;
+        }
+        for (K2 key : other) {
+            keys[n] = key;
+            values[n] = other.get(key);
+            n++;
+        }
+        return n;
+    }
+
+    /** Computes the hash codes of keys[lo, hi) into hashes. */
+    @SuppressWarnings("serial")
+    private static class HashTask extends RecursiveAction {
+        private final Object[] keys;
+        private final int[] hashes;
+        private final int lo;
+        private final int hi;
+
+        HashTask(Object[] keys, int[] hashes, int lo, int hi) {
+            this.keys = keys;
+            this.hashes = hashes;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= PARALLEL_THRESHOLD) {
+                for (int i = lo; i < hi; i++) {
+                    hashes[i] = keys[i].hashCode();
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new HashTask(keys, hashes, lo, mid), new HashTask(keys, hashes, mid, hi));
+        }
+    }
+
+    /**
+     * Inserts the pairs of bucket ranges [lo, hi), where range r holds the
+     * pairs order[starts[r], starts[r + 1]). Returns the number of new keys.
+     */
+    @SuppressWarnings("serial")
+    private class PutRangesTask extends RecursiveTask<Integer> {
+        private final K[] keys;
+        private final V[] values;
+        private final int[] hashes;
+        private final int[] order;
+        private final int[] starts;
+        private final int lo;
+        private final int hi;
+
+        PutRangesTask(K[] keys, V[] values, int[] hashes, int[] order, int[] starts,
+                      int lo, int hi) {
+            this.keys = keys;
+            this.values = values;
+            this.hashes = hashes;
+            this.order = order;
+            this.starts = starts;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (hi - lo == 1) {
+                int added = 0;
+                for (int j = starts[lo]; j < starts[hi]; j++) {
+                    int i = order[j];
+                    int index = getBucketIndex(hashes[i], buckets);
+                    if (putInBucket(buckets, index, keys[i], values[i], hashes[i])) {
+                        added++;
+                    }
+                }
+                return added;
+            }
+            int mid = (lo + hi) >>> 1;
+            PutRangesTask left = new PutRangesTask(keys, values, hashes, order, starts, lo, mid);
+            left.fork();
+            int right = new PutRangesTask(keys, values, hashes, order, starts, mid, hi).compute();
+            return left.join() + right;
+        }
+    }
+
+    /** Calls action on the pairs in buckets [lo, hi) of table. */
+    @SuppressWarnings("serial")
+    private class ForEachTask extends RecursiveAction {
+        private final Collection<Node>[] table;
+        private final int lo;
+        private final int hi;
+        private final BiConsumer<? super K, ? super V> action;
+
+        ForEachTask(Collection<Node>[] table, int lo, int hi,
+                    BiConsumer<? super K, ? super V> action) {
+            this.table = table;
+            this.lo = lo;
+            this.hi = hi;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= PARALLEL_THRESHOLD) {
+                Consumer<Node> nodeAction = node -> action.accept(node.key, node.value);
+                for (int i = lo; i < hi; i++) {
+                    if (table[i] != null) {
+                        table[i].forEach(nodeAction);
+                    }
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new ForEachTask(table, lo, mid, action), new ForEachTask(table, mid, hi, action));
+        }
+    }
+
+    /** Reduces the pairs in buckets [lo, hi) of table, or returns null if there are none. */
+    @SuppressWarnings("serial")
+    private class ReduceTask<U> extends RecursiveTask<U> {
+        private final Collection<Node>[] table;
+        private final int lo;
+        private final int hi;
+        private final BiFunction<? super K, ? super V, ? extends U> transformer;
+        private final BinaryOperator<U> reducer;
+
+        ReduceTask(Collection<Node>[] table, int lo, int hi,
+                   BiFunction<? super K, ? super V, ? extends U> transformer,
+                   BinaryOperator<U> reducer) {
+            this.table = table;
+            this.lo = lo;
+            this.hi = hi;
+            this.transformer = transformer;
+            this.reducer = reducer;
+        }
+
+        @Override
+        protected U compute() {
+            if (hi - lo <= PARALLEL_THRESHOLD) {
+                U result = null;
+                for (int i = lo; i < hi; i++) {
+                    if (table[i] == null) {
+                        continue;
+                    }
+                    for (Node node : table[i]) {
+                        U u = transformer.apply(node.key, node.value);
+                        if (u != null) {
+                            result = result == null ? u : reducer.apply(result, u);
+                        }
+                    }
+                }
+                return result;
+            }
+            int mid = (lo + hi) >>> 1;
+            ReduceTask<U> left = new ReduceTask<>(table, lo, mid, transformer, reducer);
+            left.fork();
+            U right = new ReduceTask<>(table, mid, hi, transformer, reducer).compute();
+            U leftResult = left.join();
+            if (leftResult == null) {
+                return right;
+            }
+            return right == null ? leftResult : reducer.apply(leftResult, right);
         }
     }
 
     /**
      * Resize the current buckets and copy over the old value to the
-     * new buckets.
+     * new buckets, counting the resize and its time when statistics are on.
      *
      * @param capacity of the new buckets table
      */
     private void resize(int capacity) {
+        if (stats == null) {
+            rehash(capacity);
+            return;
+        }
+        long start = System.nanoTime();
+        rehash(capacity);
+        stats.resizes++;
+        stats.resizeNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Moves every node into a new table of the given capacity, the work that
+     * resize() times.
+     *
+     * @param capacity of the new buckets table
+     */
+    private void rehash(int capacity) {
         Collection<Node>[] newBuckets = createTable(capacity);
+        if (isSplit(buckets, newBuckets)) {
+            for (int i = 0; i < buckets.length; i++) {
+                if (buckets[i] != null) {
+                    splitBucket(buckets[i], i, newBuckets);
+                }
+            }
+            buckets = newBuckets;
+            return;
+        }
         //iterate the old array and copy the value to the new buckets.
         Iterator<Node> nodeIterator = new HashMapeIterator();
         while (nodeIterator.hasNext()) {
             Node node = nodeIterator.next();
-            int newBucketIndex = getBucketIndex(node.key, newBuckets);
-            newBuckets[newBucketIndex].add(node);
+            int newBucketIndex = getBucketIndex(node.hash, newBuckets);
+            addToBucket(newBuckets, newBucketIndex, node);
         }
         //set the current buckets to the new buckets.
         buckets = newBuckets;
     }
 
+    /**
+     * Returns true if moving from oldTable to newTable can split each bucket in
+     * place, which is when power-of-two tables double.
+     */
+    private boolean isSplit(Collection<Node>[] oldTable, Collection<Node>[] newTable) {
+        return powerOfTwo && newTable.length == 2 * oldTable.length;
+    }
+
+    /**
+     * Splits the old bucket at index into the doubled newTable. With a mask of
+     * one more bit, each node either stays at index (lo) or moves to
+     * index + old capacity (hi), decided by that one new bit of its spread hash.
+     * Nodes keep their relative order within each half.
+     *
+     * @param bucket   old bucket to split
+     * @param index    of bucket in the old table
+     * @param newTable table of twice the old capacity
+     */
+    private void splitBucket(Collection<Node> bucket, int index, Collection<Node>[] newTable) {
+        int oldCapacity = newTable.length / 2;
+        for (Node node : bucket) {
+            if ((spread(node.hash) & oldCapacity) == 0) {
+                addToBucket(newTable, index, node);
+            } else {
+                addToBucket(newTable, index + oldCapacity, node);
+            }
+        }
+    }
+
+    /**
+     * Allocates the new table and makes the current one the old table that
+     * migrateStep() drains. A resize still in progress is finished first.
+     *
+     * @param capacity of the new buckets table
+     */
+    private void startIncrementalResize(int capacity) {
+        if (oldBuckets != null) {
+            migrateBuckets(oldBuckets.length);
+        }
+        oldBuckets = buckets;
+        migratedBuckets = 0;
+        buckets = createTable(capacity);
+        int window = stepsUntilNextResize();
+        stepBuckets = Math.max(bucketsPerStep, (oldBuckets.length + window - 1) / window);
+        if (stats != null) {
+            stats.resizes++;
+        }
+    }
+
+    /**
+     * Returns the fewest puts or removes, each of which takes one migrate step
+     * first, after which the current table could need to grow or shrink.
+     */
+    private int stepsUntilNextResize() {
+        // put() grows the table once size exceeds maxLoadFactor * capacity
+        long steps = (long) Math.floor(maxLoadFactor * buckets.length) + 1 - size;
+        if (minLoadFactor > 0 && buckets.length / 2 >= minCapacity) {
+            // remove() shrinks it once size falls below minLoadFactor * capacity
+            steps = Math.min(steps, size - ((long) Math.ceil(minLoadFactor * buckets.length) - 1));
+        }
+        return (int) Math.max(1, Math.min(steps, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Moves the next stepBuckets old buckets into the new table, if an
+     * incremental resize is in progress.
+     */
+    private void migrateStep() {
+        if (oldBuckets != null) {
+            migrateBuckets(stepBuckets);
+        }
+    }
+
+    /**
+     * Moves up to count old buckets into the new table, and drops the old table
+     * once every bucket has been moved.
+     *
+     * @param count maximum number of old buckets to move
+     */
+    private void migrateBuckets(int count) {
+        long start = stats == null ? 0 : System.nanoTime();
+        int end = Math.min(oldBuckets.length, migratedBuckets + count);
+        for (int i = migratedBuckets; i < end; i++) {
+            if (oldBuckets[i] == null) {
+                continue;
+            } else if (isSplit(oldBuckets, buckets)) {
+                splitBucket(oldBuckets[i], i, buckets);
+            } else {
+                for (Node node : oldBuckets[i]) {
+                    addToBucket(buckets, getBucketIndex(node.hash, buckets), node);
+                }
+            }
+            oldBuckets[i] = null;
+        }
+        migratedBuckets = end;
+        if (migratedBuckets == oldBuckets.length) {
+            oldBuckets = null;
+        }
+        if (stats != null) {
+            stats.resizeNanos += System.nanoTime() - start;
+        }
+    }
+
     @Override
     public V get(K key) {
         //search nodes from the key
@@ -203,6 +1215,7 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         if (node == null) {
             return null;
         }
+        afterNodeAccess(node);
         return node.value;
     }
 
@@ -218,7 +1231,9 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
 
     @Override
     public void clear() {
-        buckets = createTable(INITIAL_CAPACITY); //destroy the old buckets and create a new one.
+        //drop the buckets but keep the table and its capacity for the next fill.
+        oldBuckets = null;
+        Arrays.fill(buckets, null);
         size = 0;
     }
 
@@ -233,15 +1248,23 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
 
     @Override
     public V remove(K key) {
+        migrateStep();
         //search the key, if nothing was found return null
-        int bucketIndex = getBucketSpot(key);
-        Node node = getNode(key);
+        int hash = key.hashCode();
+        Collection<Node>[] table = getTable(hash);
+        int bucketIndex = getBucketIndex(hash, table);
+        Node node = getNodeFromBucket(key, hash, table[bucketIndex]);
         if (node == null) {
             return null;
         }
         //if found, remove the key
-        buckets[bucketIndex].remove(node);
+        removeFromBucket(table, bucketIndex, node);
         size -= 1;
+        // check if the table became sparse enough to shrink
+        if (reachMinLoadFactor()) {
+            changeCapacity(buckets.length / 2);
+        }
+        afterNodeRemoval(node);
         return node.value;
     }
 
@@ -250,6 +1273,54 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         return new KeyIterator();
     }
 
+    /**
+     * Returns the key/value pairs of this map, so a full scan does not need a
+     * get() per key. setValue() on an entry writes through to the map.
+     */
+    public Iterable<Map.Entry<K, V>> entries() {
+        return EntryIterator::new;
+    }
+
+    /**
+     * Calls action on every key/value pair. Walks the table directly instead
+     * of going through iterator(), so no iterator is allocated for the table.
+     *
+     * @param action to call with each key and its value
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        forEachNode(node -> action.accept(node.key, node.value));
+    }
+
+    /**
+     * Calls action on every key, walking the table like forEach(BiConsumer).
+     *
+     * @param action to call with each key
+     */
+    public void forEachKey(Consumer<? super K> action) {
+        forEachNode(node -> action.accept(node.key));
+    }
+
+    /**
+     * Calls action on every node, in the same order as HashMapeIterator: the
+     * old buckets that have not been moved yet, then the current table. Each
+     * bucket is walked with its own forEach, which ArrayList, ArrayDeque and
+     * TreeBucket do without an iterator.
+     */
+    private void forEachNode(Consumer<Node> action) {
+        if (oldBuckets != null) {
+            for (int i = migratedBuckets; i < oldBuckets.length; i++) {
+                if (oldBuckets[i] != null) {
+                    oldBuckets[i].forEach(action);
+                }
+            }
+        }
+        for (Collection<Node> bucket : buckets) {
+            if (bucket != null) {
+                bucket.forEach(action);
+            }
+        }
+    }
+
     /**
      * Key iterator class that traverse the nodes and returns iterator of key
      */
@@ -266,15 +1337,33 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         }
     }
 
+    /**
+     * Entry iterator class that traverse the nodes and returns them as entries
+     */
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        Iterator<Node> nodeIterator = new HashMapeIterator();
+
+        public boolean hasNext() {
+            return nodeIterator.hasNext();
+        }
+
+        public Map.Entry<K, V> next() {
+            return nodeIterator.next();
+        }
+    }
+
     /**
      * An iterator class that traverse all the nodes in the hash map.
-     * First get the iterator of the outer array and then implement the iterator function
-     * for traversing every node inside each bucket.
+     * Walk the outer array bucket by bucket and then iterate every node inside
+     * each non-empty bucket. While an incremental resize is in progress, the old
+     * buckets that have not been moved yet are visited before the new table.
      * This class returns iterator of node.
      */
     private class HashMapeIterator implements Iterator<Node> {
-        //convert array to stream iterator.
-        private Iterator<Collection<Node>> bucketsIterator = Arrays.stream(buckets).iterator();
+        //the table being walked and the index of the next bucket to visit in it.
+        private Collection<Node>[] table = oldBuckets != null ? oldBuckets : buckets;
+        private int bucketIndex = oldBuckets != null ? migratedBuckets : 0;
         //current bucket iterator used to check if the current bucket is iterable
         private Iterator<Node> currentBucketIterator;
         private int currNode = 0;
@@ -285,16 +1374,20 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         }
 
         public Node next() {
-            // iterate the outside buckets
-            // initialize the first bucket or move to next bucket if no more nodes in the current bucket
-            if (currentBucketIterator == null || !currentBucketIterator.hasNext()) {
-                //set the current bucket to the next bucket spot that is not empty
-                Collection<Node> currentBucket = bucketsIterator.next();
-                while (currentBucket.size() == 0) {
-                    currentBucket = bucketsIterator.next();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            // move to the next bucket that is not empty if no more nodes in the current bucket
+            while (currentBucketIterator == null || !currentBucketIterator.hasNext()) {
+                if (bucketIndex == table.length) {
+                    //the unmoved old buckets are done, continue with the new table
+                    table = buckets;
+                    bucketIndex = 0;
+                }
+                Collection<Node> currentBucket = table[bucketIndex++];
+                if (currentBucket != null && !currentBucket.isEmpty()) {
+                    currentBucketIterator = currentBucket.iterator();
                 }
-                //initialize the bucket iterator.
-                currentBucketIterator = currentBucket.iterator();
             }
             //iterate the nodes inside current bucket
             currNode++;
@@ -303,4 +1396,317 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         }
     }
 
+    /**
+     * A bucket that keeps its nodes in a left-leaning red-black tree ordered by
+     * key, using the same rotations and color flips as RedBlackTree, so a bucket
+     * full of colliding keys is searched in O(log n) instead of one by one.
+     * Every key in the tree is of keyClass.
+     */
+    private class TreeBucket extends AbstractCollection<Node> {
+
+        private class TreeNode {
+            Node node;
+            boolean isBlack;
+            TreeNode left;
+            TreeNode right;
+
+            TreeNode(Node node) {
+                this.node = node;
+                this.isBlack = false; // new nodes are red
+            }
+        }
+
+        private final Class<?> keyClass;
+        private TreeNode root;
+        private int size = 0;
+
+        TreeBucket(Class<?> keyClass) {
+            this.keyClass = keyClass;
+        }
+
+        @SuppressWarnings("unchecked")
+        private int compare(K a, K b) {
+            return ((Comparable<Object>) a).compareTo(b);
+        }
+
+        /**
+         * Returns the node holding key, or null if there is none. A key of
+         * another class is looked for one node at a time with equals.
+         */
+        Node find(K key) {
+            if (key.getClass() != keyClass) {
+                for (Node node : this) {
+                    if (node.key.equals(key)) {
+                        return node;
+                    }
+                }
+                return null;
+            }
+            TreeNode x = root;
+            while (x != null) {
+                int comp = compare(key, x.node.key);
+                if (comp < 0) {
+                    x = x.left;
+                } else if (comp > 0) {
+                    x = x.right;
+                } else {
+                    return x.node.key.equals(key) ? x.node : null;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns the number of keys find() compares while looking for key.
+         */
+        int countProbes(K key) {
+            if (key.getClass() != keyClass) {
+                int probes = 0;
+                for (Node node : this) {
+                    probes++;
+                    if (node.key.equals(key)) {
+                        break;
+                    }
+                }
+                return probes;
+            }
+            int probes = 0;
+            TreeNode x = root;
+            while (x != null) {
+                probes++;
+                int comp = compare(key, x.node.key);
+                if (comp < 0) {
+                    x = x.left;
+                } else if (comp > 0) {
+                    x = x.right;
+                } else {
+                    break;
+                }
+            }
+            return probes;
+        }
+
+        /**
+         * Inserts node, whose key must not be in the tree yet. Returns false
+         * and leaves the tree unchanged if the key is of another class or
+         * compares as equal to a different key already in the tree.
+         */
+        @Override
+        public boolean add(Node node) {
+            if (node.key.getClass() != keyClass) {
+                return false;
+            }
+            int before = size;
+            root = insert(root, node);
+            root.isBlack = true;
+            return size > before;
+        }
+
+        private TreeNode insert(TreeNode h, Node node) {
+            if (h == null) {
+                size += 1;
+                return new TreeNode(node);
+            }
+            int comp = compare(node.key, h.node.key);
+            if (comp < 0) {
+                h.left = insert(h.left, node);
+            } else if (comp > 0) {
+                h.right = insert(h.right, node);
+            } else {
+                return h; // an unequal key that compares as equal, leave the tree as is
+            }
+            return balance(h);
+        }
+
+        /**
+         * Removes the given node, which must be in the tree.
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object o) {
+            K key = ((Node) o).key;
+            if (!isRed(root.left) && !isRed(root.right)) {
+                root.isBlack = false;
+            }
+            root = delete(root, key);
+            if (root != null) {
+                root.isBlack = true;
+            }
+            size -= 1;
+            return true;
+        }
+
+        private TreeNode delete(TreeNode h, K key) {
+            if (compare(key, h.node.key) < 0) {
+                if (!isRed(h.left) && !isRed(h.left.left)) {
+                    h = moveRedLeft(h);
+                }
+                h.left = delete(h.left, key);
+            } else {
+                if (isRed(h.left)) {
+                    h = rotateRight(h);
+                }
+                if (compare(key, h.node.key) == 0 && h.right == null) {
+                    return null;
+                }
+                if (!isRed(h.right) && !isRed(h.right.left)) {
+                    h = moveRedRight(h);
+                }
+                if (compare(key, h.node.key) == 0) {
+                    // replace this node's entry with its successor's, then delete the successor
+                    TreeNode successor = h.right;
+                    while (successor.left != null) {
+                        successor = successor.left;
+                    }
+                    h.node = successor.node;
+                    h.right = deleteMin(h.right);
+                } else {
+                    h.right = delete(h.right, key);
+                }
+            }
+            return balance(h);
+        }
+
+        private TreeNode deleteMin(TreeNode h) {
+            if (h.left == null) {
+                return null;
+            }
+            if (!isRed(h.left) && !isRed(h.left.left)) {
+                h = moveRedLeft(h);
+            }
+            h.left = deleteMin(h.left);
+            return balance(h);
+        }
+
+        /* Assuming h is red and both h.left and h.left.left are black, makes
+           h.left or one of its children red. */
+        private TreeNode moveRedLeft(TreeNode h) {
+            flipColors(h);
+            if (isRed(h.right.left)) {
+                h.right = rotateRight(h.right);
+                h = rotateLeft(h);
+                flipColors(h);
+            }
+            return h;
+        }
+
+        /* Assuming h is red and both h.right and h.right.left are black, makes
+           h.right or one of its children red. */
+        private TreeNode moveRedRight(TreeNode h) {
+            flipColors(h);
+            if (isRed(h.left.left)) {
+                h = rotateRight(h);
+                flipColors(h);
+            }
+            return h;
+        }
+
+        /* Restores the left-leaning red-black invariants at h on the way up. */
+        private TreeNode balance(TreeNode h) {
+            if (isRed(h.right) && !isRed(h.left)) {
+                h = rotateLeft(h);
+            }
+            if (isRed(h.left) && isRed(h.left.left)) {
+                h = rotateRight(h);
+            }
+            if (isRed(h.left) && isRed(h.right)) {
+                flipColors(h);
+            }
+            return h;
+        }
+
+        /* Flips the color of node and its children. */
+        private void flipColors(TreeNode node) {
+            node.right.isBlack = node.isBlack;
+            node.left.isBlack = node.isBlack;
+            node.isBlack = !node.isBlack;
+        }
+
+        /* Rotates the given node to the right, swapping the colors of the old
+           and new subtree roots. */
+        private TreeNode rotateRight(TreeNode node) {
+            TreeNode newRoot = node.left;
+            node.left = newRoot.right;
+            newRoot.right = node;
+            boolean temp = node.isBlack;
+            node.isBlack = newRoot.isBlack;
+            newRoot.isBlack = temp;
+            return newRoot;
+        }
+
+        /* Rotates the given node to the left, swapping the colors of the old
+           and new subtree roots. */
+        private TreeNode rotateLeft(TreeNode node) {
+            TreeNode newRoot = node.right;
+            node.right = newRoot.left;
+            newRoot.left = node;
+            boolean temp = node.isBlack;
+            node.isBlack = newRoot.isBlack;
+            newRoot.isBlack = temp;
+            return newRoot;
+        }
+
+        private boolean isRed(TreeNode node) {
+            return node != null && !node.isBlack;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Calls action on the nodes in key order, recursing instead of
+         * allocating an iterator and its stack.
+         */
+        @Override
+        public void forEach(Consumer<? super Node> action) {
+            forEach(root, action);
+        }
+
+        private void forEach(TreeNode x, Consumer<? super Node> action) {
+            if (x == null) {
+                return;
+            }
+            forEach(x.left, action);
+            action.accept(x.node);
+            forEach(x.right, action);
+        }
+
+        /**
+         * Returns the nodes in key order, using an explicit stack of the
+         * left spine still to visit.
+         */
+        @Override
+        public Iterator<Node> iterator() {
+            return new Iterator<>() {
+                private final ArrayDeque<TreeNode> stack = new ArrayDeque<>();
+
+                {
+                    pushLeftSpine(root);
+                }
+
+                private void pushLeftSpine(TreeNode x) {
+                    while (x != null) {
+                        stack.push(x);
+                        x = x.left;
+                    }
+                }
+
+                public boolean hasNext() {
+                    return !stack.isEmpty();
+                }
+
+                public Node next() {
+                    if (stack.isEmpty()) {
+                        throw new NoSuchElementException();
+                    }
+                    TreeNode x = stack.pop();
+                    pushLeftSpine(x.right);
+                    return x.node;
+                }
+            };
+        }
+    }
+
 }
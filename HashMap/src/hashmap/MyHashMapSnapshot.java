@@ -0,0 +1,366 @@
+package hashmap;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A read-only Map61B backed by a memory-mapped snapshot file, so a large map
+ * saved by one process can be looked up by the next one as soon as the file
+ * is opened, without rebuilding a single Node.
+ * <p>
+ * write() saves any Map61B as a binary file with this layout, all big-endian:
+ * <pre>
+ * header  magic "MHMS", version, size, index capacity, data length (long),
+ *         CRC32 of the index, CRC32 of the data             32 bytes
+ * index   capacity slots of [int spread hash][int data offset + 1],
+ *         an open-addressing table with linear probing     capacity * 8 bytes
+ * data    one record per entry: [int key length][key bytes]
+ *         [int value length, -1 for null][value bytes]
+ * </pre>
+ * Keys and values are turned into bytes by a Codec. Keys are found by their
+ * hashCode() and compared by their encoding, so the key type's hashCode() must
+ * be the same in every process, as it is for String and Integer. open() maps
+ * the file, checks the header and, unless told not to, the checksums; the
+ * data is then read straight from the mapping on every get().
+ * <p>
+ * A snapshot file is limited to 2 GB, the size of one mapping.
+ *
+ * @author Xiaocheng Sun
+ */
+public class MyHashMapSnapshot<K, V> implements Map61B<K, V> {
+
+    /** Version written by write(), bumped whenever the layout changes. */
+    public static final int VERSION = 1;
+    private static final int MAGIC = 0x4D484D53; // "MHMS"
+    private static final int HEADER_BYTES = 32;
+    private static final double LOAD_FACTOR = 0.5;
+    // largest index that leaves room in a 2 GB file: 2^28 slots would fill it alone
+    private static final int MAX_CAPACITY = 1 << 27;
+
+    /* Instance Variables */
+    private final MappedByteBuffer buffer;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final int size;
+    private final int capacity;
+    private final int dataStart;
+
+    private MyHashMapSnapshot(MappedByteBuffer buffer, Codec<K> keyCodec, Codec<V> valueCodec,
+                              int size, int capacity) {
+        this.buffer = buffer;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.size = size;
+        this.capacity = capacity;
+        this.dataStart = HEADER_BYTES + capacity * 8;
+    }
+
+    /**
+     * Saves the entries of map to file, replacing it if it exists.
+     *
+     * @param map        entries to save
+     * @param file       to write
+     * @param keyCodec   turns keys into bytes
+     * @param valueCodec turns values into bytes
+     * @throws IOException if the file cannot be written
+     */
+    public static <K, V> void write(Map61B<K, V> map, Path file, Codec<K> keyCodec,
+                                    Codec<V> valueCodec) throws IOException {
+        // checked before the index is allocated, which could run out of heap first
+        double slots = Math.ceil(map.size() / LOAD_FACTOR);
+        if (slots > MAX_CAPACITY) {
+            throw new IOException("Snapshot would exceed 2 GB");
+        }
+        int capacity = tableSizeFor((int) slots);
+        long indexBytes = (long) capacity * 8;
+        ByteBuffer index = ByteBuffer.allocate((int) indexBytes);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // the records go after the index, which is only complete once they are written;
+            // data is flushed but never closed, which would close the channel
+            channel.position(HEADER_BYTES + indexBytes);
+            CRC32 dataCrc = new CRC32();
+            DataOutputStream data = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel)), dataCrc));
+            int mask = capacity - 1;
+            for (K key : map) {
+                long offset = data.size();
+                if (offset + 1 > Integer.MAX_VALUE - HEADER_BYTES - indexBytes) {
+                    throw new IOException("Snapshot would exceed 2 GB");
+                }
+                int hash = spread(key.hashCode());
+                int i = hash & mask;
+                while (index.getInt(i * 8 + 4) != 0) {
+                    i = (i + 1) & mask;
+                }
+                index.putInt(i * 8, hash);
+                index.putInt(i * 8 + 4, (int) offset + 1);
+
+                byte[] keyBytes = keyCodec.encode(key);
+                data.writeInt(keyBytes.length);
+                data.write(keyBytes);
+                V value = map.get(key);
+                if (value == null) {
+                    data.writeInt(-1);
+                } else {
+                    byte[] valueBytes = valueCodec.encode(value);
+                    data.writeInt(valueBytes.length);
+                    data.write(valueBytes);
+                }
+            }
+            data.flush();
+            long dataLength = data.size();
+
+            CRC32 indexCrc = new CRC32();
+            indexCrc.update(index.array(), 0, index.capacity());
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(map.size()).putInt(capacity)
+                    .putLong(dataLength)
+                    .putInt((int) indexCrc.getValue()).putInt((int) dataCrc.getValue());
+            header.flip();
+            channel.write(header, 0);
+            channel.write(index, HEADER_BYTES);
+        }
+    }
+
+    /**
+     * Maps a snapshot file written by write() and verifies its checksums.
+     *
+     * @throws IOException if the file cannot be read, is not a snapshot of a
+     *                     supported version, or is corrupt
+     */
+    public static <K, V> MyHashMapSnapshot<K, V> open(Path file, Codec<K> keyCodec,
+                                                      Codec<V> valueCodec) throws IOException {
+        return open(file, keyCodec, valueCodec, true);
+    }
+
+    /**
+     * Maps a snapshot file written by write(). Checking the checksums reads
+     * the whole file once, so a trusted file can be opened faster without.
+     *
+     * @param verify whether to check the checksums of the index and data
+     * @throws IOException if the file cannot be read, is not a snapshot of a
+     *                     supported version, or is corrupt
+     */
+    public static <K, V> MyHashMapSnapshot<K, V> open(Path file, Codec<K> keyCodec,
+                                                      Codec<V> valueCodec, boolean verify)
+            throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a MyHashMap snapshot: " + file);
+            }
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a MyHashMap snapshot: " + file);
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + " in " + file
+                    + ", expected " + VERSION);
+        }
+        int size = buffer.getInt(8);
+        int capacity = buffer.getInt(12);
+        long dataLength = buffer.getLong(16);
+        long indexBytes = (long) capacity * 8;
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1 || size < 0
+                || HEADER_BYTES + indexBytes + dataLength != buffer.capacity()) {
+            throw new IOException("Corrupt snapshot header in " + file);
+        }
+        if (verify) {
+            if (crc(buffer, HEADER_BYTES, (int) indexBytes) != buffer.getInt(24)
+                    || crc(buffer, (int) (HEADER_BYTES + indexBytes), (int) dataLength)
+                    != buffer.getInt(28)) {
+                throw new IOException("Snapshot checksum mismatch in " + file);
+            }
+        }
+        return new MyHashMapSnapshot<>(buffer, keyCodec, valueCodec, size, capacity);
+    }
+
+    private static int crc(ByteBuffer buffer, int start, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(start, length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Returns the smallest power of two that is >= capacity (and at least 2).
+     */
+    private static int tableSizeFor(int capacity) {
+        int n = 2;
+        while (n < capacity) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    private static int spread(int hashCode) {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the position of the record for key in the buffer, or -1 if the
+     * key is absent.
+     */
+    private int findRecord(K key) {
+        int hash = spread(key.hashCode());
+        byte[] keyBytes = keyCodec.encode(key);
+        int mask = capacity - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int slot = HEADER_BYTES + i * 8;
+            int offset = buffer.getInt(slot + 4) - 1;
+            if (offset < 0) {
+                return -1;
+            }
+            if (buffer.getInt(slot) == hash && keyEquals(dataStart + offset, keyBytes)) {
+                return dataStart + offset;
+            }
+        }
+    }
+
+    private boolean keyEquals(int record, byte[] keyBytes) {
+        if (buffer.getInt(record) != keyBytes.length) {
+            return false;
+        }
+        for (int j = 0; j < keyBytes.length; j++) {
+            if (buffer.get(record + 4 + j) != keyBytes[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] readBytes(int position, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return bytes;
+    }
+
+    private K readKey(int record) {
+        return keyCodec.decode(readBytes(record + 4, buffer.getInt(record)));
+    }
+
+    private V readValue(int record) {
+        int valueAt = record + 4 + buffer.getInt(record);
+        int length = buffer.getInt(valueAt);
+        if (length < 0) {
+            return null;
+        }
+        return valueCodec.decode(readBytes(valueAt + 4, length));
+    }
+
+    /**
+     * Returns a MyHashMap holding every entry of this snapshot, for when the
+     * map has to change after all.
+     */
+    public MyHashMap<K, V> toMyHashMap() {
+        MyHashMap<K, V> map = new MyHashMap<>();
+        map.ensureCapacity(size);
+        for (int record : new RecordIterable()) {
+            map.put(readKey(record), readValue(record));
+        }
+        return map;
+    }
+
+    /** Not supported, a snapshot is read-only. */
+    @Override
+    public void put(K key, V value) {
+        throw new UnsupportedOperationException("MyHashMapSnapshot is read-only");
+    }
+
+    @Override
+    public V get(K key) {
+        int record = findRecord(key);
+        if (record < 0) {
+            return null;
+        }
+        return readValue(record);
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return findRecord(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Not supported, a snapshot is read-only. */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("MyHashMapSnapshot is read-only");
+    }
+
+    @Override
+    public Set<K> keySet() {
+        HashSet<K> set = new HashSet<>();
+        for (K key : this) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    /** Not supported, a snapshot is read-only. */
+    @Override
+    public V remove(K key) {
+        throw new UnsupportedOperationException("MyHashMapSnapshot is read-only");
+    }
+
+    /** Returns the keys in the order they were written, decoding each one. */
+    @Override
+    public Iterator<K> iterator() {
+        Iterator<Integer> records = new RecordIterable().iterator();
+        return new Iterator<>() {
+            public boolean hasNext() {
+                return records.hasNext();
+            }
+
+            public K next() {
+                return readKey(records.next());
+            }
+        };
+    }
+
+    /**
+     * The positions of the records, walked through the data section in order.
+     */
+    private class RecordIterable implements Iterable<Integer> {
+        public Iterator<Integer> iterator() {
+            return new Iterator<>() {
+                private int position = dataStart;
+                private int returned = 0;
+
+                public boolean hasNext() {
+                    return returned < size;
+                }
+
+                public Integer next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int record = position;
+                    int valueAt = record + 4 + buffer.getInt(record);
+                    position = valueAt + 4 + Math.max(0, buffer.getInt(valueAt));
+                    returned++;
+                    return record;
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,322 @@
+package hashmap;
+
+import java.util.*;
+
+/**
+ * A hash map from object keys to primitive int values.
+ * <p>
+ * Supports the same operations as Map61B, but stores and returns the values
+ * as ints, so counting and id-lookup workloads never allocate an Integer.
+ * Entries are stored with linear probing in parallel K[]/int[] arrays with
+ * cached hash codes, the same layout as OpenAddressingMap.
+ * <p>
+ * Since an int cannot be null, get and remove return a configurable
+ * "no entry" value (0 by default) for missing keys; use containsKey to tell
+ * the two apart. Use asMap61B() to pass this map to code that expects a Map61B.
+ * <p>
+ * Assumes null keys will never be inserted.
+ *
+ * @author Xiaocheng Sun
+ */
+public class ObjectIntMap<K> {
+
+    /* Instance Variables */
+    private K[] keys;
+    private int[] values;
+    private int[] hashes;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.5;
+    private final double maxLoadFactor;
+    private final int noEntryValue;
+    private int size = 0;
+    private final LinearProbing.Slots slots = new LinearProbing.Slots() {
+        public boolean isFree(int i) {
+            return keys[i] == null;
+        }
+
+        public int hash(int i) {
+            return hashes[i];
+        }
+
+        public void move(int from, int to) {
+            keys[to] = keys[from];
+            values[to] = values[from];
+            hashes[to] = hashes[from];
+        }
+
+        public void free(int i) {
+            keys[i] = null;
+            values[i] = 0;
+            hashes[i] = 0;
+        }
+    };
+
+    /**
+     * Constructors
+     */
+    public ObjectIntMap() {
+        this(INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR, 0);
+    }
+
+    public ObjectIntMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR, 0);
+    }
+
+    public ObjectIntMap(int initialCapacity, double loadFactor) {
+        this(initialCapacity, loadFactor, 0);
+    }
+
+    public ObjectIntMap(int initialCapacity, int noEntryValue) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR, noEntryValue);
+    }
+
+    /**
+     * ObjectIntMap constructor that creates backing arrays of at least
+     * initialCapacity slots, rounded up to a power of two.
+     *
+     * @param initialCapacity initial size of backing arrays
+     * @param loadFactor      maximum load factor, must be in (0, 1)
+     * @param noEntryValue    value returned by get and remove for missing keys
+     */
+    public ObjectIntMap(int initialCapacity, double loadFactor, int noEntryValue) {
+        if (loadFactor <= 0 || loadFactor >= 1) {
+            throw new IllegalArgumentException("Load factor must be in (0, 1): " + loadFactor);
+        }
+        this.maxLoadFactor = loadFactor;
+        this.noEntryValue = noEntryValue;
+        createTable(LinearProbing.tableSizeFor(initialCapacity));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void createTable(int capacity) {
+        keys = (K[]) new Object[capacity];
+        values = new int[capacity];
+        hashes = new int[capacity];
+    }
+
+    private static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+
+    /**
+     * Returns the slot holding the given key, or -1 if the key is absent.
+     */
+    private int findSlot(K key, int hash) {
+        int mask = keys.length - 1;
+        for (int i = hash & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot holding the given key, inserting the key with the
+     * no-entry value first if it is absent.
+     */
+    private int findOrInsertSlot(K key) {
+        int hash = spread(key.hashCode());
+        int mask = keys.length - 1;
+        int i = hash & mask;
+        while (keys[i] != null) {
+            if (hashes[i] == hash && keys[i].equals(key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = noEntryValue;
+        hashes[i] = hash;
+        size += 1;
+        if (1.0 * size / keys.length > maxLoadFactor) {
+            resize(keys.length * 2);
+            return findSlot(key, hash);
+        }
+        return i;
+    }
+
+    /** Associates the specified value with the specified key in this map. */
+    public void put(K key, int value) {
+        int slot = findOrInsertSlot(key);
+        values[slot] = value;
+    }
+
+    /**
+     * Adds delta to the value mapped to key, treating a missing key as mapped
+     * to the no-entry value, and returns the new value.
+     */
+    public int addTo(K key, int delta) {
+        int slot = findOrInsertSlot(key);
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    /**
+     * Resize the backing arrays and re-insert every entry.
+     *
+     * @param capacity of the new backing arrays, must be a power of two
+     */
+    private void resize(int capacity) {
+        K[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldHashes = hashes;
+        createTable(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == null) {
+                continue;
+            }
+            int i = LinearProbing.freeSlot(slots, oldHashes[j], mask);
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+            hashes[i] = oldHashes[j];
+        }
+    }
+
+    /**
+     * Returns the value mapped to key, or the no-entry value if there is no
+     * such mapping.
+     */
+    public int get(K key) {
+        int slot = findSlot(key, spread(key.hashCode()));
+        if (slot < 0) {
+            return noEntryValue;
+        }
+        return values[slot];
+    }
+
+    /** Returns whether this map contains a mapping for the specified key. */
+    public boolean containsKey(K key) {
+        return findSlot(key, spread(key.hashCode())) >= 0;
+    }
+
+    /** Returns the value that get and remove return for missing keys. */
+    public int noEntryValue() {
+        return noEntryValue;
+    }
+
+    /** Returns the number of key-value mappings in this map. */
+    public int size() {
+        return size;
+    }
+
+    /** Removes every mapping from this map. */
+    public void clear() {
+        createTable(LinearProbing.tableSizeFor(INITIAL_CAPACITY));
+        size = 0;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present,
+     * and returns its value, or the no-entry value if there is no such mapping.
+     */
+    public int remove(K key) {
+        int slot = findSlot(key, spread(key.hashCode()));
+        if (slot < 0) {
+            return noEntryValue;
+        }
+        int value = values[slot];
+        LinearProbing.deleteSlot(slots, slot, keys.length - 1);
+        size -= 1;
+        return value;
+    }
+
+    /** Returns an iterator over the keys of this map. */
+    public Iterator<K> keyIterator() {
+        return new KeyIterator();
+    }
+
+    /**
+     * Returns a Map61B view of this map. Values are boxed on the way in and
+     * out of the view, and missing keys map to null as Map61B requires.
+     * Putting a null value through the view throws IllegalArgumentException.
+     */
+    public Map61B<K, Integer> asMap61B() {
+        return new Map61BView();
+    }
+
+    /**
+     * Key iterator class that walks the key array and skips empty slots.
+     */
+    private class KeyIterator implements Iterator<K> {
+        private int index = 0;
+        private int returned = 0;
+
+        public boolean hasNext() {
+            return returned < size;
+        }
+
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            while (keys[index] == null) {
+                index++;
+            }
+            returned++;
+            return keys[index++];
+        }
+    }
+
+    /**
+     * Adapter that exposes this map through the Map61B interface.
+     */
+    private class Map61BView implements Map61B<K, Integer> {
+
+        @Override
+        public void put(K key, Integer value) {
+            if (value == null) {
+                throw new IllegalArgumentException("ObjectIntMap cannot store null values");
+            }
+            ObjectIntMap.this.put(key, value);
+        }
+
+        @Override
+        public Integer get(K key) {
+            int slot = findSlot(key, spread(key.hashCode()));
+            if (slot < 0) {
+                return null;
+            }
+            return values[slot];
+        }
+
+        @Override
+        public boolean containsKey(K key) {
+            return ObjectIntMap.this.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            ObjectIntMap.this.clear();
+        }
+
+        @Override
+        public Set<K> keySet() {
+            HashSet<K> set = new HashSet<>();
+            for (K key : this) {
+                set.add(key);
+            }
+            return set;
+        }
+
+        @Override
+        public Integer remove(K key) {
+            if (!ObjectIntMap.this.containsKey(key)) {
+                return null;
+            }
+            return ObjectIntMap.this.remove(key);
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return keyIterator();
+        }
+    }
+
+}
@@ -0,0 +1,426 @@
+package hashmap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A hash map from String keys to primitive long values that keeps its
+ * entries outside the Java heap.
+ * <p>
+ * Each entry is written once into an arena of direct ByteBuffer chunks as a
+ * record of [long value][int key length][UTF-8 key bytes], padded to 8 bytes.
+ * The index is an open-addressing table with linear probing, also off-heap,
+ * split into segments of direct LongBuffers. Each slot packs the key's hash
+ * and the record's address into one long, so probing compares hashes without
+ * touching the arena, and resizing never reads a key. The heap only holds the
+ * few chunk and segment objects, so a dictionary of tens of millions of keys
+ * adds almost nothing for the garbage collector to trace.
+ * <p>
+ * Like ObjectIntMap, get and remove return a configurable "no entry" value
+ * for missing keys; use containsKey to tell the two apart, and asMap61B() to
+ * pass this map to code that expects a Map61B. A long holds any primitive
+ * value, or an index into a separate store of serialized values.
+ * <p>
+ * Replacing a value overwrites it in place, but the record of a removed key
+ * stays in the arena until clear(). Keys are assumed to be valid UTF-16
+ * (no unpaired surrogates), so that they survive the trip through UTF-8.
+ * The off-heap memory is released when the map is garbage collected; it
+ * counts against -XX:MaxDirectMemorySize.
+ * <p>
+ * Assumes null keys will never be inserted.
+ *
+ * @author Xiaocheng Sun
+ */
+public class OffHeapStringMap {
+
+    /* Instance Variables */
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    // bytes used in the last chunk
+    private int chunkTop;
+    private final int chunkBits;
+    private LongBuffer[] segments;
+    private int capacity;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.5;
+    private static final int DEFAULT_CHUNK_BITS = 24;
+    // index slots per segment, 2^24 slots is 128 MB
+    private static final int SEGMENT_BITS = 24;
+    // a record is [long value][int key length][key bytes]
+    private static final int HEADER_BYTES = 12;
+    private final double maxLoadFactor;
+    private final long noEntryValue;
+    private int size = 0;
+    private final LinearProbing.Slots slots = new LinearProbing.Slots() {
+        public boolean isFree(int i) {
+            return slot(i) == 0;
+        }
+
+        public int hash(int i) {
+            return slotHash(slot(i));
+        }
+
+        public void move(int from, int to) {
+            setSlot(to, slot(from));
+        }
+
+        public void free(int i) {
+            setSlot(i, 0);
+        }
+    };
+
+    /**
+     * Constructors
+     */
+    public OffHeapStringMap() {
+        this(INITIAL_CAPACITY, 0);
+    }
+
+    public OffHeapStringMap(int initialCapacity) {
+        this(initialCapacity, 0);
+    }
+
+    public OffHeapStringMap(int initialCapacity, long noEntryValue) {
+        this(initialCapacity, noEntryValue, DEFAULT_CHUNK_BITS);
+    }
+
+    /**
+     * OffHeapStringMap constructor that creates an index of at least
+     * initialCapacity slots, rounded up to a power of two, and an arena that
+     * grows in chunks of 2^chunkBits bytes. A key must fit in one chunk.
+     *
+     * @param initialCapacity initial number of index slots
+     * @param noEntryValue    value returned by get and remove for missing keys
+     * @param chunkBits       log2 of the arena chunk size, from 10 to 30
+     */
+    public OffHeapStringMap(int initialCapacity, long noEntryValue, int chunkBits) {
+        if (chunkBits < 10 || chunkBits > 30) {
+            throw new IllegalArgumentException("chunkBits must be in [10, 30]: " + chunkBits);
+        }
+        this.maxLoadFactor = DEFAULT_LOAD_FACTOR;
+        this.noEntryValue = noEntryValue;
+        this.chunkBits = chunkBits;
+        createIndex(LinearProbing.tableSizeFor(initialCapacity));
+        chunkTop = 1 << chunkBits; // the first record opens a chunk
+    }
+
+    private void createIndex(int capacity) {
+        this.capacity = capacity;
+        int segmentSlots = Math.min(capacity, 1 << SEGMENT_BITS);
+        segments = new LongBuffer[capacity / segmentSlots];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect(segmentSlots * Long.BYTES)
+                    .order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+    }
+
+    /**
+     * Scrambles the hash code so that keys with nearby hash codes, such as
+     * Strings that differ in their last character, do not fill one long run of
+     * slots and turn every probe into a scan.
+     */
+    private static int spread(int hashCode) {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /* Index slots: the high 32 bits are the hash, the low 32 bits are the
+       record address / 8 + 1, so an empty slot is 0. */
+
+    private long slot(int i) {
+        return segments[i >>> SEGMENT_BITS].get(i & ((1 << SEGMENT_BITS) - 1));
+    }
+
+    private void setSlot(int i, long slot) {
+        segments[i >>> SEGMENT_BITS].put(i & ((1 << SEGMENT_BITS) - 1), slot);
+    }
+
+    private static long packSlot(int hash, long address) {
+        return ((long) hash << 32) | ((address >>> 3) + 1);
+    }
+
+    private static int slotHash(long slot) {
+        return (int) (slot >>> 32);
+    }
+
+    private static long slotAddress(long slot) {
+        return ((slot & 0xFFFFFFFFL) - 1) << 3;
+    }
+
+    /* Records */
+
+    private ByteBuffer chunkOf(long address) {
+        return chunks.get((int) (address >>> chunkBits));
+    }
+
+    private int offsetOf(long address) {
+        return (int) (address & ((1L << chunkBits) - 1));
+    }
+
+    /**
+     * Writes a new record for the key and value and returns its address.
+     */
+    private long writeRecord(byte[] key, long value) {
+        int recordBytes = (HEADER_BYTES + key.length + 7) & ~7;
+        if (recordBytes > 1 << chunkBits) {
+            throw new IllegalArgumentException("Key of " + key.length
+                    + " bytes does not fit in a chunk of " + (1 << chunkBits) + " bytes");
+        }
+        if (chunkTop + recordBytes > 1 << chunkBits) {
+            chunks.add(ByteBuffer.allocateDirect(1 << chunkBits).order(ByteOrder.nativeOrder()));
+            chunkTop = 0;
+        }
+        long address = ((long) (chunks.size() - 1) << chunkBits) + chunkTop;
+        if ((address >>> 3) + 1 > 0xFFFFFFFFL) {
+            throw new IllegalStateException("OffHeapStringMap arena is limited to 32 GB");
+        }
+        ByteBuffer chunk = chunks.get(chunks.size() - 1);
+        chunk.putLong(chunkTop, value);
+        chunk.putInt(chunkTop + Long.BYTES, key.length);
+        chunk.put(chunkTop + HEADER_BYTES, key);
+        chunkTop += recordBytes;
+        return address;
+    }
+
+    private boolean keyEquals(long address, byte[] key) {
+        ByteBuffer chunk = chunkOf(address);
+        int offset = offsetOf(address);
+        if (chunk.getInt(offset + Long.BYTES) != key.length) {
+            return false;
+        }
+        for (int j = 0; j < key.length; j++) {
+            if (chunk.get(offset + HEADER_BYTES + j) != key[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readKey(long address) {
+        ByteBuffer chunk = chunkOf(address);
+        int offset = offsetOf(address);
+        byte[] bytes = new byte[chunk.getInt(offset + Long.BYTES)];
+        chunk.get(offset + HEADER_BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readValue(long address) {
+        return chunkOf(address).getLong(offsetOf(address));
+    }
+
+    private void writeValue(long address, long value) {
+        chunkOf(address).putLong(offsetOf(address), value);
+    }
+
+    /**
+     * Returns the index slot holding the given key, or -1 if the key is absent.
+     */
+    private int findSlot(byte[] key, int hash) {
+        int mask = capacity - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            long slot = slot(i);
+            if (slot == 0) {
+                return -1;
+            }
+            if (slotHash(slot) == hash && keyEquals(slotAddress(slot), key)) {
+                return i;
+            }
+        }
+    }
+
+    /** Associates the specified value with the specified key in this map. */
+    public void put(String key, long value) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = spread(key.hashCode());
+        int mask = capacity - 1;
+        int i = hash & mask;
+        for (long slot = slot(i); slot != 0; slot = slot(i)) {
+            if (slotHash(slot) == hash && keyEquals(slotAddress(slot), bytes)) {
+                writeValue(slotAddress(slot), value);
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        setSlot(i, packSlot(hash, writeRecord(bytes, value)));
+        size += 1;
+        if (1.0 * size / capacity > maxLoadFactor) {
+            resize(capacity * 2);
+        }
+    }
+
+    /**
+     * Resize the index and re-insert every slot. The records stay where
+     * they are, and the hashes in the slots say where they go.
+     *
+     * @param newCapacity of the new index, must be a power of two
+     */
+    private void resize(int newCapacity) {
+        LongBuffer[] oldSegments = segments;
+        int oldCapacity = capacity;
+        createIndex(newCapacity);
+        int mask = newCapacity - 1;
+        int oldSegmentSlots = oldCapacity / oldSegments.length;
+        for (int j = 0; j < oldCapacity; j++) {
+            long slot = oldSegments[j / oldSegmentSlots].get(j % oldSegmentSlots);
+            if (slot == 0) {
+                continue;
+            }
+            setSlot(LinearProbing.freeSlot(slots, slotHash(slot), mask), slot);
+        }
+    }
+
+    /**
+     * Returns the value mapped to key, or the no-entry value if there is no
+     * such mapping.
+     */
+    public long get(String key) {
+        int i = findSlot(key.getBytes(StandardCharsets.UTF_8), spread(key.hashCode()));
+        if (i < 0) {
+            return noEntryValue;
+        }
+        return readValue(slotAddress(slot(i)));
+    }
+
+    /** Returns whether this map contains a mapping for the specified key. */
+    public boolean containsKey(String key) {
+        return findSlot(key.getBytes(StandardCharsets.UTF_8), spread(key.hashCode())) >= 0;
+    }
+
+    /** Returns the value that get and remove return for missing keys. */
+    public long noEntryValue() {
+        return noEntryValue;
+    }
+
+    /** Returns the number of key-value mappings in this map. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the bytes of direct memory held by the arena and the index. */
+    public long offHeapBytes() {
+        return ((long) chunks.size() << chunkBits) + (long) capacity * Long.BYTES;
+    }
+
+    /** Removes every mapping from this map and drops the arena. */
+    public void clear() {
+        chunks.clear();
+        chunkTop = 1 << chunkBits;
+        createIndex(LinearProbing.tableSizeFor(INITIAL_CAPACITY));
+        size = 0;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present,
+     * and returns its value, or the no-entry value if there is no such mapping.
+     */
+    public long remove(String key) {
+        int i = findSlot(key.getBytes(StandardCharsets.UTF_8), spread(key.hashCode()));
+        if (i < 0) {
+            return noEntryValue;
+        }
+        long value = readValue(slotAddress(slot(i)));
+        LinearProbing.deleteSlot(slots, i, capacity - 1);
+        size -= 1;
+        return value;
+    }
+
+    /** Returns an iterator over the keys of this map, decoding each one. */
+    public Iterator<String> keyIterator() {
+        return new KeyIterator();
+    }
+
+    /**
+     * Returns a Map61B view of this map. Values are boxed on the way in and
+     * out of the view, and missing keys map to null as Map61B requires.
+     * Putting a null value through the view throws IllegalArgumentException.
+     */
+    public Map61B<String, Long> asMap61B() {
+        return new Map61BView();
+    }
+
+    /**
+     * Key iterator class that walks the index and skips empty slots.
+     */
+    private class KeyIterator implements Iterator<String> {
+        private int index = 0;
+        private int returned = 0;
+
+        public boolean hasNext() {
+            return returned < size;
+        }
+
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            while (slot(index) == 0) {
+                index++;
+            }
+            returned++;
+            return readKey(slotAddress(slot(index++)));
+        }
+    }
+
+    /**
+     * Adapter that exposes this map through the Map61B interface.
+     */
+    private class Map61BView implements Map61B<String, Long> {
+
+        @Override
+        public void put(String key, Long value) {
+            if (value == null) {
+                throw new IllegalArgumentException("OffHeapStringMap cannot store null values");
+            }
+            OffHeapStringMap.this.put(key, value);
+        }
+
+        @Override
+        public Long get(String key) {
+            int i = findSlot(key.getBytes(StandardCharsets.UTF_8), spread(key.hashCode()));
+            if (i < 0) {
+                return null;
+            }
+            return readValue(slotAddress(slot(i)));
+        }
+
+        @Override
+        public boolean containsKey(String key) {
+            return OffHeapStringMap.this.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            OffHeapStringMap.this.clear();
+        }
+
+        @Override
+        public Set<String> keySet() {
+            HashSet<String> set = new HashSet<>();
+            for (String key : this) {
+                set.add(key);
+            }
+            return set;
+        }
+
+        @Override
+        public Long remove(String key) {
+            if (!OffHeapStringMap.this.containsKey(key)) {
+                return null;
+            }
+            return OffHeapStringMap.this.remove(key);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return keyIterator();
+        }
+    }
+
+}
@@ -0,0 +1,247 @@
+package hashmap;
+
+import java.util.*;
+
+/**
+ * A hash table-backed Map implementation that uses open addressing with
+ * linear probing instead of per-bucket collections.
+ * <p>
+ * Keys, values and cached hash codes live in three parallel arrays, so a put
+ * allocates nothing besides the occasional resize and a get touches at most a
+ * few adjacent array slots instead of chasing a Node and a LinkedList node.
+ * Removal uses backward-shift deletion, so the table never fills up with
+ * tombstones.
+ * <p>
+ * Assumes null keys will never be inserted, and does not resize down upon remove().
+ *
+ * @author Xiaocheng Sun
+ */
+public class OpenAddressingMap<K, V> implements Map61B<K, V> {
+
+    /* Instance Variables */
+    private K[] keys;
+    private V[] values;
+    // cached (spread) hash code of keys[i], so probing can skip most equals calls
+    private int[] hashes;
+    private static final int INITIAL_CAPACITY = 16;
+    // linear probing degrades quickly past half full, so stay lower than MyHashMap
+    private static final double DEFAULT_LOAD_FACTOR = 0.5;
+    private final double maxLoadFactor;
+    private int size = 0;
+    private final LinearProbing.Slots slots = new LinearProbing.Slots() {
+        public boolean isFree(int i) {
+            return keys[i] == null;
+        }
+
+        public int hash(int i) {
+            return hashes[i];
+        }
+
+        public void move(int from, int to) {
+            keys[to] = keys[from];
+            values[to] = values[from];
+            hashes[to] = hashes[from];
+        }
+
+        public void free(int i) {
+            keys[i] = null;
+            values[i] = null;
+            hashes[i] = 0;
+        }
+    };
+
+    /**
+     * Constructors
+     */
+    public OpenAddressingMap() {
+        this(INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public OpenAddressingMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * OpenAddressingMap constructor that creates backing arrays of at least
+     * initialCapacity slots. The capacity is rounded up to a power of two so that
+     * slot indices can be computed with a bit mask.
+     * The load factor (# items / # slots) should always be <= loadFactor
+     *
+     * @param initialCapacity initial size of backing arrays
+     * @param loadFactor      maximum load factor, must be in (0, 1)
+     */
+    public OpenAddressingMap(int initialCapacity, double loadFactor) {
+        if (loadFactor <= 0 || loadFactor >= 1) {
+            throw new IllegalArgumentException("Load factor must be in (0, 1): " + loadFactor);
+        }
+        this.maxLoadFactor = loadFactor;
+        createTable(LinearProbing.tableSizeFor(initialCapacity));
+    }
+
+    /**
+     * Allocates empty backing arrays with the given number of slots.
+     *
+     * @param capacity number of slots, must be a power of two
+     */
+    @SuppressWarnings("unchecked")
+    private void createTable(int capacity) {
+        keys = (K[]) new Object[capacity];
+        values = (V[]) new Object[capacity];
+        hashes = new int[capacity];
+    }
+
+    /**
+     * Mixes the high bits of the hash code into the low bits, since only the
+     * low bits are used to pick the home slot.
+     */
+    private static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+
+    /**
+     * Returns the slot holding the given key, or -1 if the key is absent.
+     *
+     * @param key  to look for
+     * @param hash spread hash code of the key
+     */
+    private int findSlot(K key, int hash) {
+        int mask = keys.length - 1;
+        for (int i = hash & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        int hash = spread(key.hashCode());
+        int mask = keys.length - 1;
+        int i = hash & mask;
+        // walk the cluster, replacing the value if the key is already present
+        while (keys[i] != null) {
+            if (hashes[i] == hash && keys[i].equals(key)) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        // the key is absent, so claim the first empty slot past the cluster
+        keys[i] = key;
+        values[i] = value;
+        hashes[i] = hash;
+        size += 1;
+        if (1.0 * size / keys.length > maxLoadFactor) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Resize the backing arrays and re-insert every entry.
+     * <p>
+     * Entries are visited starting just after an empty slot so that every
+     * cluster is walked front to back, which keeps colliding keys in the same
+     * relative probe order they had before the resize.
+     *
+     * @param capacity of the new backing arrays, must be a power of two
+     */
+    private void resize(int capacity) {
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        int[] oldHashes = hashes;
+        createTable(capacity);
+        int mask = capacity - 1;
+
+        int oldMask = oldKeys.length - 1;
+        int start = 0;
+        while (oldKeys[start] != null) {
+            start += 1; // there is always an empty slot since the load factor is < 1
+        }
+        for (int n = 1; n <= oldKeys.length; n++) {
+            int j = (start + n) & oldMask;
+            if (oldKeys[j] == null) {
+                continue;
+            }
+            int i = LinearProbing.freeSlot(slots, oldHashes[j], mask);
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+            hashes[i] = oldHashes[j];
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        int slot = findSlot(key, spread(key.hashCode()));
+        if (slot < 0) {
+            return null;
+        }
+        return values[slot];
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return findSlot(key, spread(key.hashCode())) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        createTable(LinearProbing.tableSizeFor(INITIAL_CAPACITY));
+        size = 0;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        HashSet<K> set = new HashSet<>();
+        for (K key : this) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    @Override
+    public V remove(K key) {
+        int slot = findSlot(key, spread(key.hashCode()));
+        if (slot < 0) {
+            return null;
+        }
+        V value = values[slot];
+        LinearProbing.deleteSlot(slots, slot, keys.length - 1);
+        size -= 1;
+        return value;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /**
+     * Key iterator class that walks the key array and skips empty slots.
+     */
+    private class KeyIterator implements Iterator<K> {
+        private int index = 0;
+        private int returned = 0;
+
+        public boolean hasNext() {
+            return returned < size;
+        }
+
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            while (keys[index] == null) {
+                index++;
+            }
+            returned++;
+            return keys[index++];
+        }
+    }
+
+}
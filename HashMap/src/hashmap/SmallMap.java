@@ -0,0 +1,214 @@
+package hashmap;
+
+import java.util.*;
+
+/**
+ * A Map61B for maps that usually stay tiny, with a MyHashMap fallback for the
+ * ones that do not.
+ * <p>
+ * Up to promoteThreshold pairs are kept in three parallel arrays of hash
+ * codes, keys and values, so a lookup is one scan over a short int[] that
+ * only calls equals() on keys whose hash code matches. Unlike ULLMap there is
+ * no node per pair and no pointer chasing, and the arrays fit in a few cache
+ * lines. Once a put() would go past the threshold, the pairs move into a
+ * MyHashMap and every later call is passed on to it; the map stays promoted
+ * even if removes shrink it again.
+ * <p>
+ * Assumes null keys will never be inserted.
+ *
+ * @author Xiaocheng Sun
+ */
+public class SmallMap<K, V> implements Map61B<K, V> {
+
+    /* Instance Variables */
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int DEFAULT_PROMOTE_THRESHOLD = 16;
+    private final int promoteThreshold;
+    // key.hashCode() of each pair, scanned before calling equals()
+    private int[] hashes;
+    private Object[] keys;
+    private Object[] values;
+    private int size = 0;
+    // holds every pair once promoted, null until then
+    private MyHashMap<K, V> promoted = null;
+
+    /**
+     * Constructors
+     */
+    public SmallMap() {
+        this(DEFAULT_PROMOTE_THRESHOLD);
+    }
+
+    /**
+     * SmallMap constructor that moves the pairs into a MyHashMap once there
+     * are more than promoteThreshold of them.
+     *
+     * @param promoteThreshold most pairs kept in the arrays, at least 1
+     */
+    public SmallMap(int promoteThreshold) {
+        if (promoteThreshold < 1) {
+            throw new IllegalArgumentException("promoteThreshold must be positive: " + promoteThreshold);
+        }
+        this.promoteThreshold = promoteThreshold;
+        int capacity = Math.min(INITIAL_CAPACITY, promoteThreshold);
+        hashes = new int[capacity];
+        keys = new Object[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Returns true once the pairs have moved into a MyHashMap.
+     */
+    public boolean isPromoted() {
+        return promoted != null;
+    }
+
+    /**
+     * Returns the index of key in the arrays, or -1 if it is absent.
+     */
+    private int indexOf(K key, int hash) {
+        for (int i = 0; i < size; i++) {
+            if (hashes[i] == hash && key.equals(keys[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (promoted != null) {
+            promoted.put(key, value);
+            return;
+        }
+        int hash = key.hashCode();
+        int i = indexOf(key, hash);
+        if (i >= 0) {
+            values[i] = value;
+            return;
+        }
+        if (size == promoteThreshold) {
+            promote();
+            promoted.put(key, value);
+            return;
+        }
+        if (size == keys.length) {
+            int capacity = Math.min(2 * keys.length, promoteThreshold);
+            hashes = Arrays.copyOf(hashes, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        hashes[size] = hash;
+        keys[size] = key;
+        values[size] = value;
+        size += 1;
+    }
+
+    /**
+     * Moves every pair into a new MyHashMap and drops the arrays.
+     */
+    @SuppressWarnings("unchecked")
+    private void promote() {
+        promoted = new MyHashMap<>();
+        promoted.ensureCapacity(2 * size);
+        for (int i = 0; i < size; i++) {
+            promoted.put((K) keys[i], (V) values[i]);
+        }
+        hashes = null;
+        keys = null;
+        values = null;
+        size = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        if (promoted != null) {
+            return promoted.get(key);
+        }
+        int i = indexOf(key, key.hashCode());
+        return i < 0 ? null : (V) values[i];
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        if (promoted != null) {
+            return promoted.containsKey(key);
+        }
+        return indexOf(key, key.hashCode()) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return promoted != null ? promoted.size() : size;
+    }
+
+    @Override
+    public void clear() {
+        if (promoted != null) {
+            promoted.clear();
+            return;
+        }
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        if (promoted != null) {
+            return promoted.keySet();
+        }
+        HashSet<K> set = new HashSet<>();
+        for (K key : this) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    /**
+     * Removes the pair of key, moving the last pair into its place.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        if (promoted != null) {
+            return promoted.remove(key);
+        }
+        int i = indexOf(key, key.hashCode());
+        if (i < 0) {
+            return null;
+        }
+        V value = (V) values[i];
+        size -= 1;
+        hashes[i] = hashes[size];
+        keys[i] = keys[size];
+        values[i] = values[size];
+        keys[size] = null;
+        values[size] = null;
+        return value;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        if (promoted != null) {
+            return promoted.iterator();
+        }
+        return new Iterator<>() {
+            private int next = 0;
+
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @SuppressWarnings("unchecked")
+            public K next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return (K) keys[next++];
+            }
+        };
+    }
+
+}
@@ -16,7 +16,18 @@ public class MyHashMapFactory {
      * @param bucketType the type of bucket to use
      */
     public static <K, V> MyHashMap<K, V> createBucketedMap(Class<? extends Collection> bucketType) {
-        return new MyHashMap<>() {
+        return createBucketedMap(bucketType, 16, 0.75);
+    }
+
+    /** Returns a MyHashMap with the specified bucket type, capacity and load factor.
+     * @param bucketType the type of bucket to use
+     * @param initialCapacity initial size of the backing array
+     * @param loadFactor maximum load factor
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <K, V> MyHashMap<K, V> createBucketedMap(Class<? extends Collection> bucketType,
+                                                           int initialCapacity, double loadFactor) {
+        return new MyHashMap<>(initialCapacity, loadFactor) {
             @Override
             protected Collection<Node> createBucket() {
                 try {
@@ -0,0 +1,159 @@
+package hashmap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of BoundedCache eviction, admission and counters.
+ */
+public class TestBoundedCache {
+
+    @DisplayName("LRU eviction matches an access-ordered LinkedHashMap")
+    @Test
+    public void testRandomizedLRU() {
+        int maxEntries = 100;
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(maxEntries);
+        Map<Integer, Integer> ref = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        Random random = new Random(61);
+        long evictions = 0;
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(300);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                if (!ref.containsKey(key) && ref.size() == maxEntries) {
+                    evictions++;
+                }
+                cache.put(key, i);
+                ref.put(key, i);
+            } else if (op == 1) {
+                assertThat(cache.remove(key)).isEqualTo(ref.remove(key));
+            } else {
+                assertThat(cache.get(key)).isEqualTo(ref.get(key));
+            }
+            assertThat(cache.size()).isEqualTo(ref.size());
+        }
+        assertThat(cache.keySet()).isEqualTo(ref.keySet());
+        assertThat(cache.evictionCount()).isEqualTo(evictions);
+        assertThat(cache.weight()).isEqualTo(ref.size());
+    }
+
+    @DisplayName("the least recently used pair is evicted first")
+    @Test
+    public void testEvictionOrder() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        // touching a makes b the least recently used
+        cache.get("a");
+        cache.put("d", 4);
+        assertThat(cache.containsKey("b")).isFalse();
+        // replacing a value counts as a use too
+        cache.put("c", 30);
+        cache.put("e", 5);
+        assertThat(cache.keySet()).containsExactly("c", "d", "e");
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(0);
+        assertThat(cache.evictionCount()).isEqualTo(2);
+        cache.clear();
+        assertThat(cache.get("c")).isNull();
+        assertThat(cache.hitRatio()).isWithin(1e-9).of(0.5);
+        cache.put("f", 6);
+        assertThat(cache.keySet()).containsExactly("f");
+    }
+
+    @DisplayName("max weight evicts until the weights fit")
+    @Test
+    public void testWeight() {
+        BoundedCache<String, String> cache = new BoundedCache<>(100, 10, (k, v) -> v.length());
+        cache.put("a", "xxxx");
+        cache.put("b", "xxxx");
+        assertThat(cache.weight()).isEqualTo(8);
+        cache.put("c", "xxxx");
+        assertThat(cache.keySet()).containsExactly("b", "c");
+        // growing a value can evict others, and a pair too heavy on its own is dropped
+        cache.put("c", "xxxxxxxx");
+        assertThat(cache.keySet()).containsExactly("c");
+        cache.put("d", "xxxxxxxxxxxx");
+        assertThat(cache.keySet()).containsExactly("c");
+        assertThat(cache.weight()).isEqualTo(8);
+        assertThrows(IllegalArgumentException.class, () -> cache.put("e", null));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>(0));
+    }
+
+    @DisplayName("setValue on an entry weighs, touches and evicts like put")
+    @Test
+    public void testEntrySetValue() {
+        BoundedCache<String, String> cache = new BoundedCache<>(3, 10, (k, v) -> v.length());
+        cache.put("a", "xx");
+        cache.put("b", "xx");
+        cache.put("c", "xx");
+        assertThat(entry(cache, "a").setValue("xxxx")).isEqualTo("xx");
+        assertThat(cache.weight()).isEqualTo(8);
+        // a is now the most recently used, so d evicts b
+        cache.put("d", "x");
+        assertThat(cache.keySet()).containsExactly("a", "c", "d");
+        // growing a past maxWeight evicts the least recently used pair
+        entry(cache, "a").setValue("xxxxxxxx");
+        assertThat(cache.keySet()).containsExactly("a", "d");
+        assertThat(cache.weight()).isEqualTo(9);
+        assertThat(cache.evictionCount()).isEqualTo(2);
+
+        assertThrows(IllegalArgumentException.class, () -> entry(cache, "d").setValue(null));
+        assertThat(cache.get("d")).isEqualTo("x");
+        assertThat(cache.weight()).isEqualTo(9);
+    }
+
+    private static <K, V> Map.Entry<K, V> entry(BoundedCache<K, V> cache, K key) {
+        for (Map.Entry<K, V> entry : cache.entries()) {
+            if (entry.getKey().equals(key)) {
+                return entry;
+            }
+        }
+        throw new AssertionError("no entry for " + key);
+    }
+
+    @DisplayName("frequency admission keeps popular keys through a scan")
+    @Test
+    public void testFrequencyAdmission() {
+        BoundedCache<Integer, Integer> lru = new BoundedCache<>(100);
+        BoundedCache<Integer, Integer> admitting = new BoundedCache<>(100);
+        admitting.useFrequencyAdmission();
+        for (BoundedCache<Integer, Integer> cache : java.util.List.of(lru, admitting)) {
+            for (int round = 0; round < 5; round++) {
+                for (int key = 0; key < 100; key++) {
+                    if (cache.get(key) == null) {
+                        cache.put(key, key);
+                    }
+                }
+            }
+            // a scan of one-off keys
+            for (int key = 1000; key < 2000; key++) {
+                if (cache.get(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+        int lruKept = 0;
+        int admittingKept = 0;
+        for (int key = 0; key < 100; key++) {
+            lruKept += lru.containsKey(key) ? 1 : 0;
+            admittingKept += admitting.containsKey(key) ? 1 : 0;
+        }
+        assertThat(lruKept).isEqualTo(0);
+        assertThat(admittingKept).isEqualTo(100);
+        assertThat(admitting.size()).isEqualTo(100);
+    }
+}
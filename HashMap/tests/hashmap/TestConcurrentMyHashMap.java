@@ -0,0 +1,148 @@
+package hashmap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests of ConcurrentMyHashMap: the shared single-threaded tests, and a few
+ * multi-threaded tests that check nothing is lost or torn under contention.
+ */
+public class TestConcurrentMyHashMap {
+
+    private static final int THREADS = 8;
+
+    @DisplayName("shared single-threaded tests")
+    @Test
+    public void testSanity() {
+        TestMyHashMap.sanityClearTest(new ConcurrentMyHashMap<>());
+        TestMyHashMap.sanityGetTest(new ConcurrentMyHashMap<>());
+        TestMyHashMap.sanitySizeTest(new ConcurrentMyHashMap<>());
+        TestMyHashMap.sanityPutTest(new ConcurrentMyHashMap<>());
+        TestMyHashMap.functionalityTest(new ConcurrentMyHashMap<>(), new ConcurrentMyHashMap<>());
+        TestMyHashMap.edgeCasesTest(new ConcurrentMyHashMap<>());
+        TestMyHashMapExtra.sanityKeySetTest(new ConcurrentMyHashMap<>());
+        TestMyHashMapModes.randomizedTest(new ConcurrentMyHashMap<>(), new Random(61));
+    }
+
+    @DisplayName("null values")
+    @Test
+    public void testNullValues() {
+        TestMyHashMap.containsKeyTest(new ConcurrentMyHashMap<>());
+    }
+
+    @DisplayName("concurrent puts of disjoint keys are all kept")
+    @Test
+    public void testConcurrentPuts() throws InterruptedException {
+        ConcurrentMyHashMap<Integer, Integer> map = new ConcurrentMyHashMap<>();
+        int perThread = 20000;
+        runInParallel(t -> {
+            for (int i = 0; i < perThread; i++) {
+                int key = t * perThread + i;
+                map.put(key, -key);
+            }
+        });
+        assertThat(map.size()).isEqualTo(THREADS * perThread);
+        for (int key = 0; key < THREADS * perThread; key++) {
+            assertThat(map.get(key)).isEqualTo(-key);
+        }
+    }
+
+    @DisplayName("readers never miss stable keys while writers resize")
+    @Test
+    public void testReadsDuringResize() throws InterruptedException {
+        ConcurrentMyHashMap<Integer, Integer> map = new ConcurrentMyHashMap<>();
+        int stable = 1000;
+        for (int key = 0; key < stable; key++) {
+            map.put(key, key);
+        }
+        ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        runInParallel(t -> {
+            if (t % 2 == 0) {
+                // writers keep growing the map, forcing segment resizes
+                for (int i = 0; i < 50000; i++) {
+                    int key = stable + t * 50000 + i;
+                    map.put(key, key);
+                    if (i >= 10) {
+                        map.remove(key - 10);
+                    }
+                }
+            } else {
+                for (int round = 0; round < 50; round++) {
+                    for (int key = 0; key < stable; key++) {
+                        Integer value = map.get(key);
+                        if (value == null || value != key) {
+                            errors.add("key " + key + " read as " + value);
+                        }
+                    }
+                }
+            }
+        });
+        assertThat(errors).isEmpty();
+    }
+
+    @DisplayName("concurrent put/remove on shared keys keeps size consistent")
+    @Test
+    public void testConcurrentPutRemove() throws InterruptedException {
+        ConcurrentMyHashMap<Integer, Integer> map = new ConcurrentMyHashMap<>();
+        runInParallel(t -> {
+            Random random = new Random(t);
+            for (int i = 0; i < 50000; i++) {
+                int key = random.nextInt(500);
+                if (random.nextBoolean()) {
+                    map.put(key, key);
+                } else {
+                    map.remove(key);
+                }
+            }
+        });
+        int count = 0;
+        for (int key : map) {
+            assertThat(map.get(key)).isEqualTo(key);
+            count++;
+        }
+        assertThat(map.size()).isEqualTo(count);
+    }
+
+    /** Body of one test thread, given its index. */
+    private interface ThreadBody {
+        void run(int threadIndex);
+    }
+
+    /**
+     * Runs body on THREADS threads started together, and rethrows the first
+     * failure from any of them.
+     */
+    private static void runInParallel(ThreadBody body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (int t = 0; t < THREADS; t++) {
+            int index = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    body.run(index);
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.peek());
+        }
+    }
+}
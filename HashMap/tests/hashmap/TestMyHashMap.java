@@ -41,7 +41,7 @@ public class TestMyHashMap {
         sanityClearTest(new MyHashMap<>());
     }
 
-    public static void sanityClearTest(MyHashMap<String, Integer> b) {
+    public static void sanityClearTest(Map61B<String, Integer> b) {
         for (int i = 0; i < 455; i++) {
             b.put("hi" + i, i);
             //make sure put is working via containsKey and get
@@ -64,7 +64,7 @@ public class TestMyHashMap {
         containsKeyTest(new MyHashMap<>());
     }
 
-    public static void containsKeyTest(MyHashMap<String, Integer> b) {
+    public static void containsKeyTest(Map61B<String, Integer> b) {
         assertThat(b.containsKey("waterYouDoingHere")).isFalse();
         b.put("waterYouDoingHere", 0);
         assertThat(b.containsKey("waterYouDoingHere")).isTrue();
@@ -81,7 +81,7 @@ public class TestMyHashMap {
         sanityGetTest(new MyHashMap<>());
     }
 
-    public static void sanityGetTest(MyHashMap<String, Integer> b) {
+    public static void sanityGetTest(Map61B<String, Integer> b) {
         assertThat(b.get("starChild")).isNull();
         b.put("starChild", 5);
         assertThat(b.get("starChild")).isEqualTo(5);
@@ -97,7 +97,7 @@ public class TestMyHashMap {
         sanitySizeTest(new MyHashMap<>());
     }
 
-    public static void sanitySizeTest(MyHashMap<String, Integer> b) {
+    public static void sanitySizeTest(Map61B<String, Integer> b) {
         assertThat(b.size()).isEqualTo(0);
         b.put("hi", 1);
         assertThat(b.size()).isEqualTo(1);
@@ -114,7 +114,7 @@ public class TestMyHashMap {
         sanityPutTest(new MyHashMap<>());
     }
 
-    public static void sanityPutTest(MyHashMap<String, Integer> b) {
+    public static void sanityPutTest(Map61B<String, Integer> b) {
         b.put("hi", 1);
         assertThat(b.containsKey("hi")).isTrue();
         assertThat(b.get("hi")).isEqualTo(1);
@@ -127,8 +127,8 @@ public class TestMyHashMap {
         functionalityTest(new MyHashMap<>(), new MyHashMap<>());
     }
 
-    public static void functionalityTest(MyHashMap<String, String> dictionary,
-                                         MyHashMap<String, Integer> studentIDs) {
+    public static void functionalityTest(Map61B<String, String> dictionary,
+                                         Map61B<String, Integer> studentIDs) {
         assertThat(dictionary.size()).isEqualTo(0);
 
         // can put objects in dictionary and get them
@@ -204,7 +204,7 @@ public class TestMyHashMap {
      * <p>
      * Don't worry about knowing how this method works.
      */
-    private static <K, V> int sizeOfBackingArray(MyHashMap<K, V> m) {
+    static <K, V> int sizeOfBackingArray(MyHashMap<K, V> m) {
         Class<?> clazz = m.getClass();
         if (clazz.getSuperclass().equals(MyHashMap.class)) {
             // anonymous bucketed extensions of MyHashMap
@@ -243,7 +243,7 @@ public class TestMyHashMap {
      * Does your map behave the same way?
      * Note Bee's strange equals and hashCode implementations!
      */
-    static void edgeCasesTest(MyHashMap<Bee, Integer> map) {
+    static void edgeCasesTest(Map61B<Bee, Integer> map) {
 
         Map<Bee, Integer> ref = new HashMap<>();
 
@@ -9,6 +9,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import java.util.*;
 import java.util.stream.Stream;
 
+import static com.google.common.truth.Truth.assertThat;
 import static hashmap.MyHashMapFactory.createBucketedMap;
 
 /**
@@ -92,6 +93,27 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.edgeCasesTest(createBucketedMap(bucketType));
     }
 
+    @DisplayName("remove after overwriting a value")
+    @ParameterizedTest
+    @MethodSource("bucketArguments")
+    public void overwriteThenRemoveTest(Class<? extends Collection<?>> bucketType) {
+        // a node's hashCode() changes with its value, which a HashSet bucket must survive
+        MyHashMap<String, Integer> map = createBucketedMap(bucketType);
+        for (int i = 0; i < 100; i++) {
+            map.put("k" + i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            map.put("k" + i, -i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            assertThat(map.remove("k" + i)).isEqualTo(-i);
+        }
+        assertThat(map.size()).isEqualTo(50);
+        for (int i = 0; i < 100; i++) {
+            assertThat(map.containsKey("k" + i)).isEqualTo(i % 2 == 1);
+        }
+    }
+
     private static Stream<Arguments> bucketArguments() {
         return Stream.of(
                 Arguments.of(Named.of("LinkedList", LinkedList.class)),
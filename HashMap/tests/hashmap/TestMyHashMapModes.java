@@ -0,0 +1,737 @@
+package hashmap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the optional table modes of MyHashMap. Each mode reruns the shared
+ * TestMyHashMap bodies and is then checked against java.util.HashMap under a
+ * random mix of operations.
+ */
+public class TestMyHashMapModes {
+
+    private static MyHashMap<String, Integer> incremental() {
+        MyHashMap<String, Integer> map = new MyHashMap<>();
+        map.useIncrementalResize(1);
+        return map;
+    }
+
+    @DisplayName("incremental resize: shared tests")
+    @Test
+    public void testIncrementalResizeSanity() {
+        TestMyHashMap.sanityClearTest(incremental());
+        TestMyHashMap.containsKeyTest(incremental());
+        TestMyHashMap.sanityGetTest(incremental());
+        TestMyHashMap.sanitySizeTest(incremental());
+        TestMyHashMap.sanityPutTest(incremental());
+        TestMyHashMap.sanityResizeTest(incremental(), 16, 0.75);
+        TestMyHashMapExtra.sanityKeySetTest(incremental());
+
+        MyHashMap<TestMyHashMap.Bee, Integer> bees = new MyHashMap<>();
+        bees.useIncrementalResize(1);
+        TestMyHashMap.edgeCasesTest(bees);
+    }
+
+    @DisplayName("incremental resize: randomized against java.util.HashMap")
+    @Test
+    public void testIncrementalResizeRandomized() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>();
+        map.useIncrementalResize(1);
+        randomizedTest(map, new Random(61));
+    }
+
+    @DisplayName("incremental resize: each resize finishes before the next one starts")
+    @Test
+    public void testIncrementalResizePacing() {
+        MyHashMap<String, Integer> map = incremental();
+        int capacity = 16;
+        for (int i = 0; i < 100000; i++) {
+            if (i + 1 > 0.75 * capacity) {
+                // this put starts a resize; the old table of the last one must be gone,
+                // or the put would have to move what is left of it all at once
+                assertThat(map.stats().getCapacity()).isEqualTo(capacity);
+                capacity *= 2;
+            }
+            map.put("key" + i, i);
+        }
+        for (int i = 0; i < 100000; i++) {
+            assertThat(map.get("key" + i)).isEqualTo(i);
+        }
+    }
+
+    @DisplayName("incremental resize: iteration sees old and new tables")
+    @Test
+    public void testIncrementalResizeIteration() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>();
+        map.useIncrementalResize(1);
+        Set<Integer> expected = new HashSet<>();
+        // check the key set after every put, so it is taken mid-resize many times
+        for (int i = 0; i < 2000; i++) {
+            map.put(i, i);
+            expected.add(i);
+            Set<Integer> seen = new HashSet<>();
+            for (int key : map) {
+                assertThat(map.get(key)).isEqualTo(key);
+                seen.add(key);
+            }
+            assertThat(seen).isEqualTo(expected);
+        }
+    }
+
+    private static MyHashMap<String, Integer> powerOfTwo() {
+        MyHashMap<String, Integer> map = new MyHashMap<>();
+        map.usePowerOfTwoTable();
+        return map;
+    }
+
+    @DisplayName("power-of-two table: shared tests")
+    @Test
+    public void testPowerOfTwoSanity() {
+        TestMyHashMap.sanityClearTest(powerOfTwo());
+        TestMyHashMap.containsKeyTest(powerOfTwo());
+        TestMyHashMap.sanityGetTest(powerOfTwo());
+        TestMyHashMap.sanitySizeTest(powerOfTwo());
+        TestMyHashMap.sanityPutTest(powerOfTwo());
+        TestMyHashMap.sanityResizeTest(powerOfTwo(), 16, 0.75);
+        TestMyHashMapExtra.sanityKeySetTest(powerOfTwo());
+
+        MyHashMap<TestMyHashMap.Bee, Integer> bees = new MyHashMap<>();
+        bees.usePowerOfTwoTable();
+        TestMyHashMap.edgeCasesTest(bees);
+    }
+
+    @DisplayName("power-of-two table: randomized against java.util.HashMap")
+    @Test
+    public void testPowerOfTwoRandomized() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>();
+        map.usePowerOfTwoTable();
+        randomizedTest(map, new Random(61));
+
+        // splitting buckets also has to work while resizing incrementally
+        MyHashMap<Integer, Integer> incremental = new MyHashMap<>();
+        incremental.usePowerOfTwoTable();
+        incremental.useIncrementalResize(1);
+        randomizedTest(incremental, new Random(62));
+    }
+
+    @DisplayName("power-of-two table: switching a non-empty map rounds its capacity up")
+    @Test
+    public void testPowerOfTwoSwitch() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>(10);
+        for (int i = 0; i < 7; i++) {
+            // multiples of 64 would all share bucket 0 of a masked table without spreading
+            map.put(i * 64, i);
+        }
+        map.usePowerOfTwoTable();
+        for (int i = 7; i < 1000; i++) {
+            map.put(i * 64, i);
+        }
+        assertThat(map.size()).isEqualTo(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(map.get(i * 64)).isEqualTo(i);
+        }
+    }
+
+    @DisplayName("power-of-two table: switching a map whose capacity is already a power of two rehashes it")
+    @Test
+    public void testPowerOfTwoSwitchSameCapacity() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(i, -i);
+        }
+        map.usePowerOfTwoTable();
+        map.usePowerOfTwoTable();
+        assertThat(map.size()).isEqualTo(10);
+        for (int i = 0; i < 10; i++) {
+            assertThat(map.containsKey(i)).isTrue();
+            assertThat(map.get(i)).isEqualTo(-i);
+        }
+        for (int i = 10; i < 100; i++) {
+            map.put(i, -i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertThat(map.remove(i)).isEqualTo(-i);
+        }
+        assertThat(map.size()).isEqualTo(0);
+    }
+
+    @DisplayName("shrinking: a drained map halves its table down to the initial capacity")
+    @Test
+    public void testShrinkOnRemove() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>(16, 0.75);
+        map.setShrinkLoadFactor(0.25);
+        for (int i = 0; i < 10000; i++) {
+            map.put(i, i);
+        }
+        int grown = TestMyHashMap.sizeOfBackingArray(map);
+        for (int i = 0; i < 9990; i++) {
+            map.remove(i);
+            double load = 1.0 * map.size() / TestMyHashMap.sizeOfBackingArray(map);
+            assertThat(load >= 0.25 || TestMyHashMap.sizeOfBackingArray(map) == 16).isTrue();
+        }
+        assertThat(TestMyHashMap.sizeOfBackingArray(map)).isLessThan(grown);
+        for (int i = 9990; i < 10000; i++) {
+            assertThat(map.get(i)).isEqualTo(i);
+        }
+        for (int i = 9990; i < 10000; i++) {
+            map.remove(i);
+        }
+        assertThat(TestMyHashMap.sizeOfBackingArray(map)).isEqualTo(16);
+    }
+
+    @DisplayName("shrinking: randomized against java.util.HashMap in every table mode")
+    @Test
+    public void testShrinkRandomized() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>();
+        map.setShrinkLoadFactor(0.2);
+        randomizedTest(map, new Random(61));
+
+        MyHashMap<Integer, Integer> incremental = new MyHashMap<>();
+        incremental.setShrinkLoadFactor(0.2);
+        incremental.useIncrementalResize(1);
+        randomizedTest(incremental, new Random(62));
+
+        MyHashMap<Integer, Integer> masked = new MyHashMap<>();
+        masked.setShrinkLoadFactor(0.2);
+        masked.usePowerOfTwoTable();
+        randomizedTest(masked, new Random(63));
+    }
+
+    @DisplayName("shrinking: low-water mark must stay below half the load factor")
+    @Test
+    public void testShrinkLoadFactorBounds() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>(16, 0.75);
+        assertThrows(IllegalArgumentException.class, () -> map.setShrinkLoadFactor(0.375));
+        assertThrows(IllegalArgumentException.class, () -> map.setShrinkLoadFactor(-0.1));
+        map.setShrinkLoadFactor(0);
+    }
+
+    @DisplayName("trimToSize: fits the table to the items")
+    @Test
+    public void testTrimToSize() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>(16, 0.5);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < 990; i++) {
+            map.remove(i);
+        }
+        map.trimToSize();
+        assertThat(TestMyHashMap.sizeOfBackingArray(map)).isEqualTo(20);
+        for (int i = 990; i < 1000; i++) {
+            assertThat(map.get(i)).isEqualTo(i);
+        }
+
+        MyHashMap<Integer, Integer> masked = new MyHashMap<>();
+        masked.usePowerOfTwoTable();
+        for (int i = 0; i < 100; i++) {
+            masked.put(i, i);
+        }
+        masked.trimToSize();
+        assertThat(TestMyHashMap.sizeOfBackingArray(masked)).isEqualTo(256);
+        masked.clear();
+        masked.trimToSize();
+        assertThat(TestMyHashMap.sizeOfBackingArray(masked)).isEqualTo(1);
+        masked.put(1, 1);
+        assertThat(masked.get(1)).isEqualTo(1);
+    }
+
+    @DisplayName("clear: keeps the table and its capacity")
+    @Test
+    public void testClearKeepsCapacity() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        int capacity = TestMyHashMap.sizeOfBackingArray(map);
+        map.clear();
+        assertThat(map.size()).isEqualTo(0);
+        assertThat(map.keySet()).isEmpty();
+        assertThat(TestMyHashMap.sizeOfBackingArray(map)).isEqualTo(capacity);
+        map.put(5, 5);
+        assertThat(map.get(5)).isEqualTo(5);
+    }
+
+    /** A MyHashMap that counts the buckets it creates. */
+    private static class CountingMap<K, V> extends MyHashMap<K, V> {
+        int bucketsCreated = 0;
+
+        CountingMap(int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        @Override
+        protected Collection<Node> createBucket() {
+            bucketsCreated += 1;
+            return super.createBucket();
+        }
+    }
+
+    @DisplayName("lazy buckets: only buckets that receive a key are created")
+    @Test
+    public void testLazyBuckets() {
+        CountingMap<Integer, Integer> map = new CountingMap<>(1 << 20);
+        assertThat(map.bucketsCreated).isEqualTo(0);
+        assertThat(map.get(7)).isNull();
+        assertThat(map.remove(7)).isNull();
+        assertThat(map.keySet()).isEmpty();
+        assertThat(map.bucketsCreated).isEqualTo(0);
+
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        assertThat(map.bucketsCreated).isEqualTo(100);
+        map.clear();
+        assertThat(map.size()).isEqualTo(0);
+        map.put(1, 1);
+        assertThat(map.bucketsCreated).isEqualTo(101);
+        assertThat(map.get(1)).isEqualTo(1);
+
+        // a doubled table only creates the buckets that nodes move into
+        CountingMap<Integer, Integer> growing = new CountingMap<>(16);
+        for (int i = 0; i < 13; i++) {
+            growing.put(i, i);
+        }
+        assertThat(growing.bucketsCreated).isEqualTo(13 + 13);
+    }
+
+    @DisplayName("bulk iteration: forEach, forEachKey and entries see every pair once")
+    @Test
+    public void testBulkIteration() {
+        MyHashMap<Integer, Integer> plain = new MyHashMap<>();
+        MyHashMap<Integer, Integer> incremental = new MyHashMap<>();
+        incremental.useIncrementalResize(1);
+        MyHashMap<Collider, Integer> tree = new MyHashMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            plain.put(i, -i);
+            incremental.put(i, -i);
+            tree.put(new Collider(i), -i);
+            expected.put(i, -i);
+            if (i % 97 == 0) {
+                // check mid-resize too
+                assertBulkIteration(incremental, expected);
+            }
+        }
+        assertBulkIteration(plain, expected);
+        assertBulkIteration(incremental, expected);
+
+        Map<Integer, Integer> seen = new HashMap<>();
+        tree.forEach((key, value) -> seen.put(key.id(), value));
+        assertThat(seen).isEqualTo(expected);
+    }
+
+    @DisplayName("bulk iteration: setValue on an entry writes through")
+    @Test
+    public void testEntrySetValue() {
+        MyHashMap<String, Integer> map = new MyHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put("k" + i, i);
+        }
+        for (Map.Entry<String, Integer> entry : map.entries()) {
+            assertThat(entry.setValue(entry.getValue() * 2)).isEqualTo(entry.getValue() / 2);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertThat(map.get("k" + i)).isEqualTo(2 * i);
+        }
+    }
+
+    @DisplayName("bulk iteration: entries equal those of java.util.HashMap")
+    @Test
+    public void testEntryEqualsAndHashCode() {
+        MyHashMap<String, Integer> map = new MyHashMap<>();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put("k" + i, i);
+            expected.put("k" + i, i);
+        }
+        map.put("null", null);
+        expected.put("null", null);
+
+        Set<Map.Entry<String, Integer>> entries = new HashSet<>();
+        int hashCode = 0;
+        for (Map.Entry<String, Integer> entry : map.entries()) {
+            assertThat(expected.entrySet()).contains(entry);
+            entries.add(entry);
+            hashCode += entry.hashCode();
+        }
+        assertThat(entries).isEqualTo(expected.entrySet());
+        assertThat(expected.entrySet()).isEqualTo(entries);
+        assertThat(hashCode).isEqualTo(expected.entrySet().hashCode());
+        assertThat(entries).doesNotContain(Map.entry("k0", 1));
+    }
+
+    @DisplayName("parallel bulk operations: putAll and parallelPutAll match put loops")
+    @Test
+    public void testParallelPutAll() {
+        MyHashMap<Integer, Integer> source = new MyHashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            source.put(i * 7, i);
+        }
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50000; i++) {
+            expected.put(i * 3, -i);
+        }
+        source.forEach(expected::put);
+
+        MyHashMap<Integer, Integer> sequential = new MyHashMap<>();
+        MyHashMap<Integer, Integer> parallel = new MyHashMap<>();
+        MyHashMap<Integer, Integer> masked = new MyHashMap<>();
+        masked.usePowerOfTwoTable();
+        MyHashMap<Integer, Integer> incremental = new MyHashMap<>();
+        incremental.useIncrementalResize(1);
+        for (int i = 0; i < 50000; i++) {
+            // keys that overlap with source, so some values are replaced
+            sequential.put(i * 3, -i);
+            parallel.put(i * 3, -i);
+            masked.put(i * 3, -i);
+            incremental.put(i * 3, -i);
+        }
+        sequential.putAll(source);
+        parallel.parallelPutAll(source);
+        masked.parallelPutAll(source);
+        incremental.parallelPutAll(source);
+        for (MyHashMap<Integer, Integer> map : List.of(sequential, parallel, masked, incremental)) {
+            assertThat(map.size()).isEqualTo(expected.size());
+            assertBulkIteration(map, expected);
+        }
+
+        // any Map61B works as a source, including colliding keys that end up in trees
+        OpenAddressingMap<Collider, Integer> colliders = new OpenAddressingMap<>();
+        for (int i = 0; i < 1000; i++) {
+            colliders.put(new Collider(i), i);
+        }
+        MyHashMap<Collider, Integer> tree = new MyHashMap<>();
+        tree.parallelPutAll(colliders);
+        assertThat(tree.size()).isEqualTo(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(tree.get(new Collider(i))).isEqualTo(i);
+        }
+    }
+
+    @DisplayName("parallel bulk operations: parallelForEach and parallelReduce see every pair")
+    @Test
+    public void testParallelForEachAndReduce() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>();
+        map.useIncrementalResize(1);
+        long expected = 0;
+        for (int i = 0; i < 100000; i++) {
+            map.put(i, i);
+            expected += i;
+        }
+        LongAdder sum = new LongAdder();
+        LongAdder count = new LongAdder();
+        map.parallelForEach((key, value) -> {
+            sum.add(value);
+            count.increment();
+        });
+        assertThat(sum.sum()).isEqualTo(expected);
+        assertThat(count.sum()).isEqualTo(100000);
+
+        assertThat(map.parallelReduce((key, value) -> (long) value, Long::sum)).isEqualTo(expected);
+        // null results are skipped
+        assertThat(map.parallelReduce((key, value) -> key % 2 == 0 ? null : 1, Integer::sum))
+                .isEqualTo(50000);
+        assertThat(new MyHashMap<Integer, Integer>().parallelReduce((k, v) -> v, Integer::sum))
+                .isNull();
+    }
+
+    private static void assertBulkIteration(MyHashMap<Integer, Integer> map,
+                                            Map<Integer, Integer> expected) {
+        Map<Integer, Integer> seen = new HashMap<>();
+        map.forEach((key, value) -> assertThat(seen.put(key, value)).isNull());
+        assertThat(seen).isEqualTo(expected);
+
+        Set<Integer> keys = new HashSet<>();
+        map.forEachKey(key -> assertThat(keys.add(key)).isTrue());
+        assertThat(keys).isEqualTo(expected.keySet());
+
+        Map<Integer, Integer> entries = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : map.entries()) {
+            assertThat(entries.put(entry.getKey(), entry.getValue())).isNull();
+        }
+        assertThat(entries).isEqualTo(expected);
+    }
+
+    /**
+     * A key whose hashCode() is the same for every instance, so every key
+     * lands in one bucket, but which can be ordered by its id.
+     */
+    private record Collider(int id) implements Comparable<Collider> {
+        @Override
+        public int hashCode() {
+            return 61;
+        }
+
+        @Override
+        public int compareTo(Collider other) {
+            return Integer.compare(id, other.id);
+        }
+    }
+
+    /** A colliding key that cannot be ordered. */
+    private record Unordered(int id) {
+        @Override
+        public int hashCode() {
+            return 61;
+        }
+    }
+
+    /** A colliding key whose compareTo() treats every id in the same tens as equal. */
+    private record Inconsistent(int id) implements Comparable<Inconsistent> {
+        @Override
+        public int hashCode() {
+            return 61;
+        }
+
+        /** Counts calls to compareTo(). */
+        static int compares = 0;
+
+        @Override
+        public int compareTo(Inconsistent other) {
+            compares += 1;
+            return Integer.compare(id / 10, other.id / 10);
+        }
+    }
+
+    @DisplayName("tree buckets: colliding comparable keys grow and shrink a tree")
+    @Test
+    public void testTreeBucketRandomized() {
+        MyHashMap<Collider, Integer> map = new MyHashMap<>();
+        Map<Collider, Integer> ref = new HashMap<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 50000; i++) {
+            // a small key range, so the bucket often crosses the treeify thresholds
+            Collider key = new Collider(random.nextInt(i < 25000 ? 400 : 12));
+            int op = random.nextInt(3);
+            if (op == 0) {
+                map.put(key, i);
+                ref.put(key, i);
+            } else if (op == 1) {
+                assertThat(map.remove(key)).isEqualTo(ref.remove(key));
+            } else {
+                assertThat(map.get(key)).isEqualTo(ref.get(key));
+            }
+            assertThat(map.size()).isEqualTo(ref.size());
+        }
+        assertThat(map.keySet()).isEqualTo(ref.keySet());
+    }
+
+    @DisplayName("tree buckets: keys the tree cannot order stay findable")
+    @Test
+    public void testTreeBucketFallback() {
+        MyHashMap<Object, Integer> map = new MyHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(new Collider(i), i);
+        }
+        // a key of another class turns the tree back into a plain bucket
+        for (int i = 0; i < 20; i++) {
+            map.put(new Unordered(i), -i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertThat(map.get(new Collider(i))).isEqualTo(i);
+        }
+        for (int i = 0; i < 20; i++) {
+            assertThat(map.remove(new Unordered(i))).isEqualTo(-i);
+        }
+        assertThat(map.size()).isEqualTo(100);
+
+        // unequal keys that compare as equal cannot share a tree either
+        MyHashMap<Inconsistent, Integer> inconsistent = new MyHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            inconsistent.put(new Inconsistent(i), i);
+        }
+        assertThat(inconsistent.size()).isEqualTo(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(inconsistent.get(new Inconsistent(i))).isEqualTo(i);
+        }
+    }
+
+    @DisplayName("tree buckets: a bucket that cannot be treeified is not rebuilt on every put")
+    @Test
+    public void testTreeifyFailureNotRetried() {
+        MyHashMap<Inconsistent, Integer> map = new MyHashMap<>();
+        // 1000 keys of different tens share a tree
+        for (int i = 0; i < 1000; i++) {
+            map.put(new Inconsistent(10 * i), i);
+        }
+        // 9991 ties with 9990, the last key in tree order, so rebuilding the tree
+        // compares every key before it fails
+        Inconsistent.compares = 0;
+        for (int i = 999; i >= 500; i--) {
+            map.put(new Inconsistent(10 * i + 1), -i);
+        }
+        // one rebuild at 1024 keys takes about 1024 * 10 compares, one per put about 500 times that
+        assertThat(Inconsistent.compares).isLessThan(100000);
+        assertThat(map.size()).isEqualTo(1500);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(map.get(new Inconsistent(10 * i))).isEqualTo(i);
+            assertThat(map.get(new Inconsistent(10 * i + 1))).isEqualTo(i >= 500 ? -i : null);
+        }
+    }
+
+    @DisplayName("tree buckets: colliding Strings with incremental resize")
+    @Test
+    public void testTreeBucketIncremental() {
+        MyHashMap<String, Integer> map = new MyHashMap<>();
+        map.useIncrementalResize(1);
+        // "Aa" and "BB" share a hashCode, so every string of these blocks collides
+        String[] blocks = {"Aa", "BB"};
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 1024; i++) {
+            StringBuilder key = new StringBuilder();
+            for (int bit = 0; bit < 10; bit++) {
+                key.append(blocks[(i >> bit) & 1]);
+            }
+            map.put(key.toString(), i);
+            expected.add(key.toString());
+            map.put("other" + i, i);
+            expected.add("other" + i);
+        }
+        assertThat(map.keySet()).isEqualTo(expected);
+        for (String key : expected) {
+            assertThat(map.remove(key)).isNotNull();
+        }
+        assertThat(map.size()).isEqualTo(0);
+    }
+
+    @DisplayName("stats: bucket histogram, probes per get and resizes")
+    @Test
+    public void testStats() {
+        MyHashMap<Object, Integer> map = new MyHashMap<>(16);
+        // Integer keys from 100 stay clear of the bucket the Colliders use
+        for (int i = 0; i < 100; i++) {
+            map.put(100 + i, i);
+        }
+        map.get(100);
+        // counters stay at 0 until enabled, but the shape is always reported
+        HashMapStats stats = map.stats();
+        assertThat(stats.getSize()).isEqualTo(100);
+        assertThat(stats.getCapacity()).isEqualTo(256);
+        assertThat(stats.getMaxBucketLength()).isEqualTo(1);
+        long[] histogram = stats.getBucketLengthHistogram();
+        assertThat(histogram[0]).isEqualTo(156);
+        assertThat(histogram[1]).isEqualTo(100);
+        assertThat(stats.getGetCount()).isEqualTo(0);
+        assertThat(stats.getResizeCount()).isEqualTo(0);
+
+        map.enableStats();
+        for (int i = 0; i < 100; i++) {
+            map.get(100 + i);
+        }
+        map.containsKey(1000);
+        for (int i = 0; i < 80; i++) {
+            map.put(new Collider(i), i);
+        }
+        stats = map.stats();
+        assertThat(stats.getGetCount()).isEqualTo(101);
+        // every Integer key is alone in its bucket, and the missing key's bucket is empty
+        assertThat(stats.getProbeCount()).isEqualTo(100);
+        assertThat(stats.getAverageProbesPerGet()).isWithin(0.01).of(0.99);
+        assertThat(stats.getResizeCount()).isEqualTo(0);
+        assertThat(stats.getTreeBuckets()).isEqualTo(1);
+        assertThat(stats.getMaxBucketLength()).isEqualTo(80);
+        assertThat(stats.getBucketLengthHistogram()[8]).isEqualTo(1);
+
+        // a tree of 80 keys is searched in a handful of comparisons
+        map.get(new Collider(50));
+        assertThat(map.stats().getProbeCount() - stats.getProbeCount()).isAtMost(13);
+
+        for (int i = 200; i < 1100; i++) {
+            map.put(i, i);
+        }
+        stats = map.stats();
+        assertThat(stats.getResizeCount()).isEqualTo(3);
+        assertThat(stats.getResizeNanos()).isGreaterThan(0L);
+
+        map.disableStats();
+        assertThat(map.stats().getGetCount()).isEqualTo(0);
+    }
+
+    @DisplayName("stats: the MXBean view can be registered and read through JMX")
+    @Test
+    public void testStatsMXBean() throws Exception {
+        MyHashMap<String, Integer> map = incremental();
+        map.enableStats();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("hashmap:type=MyHashMap,name=testStatsMXBean");
+        server.registerMBean(map.statsMXBean(), name);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                map.put("key" + i, i);
+                map.get("key" + i);
+            }
+            assertThat(server.getAttribute(name, "Size")).isEqualTo(1000);
+            assertThat(server.getAttribute(name, "GetCount")).isEqualTo(1000L);
+            assertThat((Long) server.getAttribute(name, "ResizeCount")).isGreaterThan(0L);
+            // the histogram counts every bucket, including old ones still being moved
+            long[] histogram = (long[]) server.getAttribute(name, "BucketLengthHistogram");
+            long buckets = 0;
+            for (long count : histogram) {
+                buckets += count;
+            }
+            assertThat(buckets).isEqualTo((long) (int) server.getAttribute(name, "Capacity"));
+
+            // a resize makes the snapshot of the bucket lengths stale, however recent it is
+            int capacity = (int) server.getAttribute(name, "Capacity");
+            long resizes = (Long) server.getAttribute(name, "ResizeCount");
+            for (int i = 0; i < 1000; i++) {
+                map.put("more" + i, i);
+                map.get("more" + i);
+            }
+            assertThat(server.getAttribute(name, "Size")).isEqualTo(2000);
+            assertThat(server.getAttribute(name, "GetCount")).isEqualTo(2000L);
+            assertThat((Long) server.getAttribute(name, "ResizeCount")).isGreaterThan(resizes);
+            assertThat((int) server.getAttribute(name, "Capacity")).isNotEqualTo(capacity);
+            buckets = 0;
+            for (long count : (long[]) server.getAttribute(name, "BucketLengthHistogram")) {
+                buckets += count;
+            }
+            assertThat(buckets).isEqualTo((long) (int) server.getAttribute(name, "Capacity"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    /**
+     * Applies random puts, removes and gets to map and to a java.util.HashMap,
+     * checking that they agree after every operation and at the end.
+     */
+    static void randomizedTest(Map61B<Integer, Integer> map, Random random) {
+        Map<Integer, Integer> ref = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            // grow for a while, then drain, so tables both grow and shrink
+            int key = random.nextInt(20000);
+            int op = i < 60000 ? random.nextInt(3) : 1;
+            if (op == 0) {
+                map.put(key, i);
+                ref.put(key, i);
+            } else if (op == 1) {
+                assertThat(map.remove(key)).isEqualTo(ref.remove(key));
+            } else {
+                assertThat(map.get(key)).isEqualTo(ref.get(key));
+                assertThat(map.containsKey(key)).isEqualTo(ref.containsKey(key));
+            }
+            assertThat(map.size()).isEqualTo(ref.size());
+        }
+        assertThat(map.keySet()).isEqualTo(ref.keySet());
+        for (int key : ref.keySet()) {
+            assertThat(map.get(key)).isEqualTo(ref.get(key));
+        }
+    }
+}
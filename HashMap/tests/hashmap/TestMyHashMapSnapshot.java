@@ -0,0 +1,133 @@
+package hashmap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of MyHashMapSnapshot files.
+ */
+public class TestMyHashMapSnapshot {
+
+    private static MyHashMap<String, Integer> sample(int n) {
+        MyHashMap<String, Integer> map = new MyHashMap<>();
+        for (int i = 0; i < n; i++) {
+            map.put("key" + i, i);
+        }
+        // "Aa" and "BB" share a hash code, so they probe the same slots
+        map.put("Aa", -1);
+        map.put("BB", -2);
+        map.put("héllo", null);
+        return map;
+    }
+
+    @DisplayName("a snapshot answers like the map it was written from")
+    @Test
+    public void testRoundTrip(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("map.snapshot");
+        MyHashMap<String, Integer> map = sample(10000);
+        MyHashMapSnapshot.write(map, file, Codec.STRING, Codec.INTEGER);
+        MyHashMapSnapshot<String, Integer> snapshot = MyHashMapSnapshot.open(file, Codec.STRING, Codec.INTEGER);
+
+        assertThat(snapshot.size()).isEqualTo(map.size());
+        for (String key : map) {
+            assertThat(snapshot.containsKey(key)).isTrue();
+            assertThat(snapshot.get(key)).isEqualTo(map.get(key));
+        }
+        assertThat(snapshot.get("key10000")).isNull();
+        assertThat(snapshot.containsKey("key10000")).isFalse();
+        assertThat(snapshot.containsKey("héllo")).isTrue();
+        assertThat(snapshot.keySet()).isEqualTo(map.keySet());
+
+        Set<String> keys = new HashSet<>();
+        for (String key : snapshot) {
+            keys.add(key);
+        }
+        assertThat(keys).isEqualTo(map.keySet());
+
+        MyHashMap<String, Integer> copy = snapshot.toMyHashMap();
+        copy.put("key10000", 10000);
+        assertThat(copy.size()).isEqualTo(map.size() + 1);
+        assertThat(copy.get("Aa")).isEqualTo(-1);
+    }
+
+    @DisplayName("an empty map makes an empty snapshot")
+    @Test
+    public void testEmpty(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("empty.snapshot");
+        MyHashMapSnapshot.write(new MyHashMap<Long, Long>(), file, Codec.LONG, Codec.LONG);
+        MyHashMapSnapshot<Long, Long> snapshot = MyHashMapSnapshot.open(file, Codec.LONG, Codec.LONG);
+        assertThat(snapshot.size()).isEqualTo(0);
+        assertThat(snapshot.get(61L)).isNull();
+        assertThat(snapshot.iterator().hasNext()).isFalse();
+    }
+
+    @DisplayName("a flipped byte, a wrong version or a foreign file is refused")
+    @Test
+    public void testCorruption(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("map.snapshot");
+        MyHashMapSnapshot.write(sample(100), file, Codec.STRING, Codec.INTEGER);
+        long length = Files.size(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(length - 1);
+            int last = raf.read();
+            raf.seek(length - 1);
+            raf.write(last ^ 1);
+        }
+        assertThrows(IOException.class, () -> MyHashMapSnapshot.open(file, Codec.STRING, Codec.INTEGER));
+        // the damage goes unnoticed when the checksums are skipped
+        MyHashMapSnapshot.open(file, Codec.STRING, Codec.INTEGER, false);
+
+        MyHashMapSnapshot.write(sample(100), file, Codec.STRING, Codec.INTEGER);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(4);
+            raf.writeInt(MyHashMapSnapshot.VERSION + 1);
+        }
+        IOException e = assertThrows(IOException.class,
+                () -> MyHashMapSnapshot.open(file, Codec.STRING, Codec.INTEGER, false));
+        assertThat(e).hasMessageThat().contains("version");
+
+        Files.writeString(file, "definitely not a snapshot file");
+        assertThrows(IOException.class, () -> MyHashMapSnapshot.open(file, Codec.STRING, Codec.INTEGER));
+    }
+
+    @DisplayName("a map too large for one file is refused before the index is allocated")
+    @Test
+    public void testTooLarge(@TempDir Path dir) {
+        Path file = dir.resolve("large.snapshot");
+        for (int size : new int[] {(1 << 26) + 1, Integer.MAX_VALUE}) {
+            MyHashMap<String, Integer> map = new MyHashMap<>() {
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+            IOException e = assertThrows(IOException.class,
+                    () -> MyHashMapSnapshot.write(map, file, Codec.STRING, Codec.INTEGER));
+            assertThat(e).hasMessageThat().contains("2 GB");
+        }
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    @DisplayName("a snapshot cannot be modified")
+    @Test
+    public void testReadOnly(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("map.snapshot");
+        MyHashMapSnapshot.write(sample(10), file, Codec.STRING, Codec.INTEGER);
+        MyHashMapSnapshot<String, Integer> snapshot = MyHashMapSnapshot.open(file, Codec.STRING, Codec.INTEGER);
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put("key0", 1));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove("key0"));
+        assertThrows(UnsupportedOperationException.class, snapshot::clear);
+        assertThat(snapshot.get("key0")).isEqualTo(0);
+    }
+}
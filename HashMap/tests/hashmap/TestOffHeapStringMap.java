@@ -0,0 +1,98 @@
+package hashmap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of OffHeapStringMap and of its Map61B adapter.
+ */
+public class TestOffHeapStringMap {
+
+    @DisplayName("randomized against java.util.HashMap, across many small chunks")
+    @Test
+    public void testRandomized() {
+        // 1 KB chunks, so records often have to open a new chunk
+        OffHeapStringMap map = new OffHeapStringMap(16, -1, 10);
+        Map<String, Long> ref = new HashMap<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 100000; i++) {
+            String key = "key" + random.nextInt(5000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                map.put(key, i);
+                ref.put(key, (long) i);
+            } else if (op == 1) {
+                assertThat(map.remove(key)).isEqualTo(ref.containsKey(key) ? ref.remove(key) : -1);
+            } else {
+                assertThat(map.get(key)).isEqualTo(ref.getOrDefault(key, -1L));
+                assertThat(map.containsKey(key)).isEqualTo(ref.containsKey(key));
+            }
+            assertThat(map.size()).isEqualTo(ref.size());
+        }
+        Set<String> keys = new HashSet<>();
+        Iterator<String> iterator = map.keyIterator();
+        while (iterator.hasNext()) {
+            keys.add(iterator.next());
+        }
+        assertThat(keys).isEqualTo(ref.keySet());
+    }
+
+    @DisplayName("non-ASCII keys and colliding hash codes")
+    @Test
+    public void testKeys() {
+        OffHeapStringMap map = new OffHeapStringMap();
+        // "Aa" and "BB" share a hash code, and so do longer strings built from them
+        String[] keys = {"Aa", "BB", "AaBB", "BBAa", "", "héllo", "日本語", "emoji 😀"};
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertThat(map.get(keys[i])).isEqualTo(i);
+        }
+        assertThat(map.containsKey("hello")).isFalse();
+        Set<String> seen = new HashSet<>();
+        map.keyIterator().forEachRemaining(seen::add);
+        assertThat(seen).containsExactly((Object[]) keys);
+        map.clear();
+        assertThat(map.size()).isEqualTo(0);
+        assertThat(map.containsKey("Aa")).isFalse();
+        map.put("Aa", 5);
+        assertThat(map.get("Aa")).isEqualTo(5);
+    }
+
+    @DisplayName("a key larger than a chunk is rejected")
+    @Test
+    public void testKeyTooLarge() {
+        OffHeapStringMap map = new OffHeapStringMap(16, 0, 10);
+        assertThrows(IllegalArgumentException.class, () -> map.put("x".repeat(2000), 1));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapStringMap(16, 0, 31));
+    }
+
+    @DisplayName("Map61B adapter boxes values and maps missing keys to null")
+    @Test
+    public void testMap61BView() {
+        Map61B<String, Long> view = new OffHeapStringMap().asMap61B();
+        for (long i = 0; i < 1000; i++) {
+            view.put("hi" + i, i);
+        }
+        assertThat(view.size()).isEqualTo(1000);
+        assertThat(view.get("hi500")).isEqualTo(500L);
+        assertThat(view.get("missing")).isNull();
+        assertThat(view.remove("missing")).isNull();
+        assertThat(view.remove("hi500")).isEqualTo(500L);
+        assertThat(view.keySet()).hasSize(999);
+        assertThrows(IllegalArgumentException.class, () -> view.put("null", null));
+        view.clear();
+        assertThat(view.size()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,110 @@
+package hashmap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Runs the shared MyHashMap test bodies against OpenAddressingMap, plus a few
+ * tests of the removal path, which has to repair probe clusters.
+ */
+public class TestOpenAddressingMap {
+
+    @DisplayName("clear")
+    @Test
+    public void testClear() {
+        TestMyHashMap.sanityClearTest(new OpenAddressingMap<>());
+    }
+
+    @DisplayName("containsKey")
+    @Test
+    public void testContainsKey() {
+        TestMyHashMap.containsKeyTest(new OpenAddressingMap<>());
+    }
+
+    @DisplayName("get")
+    @Test
+    public void testGet() {
+        TestMyHashMap.sanityGetTest(new OpenAddressingMap<>());
+    }
+
+    @DisplayName("size")
+    @Test
+    public void testSize() {
+        TestMyHashMap.sanitySizeTest(new OpenAddressingMap<>());
+    }
+
+    @DisplayName("put")
+    @Test
+    public void testPut() {
+        TestMyHashMap.sanityPutTest(new OpenAddressingMap<>());
+    }
+
+    @DisplayName("functionality")
+    @Test
+    public void testFunctionality() {
+        TestMyHashMap.functionalityTest(new OpenAddressingMap<>(), new OpenAddressingMap<>());
+    }
+
+    @DisplayName("edge cases")
+    @Test
+    public void testEdgeCases() {
+        TestMyHashMap.edgeCasesTest(new OpenAddressingMap<>());
+    }
+
+    @DisplayName("keySet")
+    @Test
+    public void testKeySet() {
+        TestMyHashMapExtra.sanityKeySetTest(new OpenAddressingMap<>());
+    }
+
+    @DisplayName("remove keeps colliding keys reachable")
+    @Test
+    public void testRemoveInsideCluster() {
+        // every key lands in the same home slot, so removals must shift the cluster back
+        OpenAddressingMap<TestMyHashMap.Bee, Integer> map = new OpenAddressingMap<>();
+        TestMyHashMap.Bee[] bees = new TestMyHashMap.Bee[10];
+        for (int i = 0; i < bees.length; i++) {
+            bees[i] = new TestMyHashMap.Bee(i * 100);
+            map.put(bees[i], i);
+        }
+        assertThat(map.remove(bees[3])).isEqualTo(3);
+        assertThat(map.remove(bees[0])).isEqualTo(0);
+        assertThat(map.remove(bees[3])).isNull();
+        assertThat(map.size()).isEqualTo(8);
+        for (int i = 0; i < bees.length; i++) {
+            if (i == 0 || i == 3) {
+                assertThat(map.containsKey(bees[i])).isFalse();
+            } else {
+                assertThat(map.get(bees[i])).isEqualTo(i);
+            }
+        }
+    }
+
+    @DisplayName("randomized against java.util.HashMap")
+    @Test
+    public void testRandomizedAgainstHashMap() {
+        OpenAddressingMap<Integer, Integer> map = new OpenAddressingMap<>();
+        Map<Integer, Integer> ref = new HashMap<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(5000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                map.put(key, i);
+                ref.put(key, i);
+            } else if (op == 1) {
+                assertThat(map.remove(key)).isEqualTo(ref.remove(key));
+            } else {
+                assertThat(map.get(key)).isEqualTo(ref.get(key));
+            }
+            assertThat(map.size()).isEqualTo(ref.size());
+        }
+        assertThat(map.keySet()).containsExactlyElementsIn(ref.keySet());
+    }
+}
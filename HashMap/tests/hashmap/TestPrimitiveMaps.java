@@ -0,0 +1,152 @@
+package hashmap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the primitive-specialized maps IntObjectMap and ObjectIntMap and of
+ * their Map61B adapters.
+ */
+public class TestPrimitiveMaps {
+
+    @DisplayName("IntObjectMap handles the zero key")
+    @Test
+    public void testIntObjectZeroKey() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        assertThat(map.containsKey(0)).isFalse();
+        map.put(0, "zero");
+        map.put(1, "one");
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.get(0)).isEqualTo("zero");
+        map.put(0, null);
+        assertThat(map.containsKey(0)).isTrue();
+        assertThat(map.get(0)).isNull();
+        assertThat(map.size()).isEqualTo(2);
+        map.remove(0);
+        assertThat(map.containsKey(0)).isFalse();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @DisplayName("IntObjectMap randomized against java.util.HashMap")
+    @Test
+    public void testIntObjectRandomized() {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        Map<Integer, Integer> ref = new HashMap<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(4000) - 2000;
+            int op = random.nextInt(3);
+            if (op == 0) {
+                map.put(key, i);
+                ref.put(key, i);
+            } else if (op == 1) {
+                assertThat(map.remove(key)).isEqualTo(ref.remove(key));
+            } else {
+                assertThat(map.get(key)).isEqualTo(ref.get(key));
+                assertThat(map.containsKey(key)).isEqualTo(ref.containsKey(key));
+            }
+            assertThat(map.size()).isEqualTo(ref.size());
+        }
+        Set<Integer> keys = new HashSet<>();
+        PrimitiveIterator.OfInt iterator = map.keyIterator();
+        while (iterator.hasNext()) {
+            keys.add(iterator.nextInt());
+        }
+        assertThat(keys).containsExactlyElementsIn(ref.keySet());
+    }
+
+    @DisplayName("IntObjectMap Map61B adapter")
+    @Test
+    public void testIntObjectAdapter() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Map61B<Integer, String> view = map.asMap61B();
+        for (int i = 0; i < 455; i++) {
+            view.put(i, "v" + i);
+        }
+        assertThat(map.size()).isEqualTo(455);
+        assertThat(map.get(454)).isEqualTo("v454");
+        assertThat(view.get(1000)).isNull();
+        assertThat(view.remove(3)).isEqualTo("v3");
+        assertThat(view.keySet()).hasSize(454);
+        view.clear();
+        assertThat(map.size()).isEqualTo(0);
+    }
+
+    @DisplayName("ObjectIntMap get and remove return the no-entry value")
+    @Test
+    public void testObjectIntNoEntryValue() {
+        ObjectIntMap<String> map = new ObjectIntMap<>(16, -1);
+        assertThat(map.get("missing")).isEqualTo(-1);
+        assertThat(map.remove("missing")).isEqualTo(-1);
+        map.put("year", 1984);
+        assertThat(map.get("year")).isEqualTo(1984);
+        assertThat(map.remove("year")).isEqualTo(1984);
+        assertThat(map.containsKey("year")).isFalse();
+        assertThat(map.size()).isEqualTo(0);
+    }
+
+    @DisplayName("ObjectIntMap addTo counts occurrences")
+    @Test
+    public void testObjectIntAddTo() {
+        ObjectIntMap<String> counts = new ObjectIntMap<>();
+        for (int i = 0; i < 1000; i++) {
+            counts.addTo("word" + (i % 10), 1);
+        }
+        assertThat(counts.size()).isEqualTo(10);
+        for (int i = 0; i < 10; i++) {
+            assertThat(counts.get("word" + i)).isEqualTo(100);
+        }
+    }
+
+    @DisplayName("ObjectIntMap randomized against java.util.HashMap, with a given load factor")
+    @Test
+    public void testObjectIntRandomized() {
+        assertThrows(IllegalArgumentException.class, () -> new ObjectIntMap<String>(16, 1.0));
+        ObjectIntMap<String> map = new ObjectIntMap<>(4, 0.75);
+        Map<String, Integer> ref = new HashMap<>();
+        Random random = new Random(61);
+        for (int i = 0; i < 20000; i++) {
+            String key = "k" + random.nextInt(500);
+            if (random.nextInt(3) > 0) {
+                map.put(key, i);
+                ref.put(key, i);
+            } else {
+                Integer expected = ref.remove(key);
+                assertThat(map.remove(key)).isEqualTo(expected == null ? 0 : expected);
+            }
+            assertThat(map.size()).isEqualTo(ref.size());
+        }
+        for (int k = 0; k < 500; k++) {
+            String key = "k" + k;
+            assertThat(map.containsKey(key)).isEqualTo(ref.containsKey(key));
+            assertThat(map.get(key)).isEqualTo(ref.getOrDefault(key, 0));
+        }
+    }
+
+    @DisplayName("ObjectIntMap Map61B adapter")
+    @Test
+    public void testObjectIntAdapter() {
+        TestMyHashMap.sanityClearTest(new ObjectIntMap<String>().asMap61B());
+        TestMyHashMap.sanityGetTest(new ObjectIntMap<String>().asMap61B());
+        TestMyHashMap.sanitySizeTest(new ObjectIntMap<String>().asMap61B());
+        TestMyHashMap.sanityPutTest(new ObjectIntMap<String>().asMap61B());
+        TestMyHashMapExtra.sanityKeySetTest(new ObjectIntMap<String>().asMap61B());
+
+        Map61B<String, Integer> view = new ObjectIntMap<String>().asMap61B();
+        view.put("zero", 0);
+        assertThat(view.get("zero")).isEqualTo(0);
+        assertThat(view.get("missing")).isNull();
+        assertThat(view.remove("missing")).isNull();
+        assertThat(view.remove("zero")).isEqualTo(0);
+    }
+}
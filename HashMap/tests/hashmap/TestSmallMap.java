@@ -0,0 +1,82 @@
+package hashmap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests of SmallMap, before and after it promotes itself to a MyHashMap.
+ */
+public class TestSmallMap {
+
+    @DisplayName("shared tests")
+    @Test
+    public void testSanity() {
+        TestMyHashMap.sanityClearTest(new SmallMap<>());
+        TestMyHashMap.containsKeyTest(new SmallMap<>());
+        TestMyHashMap.sanityGetTest(new SmallMap<>());
+        TestMyHashMap.sanitySizeTest(new SmallMap<>());
+        TestMyHashMap.sanityPutTest(new SmallMap<>());
+        TestMyHashMap.functionalityTest(new SmallMap<>(), new SmallMap<>());
+        TestMyHashMapExtra.sanityKeySetTest(new SmallMap<>());
+        TestMyHashMap.edgeCasesTest(new SmallMap<>());
+    }
+
+    @DisplayName("promotes past the threshold and keeps every pair")
+    @Test
+    public void testPromotion() {
+        SmallMap<String, Integer> map = new SmallMap<>(8);
+        for (int i = 0; i < 8; i++) {
+            map.put("key" + i, i);
+        }
+        map.put("key0", 100);
+        assertThat(map.isPromoted()).isFalse();
+        map.put("key8", 8);
+        assertThat(map.isPromoted()).isTrue();
+        assertThat(map.size()).isEqualTo(9);
+        assertThat(map.get("key0")).isEqualTo(100);
+        assertThat(map.get("key8")).isEqualTo(8);
+        for (int i = 0; i < 9; i++) {
+            map.remove("key" + i);
+        }
+        assertThat(map.size()).isEqualTo(0);
+        assertThat(map.isPromoted()).isTrue();
+    }
+
+    @DisplayName("randomized against java.util.HashMap, with colliding keys")
+    @Test
+    public void testRandomized() {
+        Random random = new Random(61);
+        for (int threshold : new int[]{1, 4, 16, 64}) {
+            SmallMap<String, Integer> map = new SmallMap<>(threshold);
+            Map<String, Integer> ref = new HashMap<>();
+            for (int i = 0; i < 20000; i++) {
+                // "Aa" and "BB" share a hash code, so the prefilter alone cannot tell them apart
+                String key = (random.nextBoolean() ? "Aa" : "BB") + random.nextInt(threshold + 4);
+                int op = random.nextInt(4);
+                if (op == 0) {
+                    map.put(key, i);
+                    ref.put(key, i);
+                } else if (op == 1) {
+                    assertThat(map.remove(key)).isEqualTo(ref.remove(key));
+                } else {
+                    assertThat(map.get(key)).isEqualTo(ref.get(key));
+                    assertThat(map.containsKey(key)).isEqualTo(ref.containsKey(key));
+                }
+                assertThat(map.size()).isEqualTo(ref.size());
+            }
+            Set<String> keys = new HashSet<>();
+            for (String key : map) {
+                keys.add(key);
+            }
+            assertThat(keys).isEqualTo(ref.keySet());
+        }
+    }
+}
@@ -4,6 +4,8 @@ import edu.princeton.cs.algs4.Stopwatch;
 import java.util.*;
 
 import hashmap.Map61B;
+import hashmap.MyHashMap;
+import hashmap.OpenAddressingMap;
 
 import static hashmap.MyHashMapFactory.createBucketedMap;
 
@@ -41,10 +43,15 @@ public class BucketsSpeedTest {
             System.out.print("\nEnter # strings to insert into each map: ");
             N = waitForPositiveInt(input);
 
-            // Test each of the map implementations
+            // Test each of the map implementations, with and without a power-of-two table
             for (Class<? extends Collection> bucketType : bucketTypes) {
-                timeRandomMap61B(createBucketedMap(bucketType), N, L);
+                double modTime = timeRandomMap61B(createBucketedMap(bucketType), N, L);
+                MyHashMap<String, Integer> masked = createBucketedMap(bucketType);
+                masked.usePowerOfTwoTable();
+                double maskTime = timeRandomMap61B(masked + ", power-of-two table", masked, N, L);
+                printThroughputDelta(modTime, maskTime);
             }
+            timeRandomMap61B("OpenAddressingMap (linear probing)", new OpenAddressingMap<>(), N, L);
 
             System.out.print("\nWould you like to try more timed-tests? (y/n)");
             repeat = input.nextLine();
@@ -66,20 +73,58 @@ public class BucketsSpeedTest {
         return sw.elapsedTime();
     }
 
+    /**
+     * Returns time needed to get N random strings of length L from the
+     * hashmap.Map61B 61bMap. Reseeds StringUtils with SEED, so calling this
+     * right after an insertRandom with the same seed looks up every inserted key.
+     */
+    public static double getRandom(Map61B<String, Integer> map61B, int N, int L, long seed) {
+        StringUtils.setSeed(seed);
+        Stopwatch sw = new Stopwatch();
+        for (int i = 0; i < N; i++) {
+            map61B.get(StringUtils.randomString(L));
+        }
+        return sw.elapsedTime();
+    }
+
     /**
      * Attempts to insert N random strings of length L into map,
      * Prints time of the N insert calls, otherwise
      * Prints a nice message about the error
      */
-    public static void timeRandomMap61B(Map61B<String, Integer> map, int N, int L) {
+    public static double timeRandomMap61B(Map61B<String, Integer> map, int N, int L) {
+        return timeRandomMap61B(map.toString(), map, N, L);
+    }
+
+    /**
+     * Attempts to insert N random strings of length L into map and then get
+     * each of them back, Prints time of the N insert and N get calls
+     * labelled with NAME, otherwise Prints a nice message about the error.
+     * Returns the total time of the calls, or NaN if they failed.
+     */
+    public static double timeRandomMap61B(String name, Map61B<String, Integer> map, int N, int L) {
         try {
+            StringUtils.setSeed(N);
             double mapTime = insertRandom(map, N, L);
-            System.out.printf(map.toString() + ": %.2f sec\n", mapTime);
+            double getTime = getRandom(map, N, L, N);
+            System.out.printf(name + ": %.2f sec put, %.2f sec get\n", mapTime, getTime);
+            return mapTime + getTime;
         } catch (StackOverflowError e) {
             printInfoOnStackOverflow(N, L);
         } catch (RuntimeException e) {
             e.printStackTrace();
         }
+        return Double.NaN;
+    }
+
+    /**
+     * Prints how much higher (or lower) the throughput of the same calls is
+     * when they take AFTER seconds instead of BEFORE seconds.
+     */
+    public static void printThroughputDelta(double before, double after) {
+        if (before > 0 && after > 0) {
+            System.out.printf("  throughput delta: %+.0f%%\n", (before / after - 1) * 100);
+        }
     }
 
     /**
@@ -0,0 +1,115 @@
+package speed;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Scanner;
+
+import hashmap.BoundedCache;
+import hashmap.MyHashMap;
+
+import static speed.InsertRandomSpeedTest.waitForPositiveInt;
+
+/**
+ * Replays a Zipfian stream of requests against a BoundedCache, with plain LRU
+ * eviction and with frequency admission, and against an unbounded MyHashMap.
+ * Every request is a get(), followed by a put() on a miss, the way a cache
+ * fronts an expensive lookup. Reports the hit ratio and the throughput.
+ */
+public class CacheSpeedTest {
+    /** Skew of the request stream; around 1 is typical of web and database caches. */
+    private static final double ZIPF_EXPONENT = 0.99;
+    private static final long SEED = 61;
+
+    /** Sums what the lookups read, so the JIT cannot drop them. */
+    private static long sink;
+
+    /**
+     * Requests user input and performs the cache tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program replays N Zipf-distributed requests over a key space"
+                + " against bounded caches\n and an unbounded MyHashMap, and reports hit ratio"
+                + " and throughput.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # distinct keys: ");
+            int keys = waitForPositiveInt(input);
+            System.out.print("Enter cache size: ");
+            int cacheSize = waitForPositiveInt(input);
+            System.out.print("Enter # requests: ");
+            int N = waitForPositiveInt(input);
+
+            int[] requests = zipfRequests(keys, N);
+            // run everything twice and report the second run, once the JIT has compiled it
+            for (int run = 0; run < 2; run++) {
+                BoundedCache<Integer, Integer> lru = new BoundedCache<>(cacheSize);
+                double lruSeconds = replay(lru, requests);
+                BoundedCache<Integer, Integer> tinyLfu = new BoundedCache<>(cacheSize);
+                tinyLfu.useFrequencyAdmission();
+                double tinyLfuSeconds = replay(tinyLfu, requests);
+                MyHashMap<Integer, Integer> unbounded = new MyHashMap<>();
+                double unboundedSeconds = replay(unbounded, requests);
+                if (run == 1) {
+                    print("BoundedCache LRU", lru.hitRatio(), lruSeconds, N);
+                    print("BoundedCache TinyLFU", tinyLfu.hitRatio(), tinyLfuSeconds, N);
+                    System.out.printf("unbounded MyHashMap: %.2f M requests/sec, %d entries\n",
+                            N / unboundedSeconds / 1e6, unbounded.size());
+                }
+            }
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /* ------------------------------- Private methods ------------------------------- */
+
+    /** Returns the seconds taken to serve every request from map, filling it on misses. */
+    private static double replay(MyHashMap<Integer, Integer> map, int[] requests) {
+        long start = System.nanoTime();
+        for (int key : requests) {
+            Integer value = map.get(key);
+            if (value == null) {
+                map.put(key, key);
+            } else {
+                sink += value;
+            }
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private static void print(String name, double hitRatio, double seconds, int N) {
+        System.out.printf("%s: %.2f%% hits, %.2f M requests/sec\n", name, hitRatio * 100, N / seconds / 1e6);
+    }
+
+    /**
+     * Returns N keys from 0 to keys - 1, where key k is drawn with probability
+     * proportional to 1 / (k + 1)^ZIPF_EXPONENT. The key numbers are shuffled
+     * so that popularity does not follow the order of hash codes.
+     */
+    private static int[] zipfRequests(int keys, int N) {
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int k = 0; k < keys; k++) {
+            sum += 1 / Math.pow(k + 1, ZIPF_EXPONENT);
+            cumulative[k] = sum;
+        }
+        Random random = new Random(SEED);
+        int[] label = new int[keys];
+        for (int k = 0; k < keys; k++) {
+            int j = random.nextInt(k + 1);
+            label[k] = label[j];
+            label[j] = k;
+        }
+        int[] requests = new int[N];
+        for (int i = 0; i < N; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            requests[i] = label[rank < 0 ? Math.min(-rank - 1, keys - 1) : rank];
+        }
+        return requests;
+    }
+}
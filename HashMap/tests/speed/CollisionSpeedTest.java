@@ -0,0 +1,98 @@
+package speed;
+
+import java.util.Scanner;
+
+import edu.princeton.cs.algs4.Stopwatch;
+import hashmap.MyHashMap;
+
+import static speed.InsertRandomSpeedTest.waitForPositiveInt;
+
+/**
+ * Measures MyHashMap with keys whose hashCodes all collide. The Strings are
+ * built from the blocks "Aa" and "BB", which share a hashCode, so all of them
+ * land in one bucket, which MyHashMap turns into a tree. The same keys wrapped
+ * in a class that is not Comparable stay in a plain bucket, so their gets
+ * scan the whole chain and grow linearly with N instead of logarithmically.
+ */
+public class CollisionSpeedTest {
+
+    /** A colliding key that cannot be ordered, so its bucket is never a tree. */
+    private record Unordered(String s) {
+        @Override
+        public int hashCode() {
+            return s.hashCode();
+        }
+    }
+
+    /**
+     * Requests user input and performs the timing tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program puts N Strings that all share one hashCode into"
+                + " a MyHashMap,\n then gets each of them, comparing Comparable keys"
+                + " (tree bucket)\n with the same keys in a non-Comparable wrapper"
+                + " (plain bucket). Try N of 1000, 4000 and 16000.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # colliding keys: ");
+            int N = waitForPositiveInt(input);
+            String[] keys = collidingStrings(N);
+
+            MyHashMap<String, Integer> tree = new MyHashMap<>();
+            Stopwatch sw = new Stopwatch();
+            for (int i = 0; i < N; i++) {
+                tree.put(keys[i], i);
+            }
+            double put = sw.elapsedTime();
+            sw = new Stopwatch();
+            for (String key : keys) {
+                tree.get(key);
+            }
+            double get = sw.elapsedTime();
+            System.out.printf("Comparable keys: %.2f sec to put, %.3f sec to get all,"
+                    + " %.1f ns per get\n", put, get, get * 1e9 / N);
+
+            MyHashMap<Unordered, Integer> chain = new MyHashMap<>();
+            sw = new Stopwatch();
+            for (int i = 0; i < N; i++) {
+                chain.put(new Unordered(keys[i]), i);
+            }
+            put = sw.elapsedTime();
+            Unordered[] wrapped = new Unordered[N];
+            for (int i = 0; i < N; i++) {
+                wrapped[i] = new Unordered(keys[i]);
+            }
+            sw = new Stopwatch();
+            for (Unordered key : wrapped) {
+                chain.get(key);
+            }
+            get = sw.elapsedTime();
+            System.out.printf("Non-Comparable keys: %.2f sec to put, %.3f sec to get all,"
+                    + " %.1f ns per get\n", put, get, get * 1e9 / N);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Returns N distinct Strings with the same hashCode: the i-th one spells
+     * out the bits of i with "Aa" for 0 and "BB" for 1.
+     */
+    public static String[] collidingStrings(int N) {
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(N - 1));
+        String[] keys = new String[N];
+        for (int i = 0; i < N; i++) {
+            StringBuilder key = new StringBuilder();
+            for (int bit = 0; bit < bits; bit++) {
+                key.append(((i >> bit) & 1) == 0 ? "Aa" : "BB");
+            }
+            keys[i] = key.toString();
+        }
+        return keys;
+    }
+}
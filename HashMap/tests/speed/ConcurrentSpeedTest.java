@@ -0,0 +1,190 @@
+package speed;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+import hashmap.ConcurrentMyHashMap;
+import hashmap.Map61B;
+import hashmap.MyHashMap;
+
+import static speed.InsertRandomSpeedTest.waitForPositiveInt;
+
+/**
+ * Measures the throughput of a MyHashMap behind one global lock against
+ * ConcurrentMyHashMap, running a mix of get/put/remove calls on 1, 2, 4, ...
+ * threads up to the number of available cores.
+ */
+public class ConcurrentSpeedTest {
+    /** Number of distinct keys the operations are drawn from. */
+    private static final int KEY_RANGE = 1 << 20;
+
+    /**
+     * Requests user input and performs the throughput tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program runs random get/put/remove calls on Integer keys"
+                + " from many threads,\n comparing a globally locked MyHashMap with"
+                + " ConcurrentMyHashMap.");
+        System.out.print("What percentage of calls should be gets (the rest are split"
+                + " evenly between put and remove)?: ");
+        int getPercent = waitForPercent(input);
+
+        Integer[] keys = new Integer[KEY_RANGE];
+        for (int i = 0; i < KEY_RANGE; i++) {
+            keys[i] = i; // boxed once here, so the timed loops do not allocate keys
+        }
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # calls per thread: ");
+            int N = waitForPositiveInt(input);
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int threads = 1; threads <= cores; threads = nextThreadCount(threads, cores)) {
+                double locked = throughput(new SynchronizedMap61B<>(new MyHashMap<>()),
+                        keys, threads, N, getPercent);
+                double striped = throughput(new ConcurrentMyHashMap<>(),
+                        keys, threads, N, getPercent);
+                System.out.printf("%2d threads: locked MyHashMap %6.2f M calls/sec,"
+                        + " ConcurrentMyHashMap %6.2f M calls/sec\n", threads, locked, striped);
+            }
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Prefills map with half of the keys, then runs N random calls on each of
+     * THREADS threads and returns the throughput in millions of calls per second.
+     */
+    public static double throughput(Map61B<Integer, Integer> map, Integer[] keys,
+                                    int threads, int N, int getPercent) {
+        for (int i = 0; i < keys.length; i += 2) {
+            map.put(keys[i], keys[i]);
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            Thread worker = new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < N; i++) {
+                    Integer key = keys[random.nextInt(keys.length)];
+                    int op = random.nextInt(100);
+                    if (op < getPercent) {
+                        map.get(key);
+                    } else if ((op & 1) == 0) {
+                        map.put(key, key);
+                    } else {
+                        map.remove(key);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            joinQuietly(worker);
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        return (double) threads * N / seconds / 1e6;
+    }
+
+    /* ------------------------------- Private methods ------------------------------- */
+
+    /**
+     * Waits for the user on other side of Scanner to enter an int from 0 to
+     * 100, so that 0 runs only puts and removes, and outputs that int.
+     */
+    private static int waitForPercent(Scanner input) {
+        int ret;
+        do {
+            while (!input.hasNextInt()) {
+                System.out.print("Please enter an integer from 0 to 100: ");
+                input.next();
+            }
+            ret = input.nextInt();
+            input.nextLine(); //consume \n not taken by nextInt()
+        } while (ret < 0 || ret > 100);
+        return ret;
+    }
+
+    /** Doubles the thread count, making sure the last step uses every core. */
+    private static int nextThreadCount(int threads, int cores) {
+        if (threads < cores && threads * 2 > cores) {
+            return cores;
+        }
+        return threads * 2;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void joinQuietly(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wraps a Map61B behind a single lock, the way shared maps were guarded
+     * before ConcurrentMyHashMap.
+     */
+    static class SynchronizedMap61B<K, V> implements Map61B<K, V> {
+        private final Map61B<K, V> map;
+
+        SynchronizedMap61B(Map61B<K, V> map) {
+            this.map = map;
+        }
+
+        public synchronized void put(K key, V value) {
+            map.put(key, value);
+        }
+
+        public synchronized V get(K key) {
+            return map.get(key);
+        }
+
+        public synchronized boolean containsKey(K key) {
+            return map.containsKey(key);
+        }
+
+        public synchronized int size() {
+            return map.size();
+        }
+
+        public synchronized void clear() {
+            map.clear();
+        }
+
+        public synchronized Set<K> keySet() {
+            return map.keySet();
+        }
+
+        public synchronized V remove(K key) {
+            return map.remove(key);
+        }
+
+        /** Returns an iterator over a snapshot of the keys. */
+        public synchronized Iterator<K> iterator() {
+            return map.keySet().iterator();
+        }
+    }
+}
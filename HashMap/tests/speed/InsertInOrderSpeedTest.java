@@ -8,6 +8,7 @@ import hashmap.Map61B;
 import hashmap.ULLMap;
 import hashmap.MyHashMap;
 
+import static speed.BucketsSpeedTest.printThroughputDelta;
 import static speed.InsertRandomSpeedTest.waitForPositiveInt;
 
 /**
@@ -35,8 +36,7 @@ public class InsertInOrderSpeedTest {
                     waitForPositiveInt(input));
 
             System.out.print("\nEnter # strings to insert into MyHashMap: ");
-            timeInOrderMap61B(new MyHashMap<>(),
-                    waitForPositiveInt(input));
+            timeMyHashMapModes(waitForPositiveInt(input));
 
             System.out.print("\nEnter # strings to insert into Java's HashMap: ");
             timeInOrderHashMap(new HashMap<>(),
@@ -91,6 +91,20 @@ public class InsertInOrderSpeedTest {
         }
     }
 
+    /**
+     * Inserts N in-order strings into a MyHashMap and into a MyHashMap with a
+     * power-of-two table, Prints both times and the throughput delta between them.
+     */
+    public static void timeMyHashMapModes(int N) {
+        double modTime = insertInOrder(new MyHashMap<>(), N);
+        MyHashMap<String, Integer> masked = new MyHashMap<>();
+        masked.usePowerOfTwoTable();
+        double maskTime = insertInOrder(masked, N);
+        System.out.printf("MyHashMap: %.2f sec, with power-of-two table: %.2f sec\n",
+                modTime, maskTime);
+        printThroughputDelta(modTime, maskTime);
+    }
+
     /**
      * Attempts to insert N in-order strings of length L into HashMap,
      * Prints time of the N insert calls, otherwise
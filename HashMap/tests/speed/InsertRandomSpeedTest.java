@@ -7,6 +7,9 @@ import edu.princeton.cs.algs4.Stopwatch;
 import hashmap.Map61B;
 import hashmap.ULLMap;
 import hashmap.MyHashMap;
+import hashmap.OpenAddressingMap;
+
+import static speed.BucketsSpeedTest.printThroughputDelta;
 
 /** Performs a timing test on three different set implementations.
  *  @author Josh Hug
@@ -35,7 +38,10 @@ public class InsertRandomSpeedTest {
                     waitForPositiveInt(input), L);
 
             System.out.print("\nEnter # strings to insert into your MyHashMap: ");
-            timeRandomMap61B(new MyHashMap<>(),
+            timeMyHashMapModes(waitForPositiveInt(input), L);
+
+            System.out.print("\nEnter # strings to insert into OpenAddressingMap: ");
+            timeRandomMap61B(new OpenAddressingMap<>(),
                     waitForPositiveInt(input), L);
 
             System.out.print("\nEnter # strings to insert into Java's HashMap: ");
@@ -92,6 +98,23 @@ public class InsertRandomSpeedTest {
         }
     }
 
+    /**
+     * Inserts the same N random strings of length L into a MyHashMap and into
+     * a MyHashMap with a power-of-two table, Prints both times and the
+     * throughput delta between them.
+     */
+    public static void timeMyHashMapModes(int N, int L) {
+        StringUtils.setSeed(N);
+        double modTime = insertRandom(new MyHashMap<>(), N, L);
+        MyHashMap<String, Integer> masked = new MyHashMap<>();
+        masked.usePowerOfTwoTable();
+        StringUtils.setSeed(N);
+        double maskTime = insertRandom(masked, N, L);
+        System.out.printf("MyHashMap: %.2f sec, with power-of-two table: %.2f sec\n",
+                modTime, maskTime);
+        printThroughputDelta(modTime, maskTime);
+    }
+
     /**
      * Attempts to insert N random strings of length L into a HashMap
      * Prints time of the N insert calls, otherwise
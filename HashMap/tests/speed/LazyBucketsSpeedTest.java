@@ -0,0 +1,79 @@
+package speed;
+
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.Scanner;
+
+import hashmap.MyHashMap;
+
+import static speed.InsertRandomSpeedTest.waitForPositiveInt;
+
+/**
+ * Measures the startup cost of a MyHashMap with a large initialCapacity: the
+ * time to construct it and the heap it holds before a single insert. MyHashMap
+ * creates its buckets lazily, so this is compared against building the same
+ * table the eager way, with an empty LinkedList in every slot.
+ */
+public class LazyBucketsSpeedTest {
+    /** Holds the measured tables, so they stay reachable while the heap is read. */
+    private static Object sink;
+
+    /**
+     * Requests user input and performs the startup tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program builds a MyHashMap with a large initialCapacity"
+                + " and reports\n its construction time and heap, next to an eagerly"
+                + " filled table of the same size. Try 1000000.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter initialCapacity: ");
+            int capacity = waitForPositiveInt(input);
+
+            long before = usedHeap();
+            long start = System.nanoTime();
+            sink = new MyHashMap<String, Integer>(capacity);
+            double lazyTime = (System.nanoTime() - start) / 1e6;
+            long lazyHeap = usedHeap() - before;
+            sink = null;
+
+            before = usedHeap();
+            start = System.nanoTime();
+            sink = eagerTable(capacity);
+            double eagerTime = (System.nanoTime() - start) / 1e6;
+            long eagerHeap = usedHeap() - before;
+
+            System.out.printf("lazy MyHashMap: %.2f ms, %.2f MB\n", lazyTime, lazyHeap / 1e6);
+            System.out.printf("eager table of LinkedLists: %.2f ms, %.2f MB\n",
+                    eagerTime, eagerHeap / 1e6);
+            sink = null;
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /* ------------------------------- Private methods ------------------------------- */
+
+    /** Builds a table the way MyHashMap did before buckets were created lazily. */
+    private static Collection<?>[] eagerTable(int capacity) {
+        Collection<?>[] table = new Collection<?>[capacity];
+        for (int i = 0; i < capacity; i++) {
+            table[i] = new LinkedList<>();
+        }
+        return table;
+    }
+
+    /** Returns the heap in use after asking for a full collection. */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,251 @@
+package speed;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Stack;
+import java.util.TreeMap;
+
+import hashmap.MyHashMap;
+
+import static hashmap.MyHashMapFactory.createBucketedMap;
+
+/**
+ * A non-interactive, reproducible benchmark harness for MyHashMap, in the
+ * style of JMH: every case is run for a number of untimed warmup iterations so
+ * the JIT has compiled it, then timed over several measurement iterations, and
+ * the results are written as CSV so runs of two versions can be diffed.
+ * <p>
+ * Cases are every combination of operation (put, get, remove, iterate),
+ * bucket type from MyHashMapFactory, key distribution and load factor. All
+ * keys come from fixed seeds, so every run sees the same keys.
+ * <p>
+ * Usage: java speed.MapBenchmark [--n 100000] [--warmup 5] [--iterations 10]
+ * [--buckets LinkedList,ArrayList,...] [--keys random-string,...]
+ * [--load 0.75,...] [--out results.csv]
+ * <p>
+ * Without --out the CSV goes to standard output.
+ */
+public class MapBenchmark {
+    /** Bucket types, by the simple name used on the command line. Class literals are raw. */
+    @SuppressWarnings("rawtypes")
+    private static final Map<String, Class<? extends Collection>> BUCKET_TYPES = new TreeMap<>(Map.of(
+            "ArrayList", ArrayList.class,
+            "LinkedList", LinkedList.class,
+            "HashSet", HashSet.class,
+            "Stack", Stack.class,
+            "ArrayDeque", ArrayDeque.class
+    ));
+    private static final List<String> OPERATIONS = List.of("put", "get", "remove", "iterate");
+    private static final List<String> KEY_DISTRIBUTIONS = List.of(
+            "random-string", "in-order-string", "sequential-int", "strided-int");
+    private static final long SEED = 61;
+
+    /** Sums what the benchmarks read, so the JIT cannot drop them. */
+    private static long sink;
+
+    /** Settings of one run, filled from the command line. */
+    private static class Options {
+        int n = 100000;
+        int warmup = 5;
+        int iterations = 10;
+        List<String> buckets = new ArrayList<>(BUCKET_TYPES.keySet());
+        List<String> keys = KEY_DISTRIBUTIONS;
+        List<Double> loadFactors = List.of(0.75);
+        String out = null;
+    }
+
+    /**
+     * Parses the options in ARGS, runs every case and writes one CSV row per case.
+     */
+    public static void main(String[] args) throws IOException {
+        Options options = parse(args);
+        Writer target = options.out == null ? new PrintWriter(System.out) : new FileWriter(options.out);
+        try (PrintWriter csv = new PrintWriter(target)) {
+            csv.println("operation,bucket,keys,load_factor,n,iterations,mean_ns_per_op,"
+                    + "stddev_ns_per_op,min_ns_per_op");
+            for (String distribution : options.keys) {
+                Object[] keys = keys(distribution, options.n);
+                for (String bucket : options.buckets) {
+                    for (double loadFactor : options.loadFactors) {
+                        for (String operation : OPERATIONS) {
+                            double[] nsPerOp = run(operation, bucket, loadFactor,
+                                    keys, options);
+                            csv.println(String.format(Locale.ROOT, "%s,%s,%s,%s,%d,%d,%.2f,%.2f,%.2f",
+                                    operation, bucket, distribution, loadFactor, options.n,
+                                    options.iterations, mean(nsPerOp), stddev(nsPerOp), min(nsPerOp)));
+                            csv.flush();
+                        }
+                    }
+                }
+            }
+        }
+        if (options.out != null) {
+            System.out.println("Wrote " + options.out + " (checksum " + sink + ")");
+        }
+    }
+
+    /**
+     * Warms up and then measures one case, returning the ns per operation of
+     * each measurement iteration.
+     */
+    public static double[] run(String operation, String bucket,
+                               double loadFactor, Object[] keys, Options options) {
+        for (int i = 0; i < options.warmup; i++) {
+            iteration(operation, bucket, loadFactor, keys);
+        }
+        double[] nsPerOp = new double[options.iterations];
+        for (int i = 0; i < options.iterations; i++) {
+            nsPerOp[i] = (double) iteration(operation, bucket, loadFactor, keys) / keys.length;
+        }
+        return nsPerOp;
+    }
+
+    /**
+     * Runs one iteration of the operation over every key and returns its time
+     * in nanoseconds. Filling the map for get, remove and iterate is not timed.
+     */
+    private static long iteration(String operation, String bucket,
+                                  double loadFactor, Object[] keys) {
+        MyHashMap<Object, Integer> map = createBucketedMap(BUCKET_TYPES.get(bucket), 16, loadFactor);
+        if (!operation.equals("put")) {
+            fill(map, keys);
+        }
+        long start = System.nanoTime();
+        switch (operation) {
+            case "put" -> fill(map, keys);
+            case "get" -> {
+                for (Object key : keys) {
+                    Integer value = map.get(key);
+                    sink += value == null ? 0 : value;
+                }
+            }
+            case "remove" -> {
+                for (Object key : keys) {
+                    Integer value = map.remove(key);
+                    sink += value == null ? 0 : value;
+                }
+            }
+            case "iterate" -> {
+                for (Object key : map) {
+                    sink += key.hashCode();
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Returns N keys of the given distribution, always the same for the same N.
+     */
+    public static Object[] keys(String distribution, int n) {
+        Object[] keys = new Object[n];
+        switch (distribution) {
+            case "random-string" -> {
+                StringUtils.setSeed(SEED);
+                for (int i = 0; i < n; i++) {
+                    keys[i] = StringUtils.randomString(10);
+                }
+            }
+            case "in-order-string" -> {
+                String s = "cat";
+                for (int i = 0; i < n; i++) {
+                    s = StringUtils.nextString(s);
+                    keys[i] = s;
+                }
+            }
+            case "sequential-int" -> {
+                for (int i = 0; i < n; i++) {
+                    keys[i] = i;
+                }
+            }
+            // multiples of 1024 have only zeros in their low bits
+            case "strided-int" -> {
+                for (int i = 0; i < n; i++) {
+                    keys[i] = i * 1024;
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown key distribution: " + distribution
+                    + ", expected one of " + KEY_DISTRIBUTIONS);
+        }
+        return keys;
+    }
+
+    /* ------------------------------- Private methods ------------------------------- */
+
+    private static void fill(MyHashMap<Object, Integer> map, Object[] keys) {
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+    }
+
+    private static Options parse(String[] args) {
+        Options options = new Options();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--n" -> options.n = Integer.parseInt(value);
+                case "--warmup" -> options.warmup = Integer.parseInt(value);
+                case "--iterations" -> options.iterations = Integer.parseInt(value);
+                case "--buckets" -> {
+                    options.buckets = List.of(value.split(","));
+                    for (String bucket : options.buckets) {
+                        if (!BUCKET_TYPES.containsKey(bucket)) {
+                            throw new IllegalArgumentException("Unknown bucket type: " + bucket
+                                    + ", expected one of " + BUCKET_TYPES.keySet());
+                        }
+                    }
+                }
+                case "--keys" -> options.keys = List.of(value.split(","));
+                case "--load" -> {
+                    List<Double> loadFactors = new ArrayList<>();
+                    for (String loadFactor : value.split(",")) {
+                        loadFactors.add(Double.parseDouble(loadFactor));
+                    }
+                    options.loadFactors = loadFactors;
+                }
+                case "--out" -> options.out = value;
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        return options;
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double stddev(double[] values) {
+        double mean = mean(values);
+        double sum = 0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sum / values.length);
+    }
+
+    private static double min(double[] values) {
+        double min = Double.POSITIVE_INFINITY;
+        for (double value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+}
@@ -0,0 +1,96 @@
+package speed;
+
+import java.util.Scanner;
+
+import hashmap.MyHashMap;
+
+import static speed.InsertRandomSpeedTest.waitForPositiveInt;
+
+/**
+ * Measures what a MyHashMap keeps after it grows to N entries and then drains
+ * down to a few of them: the heap it still retains and the time to iterate
+ * over the survivors, which walks every bucket of the table. Compares a map
+ * that never shrinks with one that shrinks on remove() and one that calls
+ * trimToSize() after draining.
+ */
+public class MemoryFootprintSpeedTest {
+    /** Low-water mark used by the shrinking map. */
+    private static final double SHRINK_LOAD_FACTOR = 0.125;
+
+    /**
+     * Requests user input and performs the footprint tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program puts N Integer keys into MyHashMaps, removes all"
+                + " but N / 1000 of them,\n and reports the heap each map retains and the"
+                + " time to iterate over what is left.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # keys to insert into each map: ");
+            int N = waitForPositiveInt(input);
+            Integer[] keys = new Integer[N];
+            for (int i = 0; i < N; i++) {
+                keys[i] = i; // boxed up front, so the keys are not part of the footprint
+            }
+
+            measure("MyHashMap, never shrinks", new MyHashMap<>(), keys, false);
+            MyHashMap<Integer, Integer> shrinking = new MyHashMap<>();
+            shrinking.setShrinkLoadFactor(SHRINK_LOAD_FACTOR);
+            measure("MyHashMap, shrinks below load " + SHRINK_LOAD_FACTOR, shrinking, keys, false);
+            measure("MyHashMap, trimToSize() after draining", new MyHashMap<>(), keys, true);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Fills map with every key, removes all but one in a thousand, optionally
+     * trims it, and prints the retained heap and iteration time labelled with NAME.
+     */
+    public static void measure(String name, MyHashMap<Integer, Integer> map,
+                               Integer[] keys, boolean trim) {
+        long before = usedHeap();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        long drainStart = System.nanoTime();
+        for (int i = 0; i < keys.length; i++) {
+            if (i % 1000 != 0) {
+                map.remove(keys[i]);
+            }
+        }
+        if (trim) {
+            map.trimToSize();
+        }
+        double drain = (System.nanoTime() - drainStart) / 1e9;
+        long retained = usedHeap() - before;
+
+        long iterateStart = System.nanoTime();
+        long sum = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int key : map) {
+                sum += key;
+            }
+        }
+        double iterate = (System.nanoTime() - iterateStart) / 1e6 / 10;
+        System.out.printf("%s: %d keys left, %.2f MB retained, %.2f sec to drain,"
+                + " %.3f ms per iteration (checksum %d)\n", name, map.size(),
+                retained / 1e6, drain, iterate, sum);
+    }
+
+    /* ------------------------------- Private methods ------------------------------- */
+
+    /** Returns the heap in use after asking for a full collection. */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
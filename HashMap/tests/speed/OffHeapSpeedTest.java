@@ -0,0 +1,114 @@
+package speed;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Scanner;
+
+import hashmap.MyHashMap;
+import hashmap.OffHeapStringMap;
+
+import static speed.InsertRandomSpeedTest.waitForPositiveInt;
+
+/**
+ * Loads N String keys with long values into a MyHashMap and into an
+ * OffHeapStringMap, then looks every key up, and reports the time, the heap
+ * still in use, and the time and count of garbage collections for each.
+ * The keys are generated as they are inserted and dropped right after, so
+ * whatever stays on the heap belongs to the map.
+ * <p>
+ * For the 50M keys the dictionaries hold, run with a heap big enough for
+ * MyHashMap, e.g. -Xmx12g, and -XX:MaxDirectMemorySize large enough for the
+ * off-heap arena and index.
+ */
+public class OffHeapSpeedTest {
+    /** Sums what the lookups read, so the JIT cannot drop them. */
+    private static long sink;
+
+    /**
+     * Requests user input and performs the footprint tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program loads N lexicographically increasing Strings"
+                + " into a MyHashMap and an OffHeapStringMap\n and compares heap use and GC"
+                + " time. Try N of 50000000 with a large heap.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # keys to load into each map: ");
+            int N = waitForPositiveInt(input);
+
+            long heapBefore = usedHeap();
+            long[] gcBefore = gcTotals();
+            long start = System.nanoTime();
+            MyHashMap<String, Long> onHeap = new MyHashMap<>();
+            String s = "cat";
+            for (int i = 0; i < N; i++) {
+                s = StringUtils.nextString(s);
+                onHeap.put(s, (long) i);
+            }
+            s = "cat";
+            for (int i = 0; i < N; i++) {
+                s = StringUtils.nextString(s);
+                sink += onHeap.get(s);
+            }
+            report("MyHashMap", start, heapBefore, gcBefore, 0);
+            onHeap = null;
+
+            heapBefore = usedHeap();
+            gcBefore = gcTotals();
+            start = System.nanoTime();
+            OffHeapStringMap offHeap = new OffHeapStringMap();
+            s = "cat";
+            for (int i = 0; i < N; i++) {
+                s = StringUtils.nextString(s);
+                offHeap.put(s, i);
+            }
+            s = "cat";
+            for (int i = 0; i < N; i++) {
+                s = StringUtils.nextString(s);
+                sink += offHeap.get(s);
+            }
+            report("OffHeapStringMap", start, heapBefore, gcBefore, offHeap.offHeapBytes());
+            offHeap = null;
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /* ------------------------------- Private methods ------------------------------- */
+
+    /** Prints the time since START and the heap and GC use since the given baselines. */
+    private static void report(String name, long start, long heapBefore, long[] gcBefore,
+                               long offHeapBytes) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long[] gcAfter = gcTotals();
+        long heap = usedHeap() - heapBefore;
+        System.out.printf("%s: %.2f sec to load and look up, %.1f MB heap, %.1f MB off-heap,"
+                        + " %d GCs taking %.2f sec\n", name, seconds, heap / 1e6, offHeapBytes / 1e6,
+                gcAfter[0] - gcBefore[0], (gcAfter[1] - gcBefore[1]) / 1e3);
+    }
+
+    /** Returns the number of collections and their total time in ms so far. */
+    private static long[] gcTotals() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[]{count, millis};
+    }
+
+    /** Returns the heap in use after asking for a full collection. */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
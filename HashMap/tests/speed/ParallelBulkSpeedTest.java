@@ -0,0 +1,82 @@
+package speed;
+
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+
+import hashmap.MyHashMap;
+
+import static speed.BucketsSpeedTest.printThroughputDelta;
+import static speed.InsertRandomSpeedTest.waitForPositiveInt;
+
+/**
+ * Measures the parallel bulk operations of MyHashMap against their sequential
+ * versions: loading N random String keys with a put loop, putAll() and
+ * parallelPutAll(), and summing the values with forEach() and
+ * parallelReduce(). The parallel versions run on the common ForkJoinPool, so
+ * their speedup is bounded by the number of available cores.
+ */
+public class ParallelBulkSpeedTest {
+    /** Sums what the scans read, so the JIT cannot drop them. */
+    private static long sink;
+
+    /**
+     * Requests user input and performs the timing tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.printf("\n This program loads N random Strings of length L into"
+                + " MyHashMaps sequentially and\n in parallel on %d ForkJoinPool threads."
+                + " Try L of 10 and N of 2000000.\n", ForkJoinPool.commonPool().getParallelism());
+        System.out.print("What would you like L to be?: ");
+        int L = waitForPositiveInt(input);
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # strings to load: ");
+            int N = waitForPositiveInt(input);
+            StringUtils.setSeed(N);
+            String[] keys = new String[N];
+            MyHashMap<String, Integer> source = new MyHashMap<>();
+            for (int i = 0; i < N; i++) {
+                keys[i] = StringUtils.randomString(L);
+                source.put(keys[i], i);
+            }
+
+            long start = System.nanoTime();
+            MyHashMap<String, Integer> looped = new MyHashMap<>();
+            for (int i = 0; i < N; i++) {
+                looped.put(keys[i], i);
+            }
+            double loopTime = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            new MyHashMap<String, Integer>().putAll(source);
+            double putAllTime = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            new MyHashMap<String, Integer>().parallelPutAll(source);
+            double parallelTime = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("put loop: %.2f sec, putAll: %.2f sec, parallelPutAll: %.2f sec\n",
+                    loopTime, putAllTime, parallelTime);
+            printThroughputDelta(loopTime, parallelTime);
+
+            start = System.nanoTime();
+            looped.forEach((key, value) -> sink += value);
+            double forEachTime = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            sink += looped.parallelReduce((key, value) -> (long) value, Long::sum);
+            double reduceTime = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("sum with forEach: %.3f sec, with parallelReduce: %.3f sec\n",
+                    forEachTime, reduceTime);
+            printThroughputDelta(forEachTime, reduceTime);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+}
@@ -0,0 +1,163 @@
+package speed;
+
+import java.util.Scanner;
+import edu.princeton.cs.algs4.Stopwatch;
+
+import hashmap.IntObjectMap;
+import hashmap.Map61B;
+import hashmap.MyHashMap;
+import hashmap.ObjectIntMap;
+
+import static speed.InsertRandomSpeedTest.waitForPositiveInt;
+
+/**
+ * Performs a timing test of boxed maps against the primitive-specialized
+ * IntObjectMap and ObjectIntMap. Int keys are sequential ids, like synset ids
+ * or years, and String keys are random strings of length L.
+ */
+public class PrimitiveMapSpeedTest {
+    /** A value shared by every entry, so only the keys are measured. */
+    private static final String VALUE = "value";
+    /** Consumes lookup results so the JIT cannot discard the timed loops. */
+    private static long sink;
+
+    /**
+     * Requests user input and performs the boxed vs unboxed tests.
+     * ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("""
+
+                 This program puts and then gets N entries keyed by int ids,
+                 and N entries keyed by random Strings of length L and mapped
+                 to int counts, comparing boxed and unboxed maps.
+                 Try N of 1000000 or more.
+                """);
+        System.out.print("What would you like L to be?: ");
+        int L = waitForPositiveInt(input);
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # entries to put into each map: ");
+            int N = waitForPositiveInt(input);
+
+            System.out.println("int keys:");
+            report("MyHashMap<Integer, String>", timeBoxedIntKeys(new MyHashMap<>(), N));
+            report("IntObjectMap<String>", timeUnboxedIntKeys(new IntObjectMap<>(), N));
+
+            System.out.println("int values:");
+            String[] keys = randomKeys(N, L);
+            report("MyHashMap<String, Integer>", timeBoxedIntValues(new MyHashMap<>(), keys));
+            report("ObjectIntMap<String>", timeUnboxedIntValues(new ObjectIntMap<>(), keys));
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Returns {put seconds, get seconds} for N int keys in a boxed map.
+     */
+    public static double[] timeBoxedIntKeys(Map61B<Integer, String> map, int N) {
+        Stopwatch sw = new Stopwatch();
+        for (int i = 0; i < N; i++) {
+            map.put(i, VALUE);
+        }
+        double putTime = sw.elapsedTime();
+        sw = new Stopwatch();
+        int found = 0;
+        for (int i = 0; i < N; i++) {
+            if (map.get(i) != null) {
+                found++;
+            }
+        }
+        checkFound(found, N);
+        return new double[]{putTime, sw.elapsedTime()};
+    }
+
+    /**
+     * Returns {put seconds, get seconds} for N int keys in an IntObjectMap.
+     */
+    public static double[] timeUnboxedIntKeys(IntObjectMap<String> map, int N) {
+        Stopwatch sw = new Stopwatch();
+        for (int i = 0; i < N; i++) {
+            map.put(i, VALUE);
+        }
+        double putTime = sw.elapsedTime();
+        sw = new Stopwatch();
+        int found = 0;
+        for (int i = 0; i < N; i++) {
+            if (map.get(i) != null) {
+                found++;
+            }
+        }
+        checkFound(found, N);
+        return new double[]{putTime, sw.elapsedTime()};
+    }
+
+    /**
+     * Returns {put seconds, get seconds} for the given keys mapped to ints in
+     * a boxed map.
+     */
+    public static double[] timeBoxedIntValues(Map61B<String, Integer> map, String[] keys) {
+        Stopwatch sw = new Stopwatch();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        double putTime = sw.elapsedTime();
+        sw = new Stopwatch();
+        long sum = 0;
+        for (String key : keys) {
+            sum += map.get(key);
+        }
+        sink += sum;
+        return new double[]{putTime, sw.elapsedTime()};
+    }
+
+    /**
+     * Returns {put seconds, get seconds} for the given keys mapped to ints in
+     * an ObjectIntMap.
+     */
+    public static double[] timeUnboxedIntValues(ObjectIntMap<String> map, String[] keys) {
+        Stopwatch sw = new Stopwatch();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        double putTime = sw.elapsedTime();
+        sw = new Stopwatch();
+        long sum = 0;
+        for (String key : keys) {
+            sum += map.get(key);
+        }
+        sink += sum;
+        return new double[]{putTime, sw.elapsedTime()};
+    }
+
+    /* ------------------------------- Private methods ------------------------------- */
+
+    /** Returns N random strings of length L, generated before any timing starts. */
+    private static String[] randomKeys(int N, int L) {
+        String[] keys = new String[N];
+        for (int i = 0; i < N; i++) {
+            keys[i] = StringUtils.randomString(L);
+        }
+        return keys;
+    }
+
+    /** Prints the put and get times of one map. */
+    private static void report(String name, double[] times) {
+        System.out.printf("  %s: %.2f sec put, %.2f sec get\n", name, times[0], times[1]);
+    }
+
+    /**
+     * Guards against a broken map, and keeps the lookups from being discarded.
+     */
+    private static void checkFound(int found, int expected) {
+        if (found != expected) {
+            throw new IllegalStateException("Found " + found + " of " + expected + " keys");
+        }
+    }
+}
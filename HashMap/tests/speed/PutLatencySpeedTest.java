@@ -0,0 +1,138 @@
+package speed;
+
+import java.util.Scanner;
+
+import hashmap.MyHashMap;
+
+import static speed.InsertRandomSpeedTest.waitForPositiveInt;
+
+/**
+ * Measures the latency of every single put while inserting lexicographically
+ * increasing Strings, like InsertInOrderSpeedTest, and prints the latency
+ * percentiles. Compares MyHashMap resizing all at once against MyHashMap with
+ * incremental resizing, where the tail (p99.9 and max) should be flattened.
+ */
+public class PutLatencySpeedTest {
+    /** Least numbers of old buckets moved per put in incremental mode. */
+    private static final int[] BUCKETS_PER_STEP = {1, 4};
+
+    /**
+     * Requests user input and performs the latency tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program inserts lexicographically increasing Strings"
+                + " into MyHashMaps as <String, Integer> pairs\n and reports the latency"
+                + " distribution of the individual puts. Try N of 8000000.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # strings to insert into each map: ");
+            int N = waitForPositiveInt(input);
+
+            timePutLatency("MyHashMap, resize all at once", new MyHashMap<>(), N);
+
+            for (int bucketsPerStep : BUCKETS_PER_STEP) {
+                MyHashMap<String, Integer> incremental = new MyHashMap<>();
+                incremental.useIncrementalResize(bucketsPerStep);
+                timePutLatency("MyHashMap, incremental resize (at least " + bucketsPerStep
+                        + " buckets per put)", incremental, N);
+            }
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Puts N strings into map in increasing order, timing each put on its own,
+     * and prints the latency percentiles labelled with NAME.
+     */
+    public static void timePutLatency(String name, MyHashMap<String, Integer> map, int N) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        String s = "cat";
+        long start = System.nanoTime();
+        for (int i = 0; i < N; i++) {
+            s = StringUtils.nextString(s); // outside the timed window
+            long before = System.nanoTime();
+            map.put(s, i);
+            histogram.record(System.nanoTime() - before);
+        }
+        double total = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s: %.2f sec total\n", name, total);
+        System.out.printf("  p50 %s, p99 %s, p99.9 %s, p99.99 %s, max %s\n",
+                format(histogram.percentile(50)), format(histogram.percentile(99)),
+                format(histogram.percentile(99.9)), format(histogram.percentile(99.99)),
+                format(histogram.max()));
+    }
+
+    /* ------------------------------- Private methods ------------------------------- */
+
+    /** Formats a latency in nanoseconds with a readable unit. */
+    private static String format(long nanos) {
+        if (nanos < 10_000) {
+            return nanos + " ns";
+        } else if (nanos < 10_000_000) {
+            return nanos / 1000 + " us";
+        }
+        return nanos / 1_000_000 + " ms";
+    }
+
+    /**
+     * A log-linear histogram of latencies: each power of two range is split
+     * into 8 equal sub-buckets, so a reported percentile is within 12.5% of
+     * the true value while recording costs no allocation.
+     */
+    static class LatencyHistogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private final long[] counts = new long[64 * SUB_BUCKETS];
+        private long total = 0;
+        private long max = 0;
+
+        /** Records one latency in nanoseconds. */
+        void record(long nanos) {
+            counts[indexOf(Math.max(nanos, 0))]++;
+            total++;
+            max = Math.max(max, nanos);
+        }
+
+        /** Returns the largest latency recorded. */
+        long max() {
+            return max;
+        }
+
+        /** Returns the lower bound of the bucket holding the given percentile. */
+        long percentile(double percentile) {
+            long rank = (long) Math.ceil(percentile / 100 * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    return lowerBound(i);
+                }
+            }
+            return max;
+        }
+
+        private static int indexOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long lowerBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            int sub = index % SUB_BUCKETS;
+            return (1L << exponent) + ((long) sub << (exponent - SUB_BUCKET_BITS));
+        }
+    }
+}
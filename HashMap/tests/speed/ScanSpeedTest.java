@@ -0,0 +1,107 @@
+package speed;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.function.Supplier;
+
+import hashmap.MyHashMap;
+
+import static hashmap.MyHashMapFactory.createBucketedMap;
+import static speed.InsertRandomSpeedTest.waitForPositiveInt;
+
+/**
+ * Measures full-map scans of a MyHashMap, JMH style: each way of scanning is
+ * run for a few untimed warmup rounds so the JIT has compiled it, then timed
+ * over several rounds, and the mean and standard deviation per entry are
+ * printed. Compares keySet() then get(), iterator() then get(), entries(),
+ * forEachKey() and forEach().
+ */
+public class ScanSpeedTest {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    /** Sums what the scans read, so the JIT cannot drop them. */
+    private static long sink;
+
+    /** One way of scanning a whole map. */
+    private interface Scan {
+        void run(MyHashMap<Integer, Integer> map);
+    }
+
+    /**
+     * Requests user input and performs the scan tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program fills MyHashMaps with N Integer keys and times"
+                + " scanning every key and value,\n in ns per entry.");
+
+        List<Supplier<MyHashMap<Integer, Integer>>> factories = List.of(
+                () -> createBucketedMap(LinkedList.class),
+                () -> createBucketedMap(ArrayList.class));
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # keys to put into each map: ");
+            int N = waitForPositiveInt(input);
+
+            for (Supplier<MyHashMap<Integer, Integer>> factory : factories) {
+                MyHashMap<Integer, Integer> map = factory.get();
+                for (int i = 0; i < N; i++) {
+                    map.put(i, i);
+                }
+                System.out.println(map + ":");
+                time("keySet() + get()", map, m -> {
+                    for (Integer key : m.keySet()) {
+                        sink += m.get(key);
+                    }
+                });
+                time("iterator() + get()", map, m -> {
+                    for (Integer key : m) {
+                        sink += m.get(key);
+                    }
+                });
+                time("entries()", map, m -> {
+                    for (Map.Entry<Integer, Integer> entry : m.entries()) {
+                        sink += entry.getValue();
+                    }
+                });
+                time("forEachKey()", map, m -> m.forEachKey(key -> sink += key));
+                time("forEach()", map, m -> m.forEach((key, value) -> sink += value));
+            }
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Warms up and then times scan over map, printing the mean and standard
+     * deviation of the time per entry labelled with NAME.
+     */
+    public static void time(String name, MyHashMap<Integer, Integer> map, Scan scan) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            scan.run(map);
+        }
+        double[] perEntry = new double[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            scan.run(map);
+            perEntry[i] = (double) (System.nanoTime() - start) / map.size();
+        }
+        double mean = 0;
+        for (double t : perEntry) {
+            mean += t / MEASURED_ROUNDS;
+        }
+        double variance = 0;
+        for (double t : perEntry) {
+            variance += (t - mean) * (t - mean) / MEASURED_ROUNDS;
+        }
+        System.out.printf("  %-20s %8.2f ns/entry +- %.2f\n", name, mean, Math.sqrt(variance));
+    }
+}
@@ -0,0 +1,100 @@
+package speed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.function.Supplier;
+
+import hashmap.Map61B;
+import hashmap.MyHashMap;
+import hashmap.SmallMap;
+import hashmap.ULLMap;
+
+import static speed.InsertRandomSpeedTest.waitForPositiveInt;
+
+/**
+ * Compares ULLMap, SmallMap and MyHashMap as many tiny maps, the way they are
+ * used for small per-object lookup tables: for each size from 1 to 64, builds
+ * enough maps of that size to make N puts in total, then looks up every key
+ * once, and prints the ns per put and per get.
+ */
+public class SmallMapSpeedTest {
+    private static final int[] SIZES = {1, 2, 4, 8, 12, 16, 24, 32, 48, 64};
+    private static final int ROUNDS = 5;
+
+    /** Sums what the lookups read, so the JIT cannot drop them. */
+    private static long sink;
+
+    /**
+     * Requests user input and performs the small map tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program fills many small maps of sizes 1 to 64 with N keys"
+                + " in total\n and times put and get in ULLMap, SmallMap and MyHashMap."
+                + " Try 1000000.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # keys in total: ");
+            int N = waitForPositiveInt(input);
+
+            System.out.printf("%5s %22s %22s %22s\n", "size", "ULLMap put/get ns",
+                    "SmallMap put/get ns", "MyHashMap put/get ns");
+            for (int size : SIZES) {
+                String[] keys = new String[size];
+                String[] lookups = new String[size];
+                for (int i = 0; i < size; i++) {
+                    keys[i] = "key" + i;
+                    // equal but not identical, so get() cannot win on reference equality
+                    lookups[i] = new String(keys[i]);
+                }
+                int maps = Math.max(1, N / size);
+                double[] ull = time(ULLMap::new, keys, lookups, maps);
+                double[] small = time(SmallMap::new, keys, lookups, maps);
+                double[] hash = time(MyHashMap::new, keys, lookups, maps);
+                System.out.printf("%5d %10.1f / %-10.1f %10.1f / %-10.1f %10.1f / %-10.1f\n", size,
+                        ull[0], ull[1], small[0], small[1], hash[0], hash[1]);
+            }
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /* ------------------------------- Private methods ------------------------------- */
+
+    /**
+     * Fills the given number of new maps with keys and looks up every key in
+     * each, returning the best ns per put and per get over ROUNDS rounds.
+     */
+    private static double[] time(Supplier<Map61B<String, Integer>> factory, String[] keys,
+                                 String[] lookups, int maps) {
+        double put = Double.POSITIVE_INFINITY;
+        double get = Double.POSITIVE_INFINITY;
+        List<Map61B<String, Integer>> built = new ArrayList<>(maps);
+        for (int round = 0; round < ROUNDS; round++) {
+            built.clear();
+            long start = System.nanoTime();
+            for (int m = 0; m < maps; m++) {
+                Map61B<String, Integer> map = factory.get();
+                for (int i = 0; i < keys.length; i++) {
+                    map.put(keys[i], i);
+                }
+                built.add(map);
+            }
+            put = Math.min(put, (double) (System.nanoTime() - start) / maps / keys.length);
+
+            start = System.nanoTime();
+            for (Map61B<String, Integer> map : built) {
+                for (String key : lookups) {
+                    sink += map.get(key);
+                }
+            }
+            get = Math.min(get, (double) (System.nanoTime() - start) / maps / keys.length);
+        }
+        return new double[]{put, get};
+    }
+}
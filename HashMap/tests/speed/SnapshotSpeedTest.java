@@ -0,0 +1,81 @@
+package speed;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+import hashmap.Codec;
+import hashmap.MyHashMap;
+import hashmap.MyHashMapSnapshot;
+
+import static speed.InsertRandomSpeedTest.waitForPositiveInt;
+
+/**
+ * Saves a MyHashMap of N String keys as a MyHashMapSnapshot file, then
+ * compares the cold-start time to the first get(): rebuilding a MyHashMap
+ * from the file, which decodes and inserts every entry, against opening the
+ * file as a mapped snapshot, with and without checking its checksums.
+ */
+public class SnapshotSpeedTest {
+    /** Sums what the lookups read, so the JIT cannot drop them. */
+    private static long sink;
+
+    /**
+     * Requests user input and performs the snapshot tests. ARGS is unused.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program saves a MyHashMap of N lexicographically increasing"
+                + " Strings as a snapshot file\n and times how long it takes until the first get()"
+                + " can be answered from it.");
+
+        Path file = Files.createTempFile("MyHashMap", ".snapshot");
+        String repeat;
+        do {
+            System.out.print("\nEnter # keys to save in the snapshot: ");
+            int N = waitForPositiveInt(input);
+
+            MyHashMap<String, Integer> map = new MyHashMap<>();
+            String s = "cat";
+            for (int i = 0; i < N; i++) {
+                s = StringUtils.nextString(s);
+                map.put(s, i);
+            }
+            String last = s;
+
+            long start = System.nanoTime();
+            MyHashMapSnapshot.write(map, file, Codec.STRING, Codec.INTEGER);
+            System.out.printf("write: %.2f ms, %.1f MB file\n",
+                    (System.nanoTime() - start) / 1e6, Files.size(file) / 1e6);
+            map = null;
+
+            start = System.nanoTime();
+            MyHashMap<String, Integer> rebuilt =
+                    MyHashMapSnapshot.open(file, Codec.STRING, Codec.INTEGER, false).toMyHashMap();
+            sink += rebuilt.get(last);
+            printColdStart("rebuild MyHashMap", start);
+            rebuilt = null;
+
+            start = System.nanoTime();
+            sink += MyHashMapSnapshot.open(file, Codec.STRING, Codec.INTEGER).get(last);
+            printColdStart("open, verified", start);
+
+            start = System.nanoTime();
+            sink += MyHashMapSnapshot.open(file, Codec.STRING, Codec.INTEGER, false).get(last);
+            printColdStart("open, unverified", start);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+        Files.deleteIfExists(file);
+    }
+
+    /* ------------------------------- Private methods ------------------------------- */
+
+    private static void printColdStart(String name, long start) {
+        System.out.printf("%s: %.2f ms to the first get()\n", name, (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -0,0 +1,89 @@
+package speed;
+
+import java.util.Scanner;
+
+import hashmap.MyHashMap;
+
+import static speed.InsertRandomSpeedTest.waitForPositiveInt;
+
+/**
+ * Times N get() calls on a MyHashMap with statistics off and on, to show that
+ * disabled statistics cost next to nothing, and prints the stats() of maps
+ * keyed by Strings and by keys with a clustering hashCode() side by side.
+ */
+public class StatsSpeedTest {
+    private static final int ROUNDS = 5;
+
+    /** Sums what the lookups read, so the JIT cannot drop them. */
+    private static long sink;
+
+    /** A key whose hashCode() only takes 16 values, the kind stats() is meant to expose. */
+    private record BadKey(int id) {
+        @Override
+        public int hashCode() {
+            return id % 16;
+        }
+    }
+
+    /**
+     * Requests user input and performs the stats tests. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program times N lookups in a MyHashMap with statistics off"
+                + " and on,\n then prints the statistics of a String-keyed map and of a map whose"
+                + " keys hash badly.");
+
+        String repeat;
+        do {
+            System.out.print("\nEnter # strings to look up: ");
+            int N = waitForPositiveInt(input);
+
+            StringUtils.setSeed(61);
+            String[] keys = new String[N];
+            MyHashMap<String, Integer> map = new MyHashMap<>();
+            for (int i = 0; i < N; i++) {
+                keys[i] = StringUtils.randomString(10);
+                map.put(keys[i], i);
+            }
+            // alternate the two settings so both see the same JIT and heap state
+            double off = Double.POSITIVE_INFINITY;
+            double on = Double.POSITIVE_INFINITY;
+            for (int round = 0; round < ROUNDS; round++) {
+                map.disableStats();
+                off = Math.min(off, timeGets(map, keys));
+                map.enableStats();
+                on = Math.min(on, timeGets(map, keys));
+            }
+            System.out.printf("stats off: %.2f ns/get, stats on: %.2f ns/get\n", off, on);
+            System.out.println("String keys: " + map.stats());
+
+            MyHashMap<BadKey, Integer> bad = new MyHashMap<>();
+            bad.enableStats();
+            int badN = Math.min(N, 20000);
+            for (int i = 0; i < badN; i++) {
+                bad.put(new BadKey(i), i);
+            }
+            for (int i = 0; i < badN; i++) {
+                sink += bad.get(new BadKey(i));
+            }
+            System.out.println("BadKey keys: " + bad.stats());
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n): ");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /* ------------------------------- Private methods ------------------------------- */
+
+    /** Returns the ns per get() of looking up every key once. */
+    private static double timeGets(MyHashMap<String, Integer> map, String[] keys) {
+        long start = System.nanoTime();
+        for (String key : keys) {
+            sink += map.get(key);
+        }
+        return (double) (System.nanoTime() - start) / keys.length;
+    }
+}